@@ -0,0 +1,252 @@
+package com.mycompany.myapp.broker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.kafka.KafkaConnectionDetails;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.stream.binder.kafka.properties.KafkaBinderConfigurationProperties;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Operations on the {@value KafkaRetryPublisher#DEAD_LETTER_TOPIC}: listing its last records, and replaying them.
+ * <p>
+ * The topic is read with a short-lived Kafka consumer for each operation, configured as the consumers of the binder: its
+ * brokers, security and consumer settings. A replay publishes the records again on their
+ * original topic, and commits its position in the {@value #REPLAY_GROUP} group, so that a record is only replayed once. As
+ * every instance consumes the main topic, a record which failed on several instances is in the dead letter topic several times:
+ * it is only replayed once, and is then consumed by every instance again.
+ */
+@Component
+public class DeadLetterQueue {
+
+    static final String REPLAY_GROUP = "ms-media-dlq-replay";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final int MAX_DATA_LENGTH = 1000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(DeadLetterQueue.class);
+
+    private final StreamBridge streamBridge;
+
+    private final ConsumerFactory<byte[], byte[]> consumerFactory;
+
+    private final Counter replayedRecords;
+
+    public DeadLetterQueue(
+        StreamBridge streamBridge,
+        KafkaProperties kafkaProperties,
+        ObjectProvider<KafkaConnectionDetails> kafkaConnectionDetails,
+        Environment environment,
+        MeterRegistry meterRegistry
+    ) {
+        this.streamBridge = streamBridge;
+        // The binder properties live in the context of the binder: they are bound again, to merge them the same way
+        KafkaBinderConfigurationProperties binderProperties = new KafkaBinderConfigurationProperties(
+            kafkaProperties,
+            kafkaConnectionDetails
+        );
+        Binder.get(environment).bind("spring.cloud.stream.kafka.binder", Bindable.ofInstance(binderProperties));
+        Map<String, Object> config = new HashMap<>(binderProperties.mergedConsumerConfiguration());
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        this.consumerFactory = new DefaultKafkaConsumerFactory<>(config, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+        this.replayedRecords = Counter.builder("kafka.consumer.dead.letters.replayed")
+            .description("Records of the dead letter topic published again on their original topic")
+            .register(meterRegistry);
+    }
+
+    /**
+     * A record of the dead letter topic.
+     *
+     * @param partition the partition of the record in the dead letter topic.
+     * @param offset the offset of the record in the dead letter topic.
+     * @param timestamp the time the record failed for the last time.
+     * @param originalTopic the topic the record was first consumed from.
+     * @param origin the instance the record failed on.
+     * @param attempts the number of retries of the record.
+     * @param error the last error.
+     * @param data the message of the record, truncated.
+     */
+    public record DeadLetter(
+        int partition,
+        long offset,
+        Instant timestamp,
+        String originalTopic,
+        String origin,
+        String attempts,
+        String error,
+        String data
+    ) {}
+
+    /**
+     * @param limit the maximum number of records.
+     * @return the last records of the dead letter topic, the most recent first.
+     */
+    public List<DeadLetter> last(int limit) {
+        List<DeadLetter> deadLetters = new ArrayList<>();
+        try (Consumer<byte[], byte[]> consumer = consumer(null)) {
+            List<TopicPartition> partitions = partitions(consumer);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
+            for (TopicPartition partition : partitions) {
+                consumer.seek(partition, Math.max(beginningOffsets.get(partition), endOffsets.get(partition) - limit));
+            }
+            read(consumer, endOffsets, Integer.MAX_VALUE, consumerRecord -> deadLetters.add(deadLetter(consumerRecord)));
+        }
+        deadLetters.sort(Comparator.comparing(DeadLetter::timestamp).reversed());
+        return deadLetters.size() > limit ? deadLetters.subList(0, limit) : deadLetters;
+    }
+
+    /**
+     * Publish the records of the dead letter topic which were not replayed yet on their original topic.
+     *
+     * @param max the maximum number of records read from the dead letter topic.
+     * @return the number of records published.
+     */
+    public int replay(int max) {
+        Set<String> replayed = new HashSet<>();
+        try (Consumer<byte[], byte[]> consumer = consumer(REPLAY_GROUP)) {
+            List<TopicPartition> partitions = partitions(consumer);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+            for (TopicPartition partition : partitions) {
+                OffsetAndMetadata position = committed.get(partition);
+                if (position != null) {
+                    consumer.seek(partition, position);
+                } else {
+                    consumer.seekToBeginning(List.of(partition));
+                }
+            }
+            Map<TopicPartition, OffsetAndMetadata> positions = new HashMap<>();
+            read(consumer, endOffsets, max, consumerRecord -> {
+                String originalRecord =
+                    header(consumerRecord, KafkaRetryPublisher.ORIGINAL_TOPIC_HEADER) +
+                    "/" +
+                    header(consumerRecord, KafkaRetryPublisher.ORIGINAL_PARTITION_HEADER) +
+                    "/" +
+                    header(consumerRecord, KafkaRetryPublisher.ORIGINAL_OFFSET_HEADER);
+                if (replayed.add(originalRecord)) {
+                    publish(consumerRecord);
+                }
+                positions.put(
+                    new TopicPartition(consumerRecord.topic(), consumerRecord.partition()),
+                    new OffsetAndMetadata(consumerRecord.offset() + 1)
+                );
+            });
+            consumer.commitSync(positions);
+        }
+        LOG.info("Replayed {} records of {}", replayed.size(), KafkaRetryPublisher.DEAD_LETTER_TOPIC);
+        return replayed.size();
+    }
+
+    private void publish(ConsumerRecord<byte[], byte[]> consumerRecord) {
+        String topic = header(consumerRecord, KafkaRetryPublisher.ORIGINAL_TOPIC_HEADER);
+        MessageBuilder<byte[]> message = MessageBuilder.withPayload(consumerRecord.value());
+        message.setHeader(KafkaHeaders.KEY, consumerRecord.key());
+        for (Header header : consumerRecord.headers()) {
+            // The headers are published again as strings, without the retry headers and the types of the original headers
+            if (header.value() != null && !header.key().startsWith("retry") && !header.key().startsWith("spring_json")) {
+                message.setHeader(header.key(), new String(header.value(), StandardCharsets.UTF_8));
+            }
+        }
+        streamBridge.send(topic != null ? topic : KafkaRetryPublisher.MAIN_TOPIC, message.build());
+        replayedRecords.increment();
+    }
+
+    private static void read(
+        Consumer<byte[], byte[]> consumer,
+        Map<TopicPartition, Long> endOffsets,
+        int max,
+        java.util.function.Consumer<ConsumerRecord<byte[], byte[]>> action
+    ) {
+        long deadline = System.nanoTime() + READ_TIMEOUT.toNanos();
+        int count = 0;
+        while (count < max && !caughtUp(consumer, endOffsets) && System.nanoTime() < deadline) {
+            for (ConsumerRecord<byte[], byte[]> consumerRecord : consumer.poll(POLL_TIMEOUT)) {
+                TopicPartition partition = new TopicPartition(consumerRecord.topic(), consumerRecord.partition());
+                if (count < max && consumerRecord.offset() < endOffsets.get(partition)) {
+                    action.accept(consumerRecord);
+                    count++;
+                }
+            }
+        }
+    }
+
+    private static boolean caughtUp(Consumer<byte[], byte[]> consumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream().allMatch(end -> consumer.position(end.getKey()) >= end.getValue());
+    }
+
+    private static List<TopicPartition> partitions(Consumer<byte[], byte[]> consumer) {
+        List<TopicPartition> partitions = consumer
+            .partitionsFor(KafkaRetryPublisher.DEAD_LETTER_TOPIC)
+            .stream()
+            .map(info -> new TopicPartition(info.topic(), info.partition()))
+            .toList();
+        consumer.assign(partitions);
+        return partitions;
+    }
+
+    private Consumer<byte[], byte[]> consumer(String groupId) {
+        return consumerFactory.createConsumer(groupId, null);
+    }
+
+    private static DeadLetter deadLetter(ConsumerRecord<byte[], byte[]> consumerRecord) {
+        String data;
+        try {
+            byte[] payload = consumerRecord.value();
+            data = EventEnvelopeCodec.isEnvelope(payload)
+                ? EventEnvelopeCodec.decode(payload).data()
+                : new String(payload, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            data = "<unreadable: " + e.getMessage() + ">";
+        }
+        return new DeadLetter(
+            consumerRecord.partition(),
+            consumerRecord.offset(),
+            Instant.ofEpochMilli(consumerRecord.timestamp()),
+            header(consumerRecord, KafkaRetryPublisher.ORIGINAL_TOPIC_HEADER),
+            header(consumerRecord, KafkaRetryPublisher.ORIGIN_HEADER),
+            header(consumerRecord, KafkaRetryPublisher.ATTEMPT_HEADER),
+            header(consumerRecord, KafkaRetryPublisher.ERROR_HEADER),
+            data.length() > MAX_DATA_LENGTH ? data.substring(0, MAX_DATA_LENGTH) : data
+        );
+    }
+
+    /**
+     * The raw value of a header: the producer writes the strings as they are, and the other values as JSON.
+     */
+    private static String header(ConsumerRecord<byte[], byte[]> consumerRecord, String name) {
+        Header header = consumerRecord.headers().lastHeader(name);
+        return header != null && header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+}
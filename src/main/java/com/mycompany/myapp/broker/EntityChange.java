@@ -0,0 +1,16 @@
+package com.mycompany.myapp.broker;
+
+import java.util.Map;
+
+/**
+ * Change of an entity a realtime message is about. The coalesced frames keep the id of the entity and the latest reaction
+ * counts, rather than the message.
+ *
+ * @param eventType the kind of change, for example {@code CREATED}.
+ * @param entity the simple class name of the entity.
+ * @param entityId the id of the entity.
+ * @param countsTarget the post or comment whose reaction counts the message carries, for example {@code POST:12}, {@code null}
+ * if it carries none.
+ * @param counts the number of reactions of each type of the target after the change, {@code null} if the message carries none.
+ */
+public record EntityChange(String eventType, String entity, Long entityId, String countsTarget, Map<String, Long> counts) {}
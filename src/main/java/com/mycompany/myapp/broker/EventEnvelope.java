@@ -0,0 +1,41 @@
+package com.mycompany.myapp.broker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.time.Instant;
+
+/**
+ * Payload of the records of the Kafka topics, written and read by the {@link EventEnvelopeCodec}.
+ * <p>
+ * The format is versioned, and changes to it follow these rules:
+ * <ul>
+ * <li>A field can be added with a new field number, without changing the version: the readers skip the fields they do not
+ * know, so the consumers not upgraded yet still read the new records.</li>
+ * <li>A field number is never reused nor given another type, and a field is never made mandatory: the readers take
+ * {@code null} for a missing field, so the upgraded consumers still read the records of the producers not upgraded yet.</li>
+ * <li>Any other change (a new kind of value in the delta, a new wire type) needs a new version. The readers reject the
+ * versions they do not know, so the producers keep writing the previous version until every consumer reads the new one.</li>
+ * <li>A payload which does not start with a version byte is a text record, from before the envelope.</li>
+ * </ul>
+ *
+ * @param eventType the kind of event, for example {@code UPDATED}, or {@value #MESSAGE_EVENT} for a free text message.
+ * @param entity the simple class name of the entity the event is about, {@code null} for a message.
+ * @param entityId the id of the entity, {@code null} for a message.
+ * @param occurredAt the time of the change, may be {@code null}.
+ * @param delta the fields of the entity after the change, without its {@code null} fields, or the text of a message.
+ */
+public record EventEnvelope(String eventType, String entity, Long entityId, Instant occurredAt, JsonNode delta) {
+    /**
+     * Event type of the free text messages published through the API.
+     */
+    public static final String MESSAGE_EVENT = "MESSAGE";
+
+    /**
+     * @return the data sent to the SSE clients: the text of a message, or the delta as JSON.
+     */
+    public String data() {
+        if (delta == null) {
+            return "";
+        }
+        return delta.isTextual() ? delta.textValue() : delta.toString();
+    }
+}
@@ -0,0 +1,337 @@
+package com.mycompany.myapp.broker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary codec of the {@link EventEnvelope}.
+ * <p>
+ * A payload starts with the version of the format on one byte, then holds numbered fields, each starting with its number and
+ * its wire type: a variable length number, or a length followed by as many bytes. The delta is written as tagged values:
+ * variable length numbers, UTF-8 strings, and the names of the object fields written once, then as references to their first
+ * occurrence. The version bytes are control characters, which do not start a text record.
+ */
+public final class EventEnvelopeCodec {
+
+    static final byte FORMAT_VERSION = 1;
+
+    /**
+     * Highest first byte of a payload read as a version: the bytes up to it are reserved for the next versions.
+     */
+    private static final byte MAX_VERSION = 8;
+
+    private static final int VARINT = 0;
+    private static final int LENGTH_DELIMITED = 1;
+
+    static final int EVENT_TYPE_FIELD = 1;
+    static final int ENTITY_FIELD = 2;
+    static final int ENTITY_ID_FIELD = 3;
+    static final int OCCURRED_AT_FIELD = 4;
+    static final int DELTA_FIELD = 5;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte OBJECT = 6;
+    private static final byte ARRAY = 7;
+
+    private EventEnvelopeCodec() {}
+
+    /**
+     * @param payload the payload of a record.
+     * @return {@code true} if the payload starts with a version byte, {@code false} if it is a text record.
+     */
+    public static boolean isEnvelope(byte[] payload) {
+        return payload.length > 0 && payload[0] >= FORMAT_VERSION && payload[0] <= MAX_VERSION;
+    }
+
+    public static byte[] encode(EventEnvelope envelope) {
+        Writer out = new Writer();
+        out.writeByte(FORMAT_VERSION);
+        if (envelope.eventType() != null) {
+            out.writeKey(EVENT_TYPE_FIELD, LENGTH_DELIMITED);
+            out.writeString(envelope.eventType());
+        }
+        if (envelope.entity() != null) {
+            out.writeKey(ENTITY_FIELD, LENGTH_DELIMITED);
+            out.writeString(envelope.entity());
+        }
+        if (envelope.entityId() != null) {
+            out.writeKey(ENTITY_ID_FIELD, VARINT);
+            out.writeVarLong(envelope.entityId());
+        }
+        if (envelope.occurredAt() != null) {
+            out.writeKey(OCCURRED_AT_FIELD, VARINT);
+            out.writeVarLong(envelope.occurredAt().toEpochMilli());
+        }
+        if (envelope.delta() != null) {
+            Writer delta = new Writer();
+            writeValue(delta, envelope.delta(), new HashMap<>());
+            out.writeKey(DELTA_FIELD, LENGTH_DELIMITED);
+            out.writeBytes(delta);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param payload a payload for which {@link #isEnvelope} is {@code true}.
+     * @return the envelope.
+     * @throws IllegalArgumentException if the payload is of an unknown version, or is corrupted.
+     */
+    public static EventEnvelope decode(byte[] payload) {
+        if (!isEnvelope(payload)) {
+            throw new IllegalArgumentException("Not an event envelope");
+        }
+        if (payload[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported event envelope version " + payload[0]);
+        }
+        ByteBuffer in = ByteBuffer.wrap(payload, 1, payload.length - 1);
+        String eventType = null;
+        String entity = null;
+        Long entityId = null;
+        Instant occurredAt = null;
+        JsonNode delta = null;
+        try {
+            while (in.hasRemaining()) {
+                long key = readVarLong(in);
+                int field = (int) (key >>> 1);
+                int wireType = (int) (key & 1);
+                switch (field) {
+                    case EVENT_TYPE_FIELD -> eventType = readString(in);
+                    case ENTITY_FIELD -> entity = readString(in);
+                    case ENTITY_ID_FIELD -> entityId = readVarLong(in);
+                    case OCCURRED_AT_FIELD -> occurredAt = Instant.ofEpochMilli(readVarLong(in));
+                    case DELTA_FIELD -> {
+                        int length = readLength(in);
+                        ByteBuffer value = in.slice(in.position(), length);
+                        in.position(in.position() + length);
+                        delta = readValue(value, new ArrayList<>());
+                    }
+                    default -> skip(in, wireType);
+                }
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated event envelope", e);
+        }
+        return new EventEnvelope(eventType, entity, entityId, occurredAt, delta);
+    }
+
+    private static void skip(ByteBuffer in, int wireType) {
+        if (wireType == VARINT) {
+            readVarLong(in);
+        } else {
+            int length = readLength(in);
+            in.position(in.position() + length);
+        }
+    }
+
+    private static void writeValue(Writer out, JsonNode value, Map<String, Integer> names) {
+        switch (value.getNodeType()) {
+            case BOOLEAN -> out.writeByte(value.booleanValue() ? TRUE : FALSE);
+            case NUMBER -> {
+                if (value.isIntegralNumber() && value.canConvertToLong()) {
+                    out.writeByte(LONG);
+                    out.writeVarLong(value.longValue());
+                } else {
+                    out.writeByte(DOUBLE);
+                    out.writeDouble(value.doubleValue());
+                }
+            }
+            case OBJECT -> {
+                List<Map.Entry<String, JsonNode>> fields = new ArrayList<>();
+                for (Iterator<Map.Entry<String, JsonNode>> it = value.fields(); it.hasNext();) {
+                    Map.Entry<String, JsonNode> field = it.next();
+                    // The absent fields are null
+                    if (!field.getValue().isNull()) {
+                        fields.add(field);
+                    }
+                }
+                out.writeByte(OBJECT);
+                out.writeVarLong(fields.size());
+                for (Map.Entry<String, JsonNode> field : fields) {
+                    writeName(out, field.getKey(), names);
+                    writeValue(out, field.getValue(), names);
+                }
+            }
+            case ARRAY -> {
+                out.writeByte(ARRAY);
+                out.writeVarLong(value.size());
+                for (JsonNode element : value) {
+                    writeValue(out, element, names);
+                }
+            }
+            case NULL, MISSING -> out.writeByte(NULL);
+            default -> {
+                out.writeByte(STRING);
+                out.writeString(value.asText());
+            }
+        }
+    }
+
+    /**
+     * Write a name as 0 followed by the name the first time, then as its index plus one.
+     */
+    private static void writeName(Writer out, String name, Map<String, Integer> names) {
+        Integer index = names.get(name);
+        if (index != null) {
+            out.writeVarLong(index + 1L);
+        } else {
+            names.put(name, names.size());
+            out.writeVarLong(0);
+            out.writeString(name);
+        }
+    }
+
+    private static JsonNode readValue(ByteBuffer in, List<String> names) {
+        JsonNodeFactory nodes = JsonNodeFactory.instance;
+        byte tag = in.get();
+        return switch (tag) {
+            case NULL -> nodes.nullNode();
+            case TRUE -> nodes.booleanNode(true);
+            case FALSE -> nodes.booleanNode(false);
+            case LONG -> {
+                // Like the JSON parser, which reads the numbers which fit in an int as an int
+                long number = readVarLong(in);
+                yield number == (int) number ? nodes.numberNode((int) number) : nodes.numberNode(number);
+            }
+            case DOUBLE -> nodes.numberNode(in.getDouble());
+            case STRING -> nodes.textNode(readString(in));
+            case OBJECT -> {
+                int size = readLength(in);
+                ObjectNode object = nodes.objectNode();
+                for (int i = 0; i < size; i++) {
+                    String name = readName(in, names);
+                    object.set(name, readValue(in, names));
+                }
+                yield object;
+            }
+            case ARRAY -> {
+                int size = readLength(in);
+                ArrayNode array = nodes.arrayNode(size);
+                for (int i = 0; i < size; i++) {
+                    array.add(readValue(in, names));
+                }
+                yield array;
+            }
+            default -> throw new IllegalArgumentException("Unknown value tag " + tag);
+        };
+    }
+
+    private static String readName(ByteBuffer in, List<String> names) {
+        long reference = readVarLong(in);
+        if (reference == 0) {
+            String name = readString(in);
+            names.add(name);
+            return name;
+        }
+        if (reference < 0 || reference > names.size()) {
+            throw new IllegalArgumentException("Unknown name reference " + reference);
+        }
+        return names.get((int) reference - 1);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readLength(in);
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static int readLength(ByteBuffer in) {
+        long length = readVarLong(in);
+        // A length, or a number of values, is at most the number of remaining bytes
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Invalid length " + length);
+        }
+        return (int) length;
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * Growable byte array, not synchronized unlike a {@link java.io.ByteArrayOutputStream}.
+     */
+    private static final class Writer {
+
+        private byte[] bytes = new byte[128];
+
+        private int size;
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeKey(int field, int wireType) {
+            writeVarLong(((long) field << 1) | wireType);
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            bytes[size++] = (byte) zigzag;
+        }
+
+        void writeDouble(double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (bits >>> shift);
+            }
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length);
+            ensureCapacity(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        void writeBytes(Writer other) {
+            writeVarLong(other.size);
+            ensureCapacity(other.size);
+            System.arraycopy(other.bytes, 0, bytes, size, other.size);
+            size += other.size;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -1,51 +1,196 @@
 package com.mycompany.myapp.broker;
 
-import static org.springframework.web.servlet.mvc.method.annotation.SseEmitter.event;
-
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
 import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.MediaType;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+/**
+ * Consumer of the {@code sse-topic}, sending its records to the SSE clients connected to this instance.
+ * <p>
+ * The binding has no consumer group: every instance reads every record, starting from the latest one when it boots, so that
+ * a client receives the records whatever the instance it is connected to. The clients connect over SSE or WebSocket.
+ * <p>
+ * The records are keyed by post id. The partitions are polled by several consumer threads (the {@code concurrency} of the
+ * binding), and each of them hands its records to a {@link KeyOrderedExecutor}: the records of different posts are processed in
+ * parallel, and the records of a post in the order of their partition.
+ * <p>
+ * The records are {@link EventEnvelope}s, decoded on the worker threads. The text records, from the producers which do not
+ * write envelopes yet, are sent as they are.
+ * <p>
+ * A record which fails to be processed is handed to the {@link KafkaRetryPublisher}, so that it does not hold back the
+ * partition: an unreadable record goes to the dead letter topic, any other goes through the retry topics.
+ * <p>
+ * The time to process a record and the lag of each partition are measured by the {@link KafkaConsumerMetrics}; the time from
+ * the timestamp of a record to its sending, and the number of clients it reaches, by the {@link SseEmitterRegistry}.
+ */
 @Component
-public class KafkaConsumer implements Consumer<String> {
+public class KafkaConsumer implements Consumer<Message<byte[]>>, DisposableBean {
 
     private static final Logger LOG = LoggerFactory.getLogger(KafkaConsumer.class);
 
-    private Map<String, SseEmitter> emitters = new HashMap<>();
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000;
+
+    private final SseEmitterRegistry sseEmitterRegistry;
+
+    private final Duration timeout;
+
+    private final KafkaRetryPublisher kafkaRetryPublisher;
+
+    private final KeyOrderedExecutor workers;
+
+    private final KafkaConsumerMetrics metrics;
+
+    public KafkaConsumer(
+        SseEmitterRegistry sseEmitterRegistry,
+        KafkaRetryPublisher kafkaRetryPublisher,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.sseEmitterRegistry = sseEmitterRegistry;
+        this.kafkaRetryPublisher = kafkaRetryPublisher;
+        this.timeout = applicationProperties.getSse().getTimeout();
+        ApplicationProperties.Kafka properties = applicationProperties.getKafka();
+        this.workers = new KeyOrderedExecutor("kafka-consumer-", properties.getConsumerWorkers(), properties.getConsumerQueueCapacity());
+        this.metrics = new KafkaConsumerMetrics(meterRegistry);
+    }
 
     public SseEmitter register(String key) {
-        LOG.debug("Registering sse client for {}", key);
-        SseEmitter emitter = new SseEmitter();
-        emitter.onCompletion(() -> emitters.remove(key));
-        emitters.put(key, emitter);
-        return emitter;
+        return register(key, Set.of());
+    }
+
+    public SseEmitter register(String key, Set<String> topics) {
+        return register(key, topics, null);
+    }
+
+    /**
+     * Open the SSE stream of a client.
+     *
+     * @param key the key of the subscription, for example the login of the user.
+     * @param topics the topics watched by the client, in addition to the messages for every client.
+     * @param lastEventId the {@code Last-Event-ID} sent by a reconnecting client, {@code null} for a new client.
+     * @return the emitter of the stream.
+     */
+    public SseEmitter register(String key, Set<String> topics, String lastEventId) {
+        return sseEmitterRegistry.register(key, topics, lastEventId, new SseEmitter(timeout.toMillis()));
+    }
+
+    /**
+     * Register a client connected over another transport than SSE.
+     *
+     * @param key the key of the subscription, unique for each connection.
+     * @param topics the topics watched by the client, in addition to the messages for every client.
+     * @param lastEventId the id of the last message received by a reconnecting client, {@code null} for a new client.
+     * @param connection the connection of the client.
+     */
+    public void register(String key, Set<String> topics, String lastEventId, RealtimeConnection connection) {
+        sseEmitterRegistry.register(key, topics, lastEventId, connection);
+    }
+
+    public void subscribe(String key, Set<String> topics) {
+        sseEmitterRegistry.subscribe(key, topics);
+    }
+
+    public void unsubscribe(String key, Set<String> topics) {
+        sseEmitterRegistry.unsubscribe(key, topics);
     }
 
     public void unregister(String key) {
-        LOG.debug("Unregistering sse emitter for: {}", key);
-        Optional.ofNullable(emitters.get(key)).ifPresent(SseEmitter::complete);
+        sseEmitterRegistry.unregister(key);
+    }
+
+    @Override
+    public void accept(Message<byte[]> message) {
+        LOG.debug("Got message from kafka stream: {} bytes", message.getPayload().length);
+        metrics.received(message);
+        workers.execute(orderingKey(message), () -> publish(message));
+    }
+
+    /**
+     * Process a record on the calling thread, rather than on the worker of its key: a retried record is acknowledged once it
+     * has been processed.
+     *
+     * @param message the record.
+     */
+    void process(Message<byte[]> message) {
+        metrics.received(message);
+        publish(message);
     }
 
     @Override
-    public void accept(String input) {
-        LOG.debug("Got message from kafka stream: {}", input);
-        emitters
-            .entrySet()
-            .stream()
-            .map(Map.Entry::getValue)
-            .forEach((SseEmitter emitter) -> {
-                try {
-                    emitter.send(event().data(input, MediaType.TEXT_PLAIN));
-                } catch (IOException e) {
-                    LOG.debug("error sending sse message, {}", input);
-                }
-            });
+    public void destroy() throws InterruptedException {
+        workers.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
+    }
+
+    private void publish(Message<byte[]> message) {
+        long start = System.nanoTime();
+        try {
+            decodeAndPublish(message);
+        } finally {
+            metrics.processed(message, System.nanoTime() - start);
+        }
+    }
+
+    private void decodeAndPublish(Message<byte[]> message) {
+        EventEnvelope envelope;
+        try {
+            envelope = envelope(message);
+        } catch (IllegalArgumentException e) {
+            // Retrying would fail the same way
+            kafkaRetryPublisher.deadLetter(message, e);
+            return;
+        }
+        try {
+            sseEmitterRegistry.publish(
+                SseTopics.of(message.getHeaders()),
+                SseTopics.changeOf(envelope, message.getHeaders()),
+                envelope.data(),
+                timestampOf(message)
+            );
+        } catch (RuntimeException e) {
+            LOG.debug("Error publishing message from kafka stream: {}", e.getMessage(), e);
+            kafkaRetryPublisher.retry(message, e);
+        }
+    }
+
+    /**
+     * The envelope of the record, or a message envelope for the text records from before the envelope.
+     */
+    private static EventEnvelope envelope(Message<byte[]> message) {
+        byte[] payload = message.getPayload();
+        if (EventEnvelopeCodec.isEnvelope(payload)) {
+            return EventEnvelopeCodec.decode(payload);
+        }
+        String text = new String(payload, StandardCharsets.UTF_8);
+        return new EventEnvelope(EventEnvelope.MESSAGE_EVENT, null, null, null, TextNode.valueOf(text));
+    }
+
+    /**
+     * The timestamp of the record, else the current time, for the records which do not come from Kafka.
+     */
+    private static long timestampOf(Message<byte[]> message) {
+        Long timestamp = message.getHeaders().get(KafkaHeaders.RECEIVED_TIMESTAMP, Long.class);
+        return timestamp != null ? timestamp : System.currentTimeMillis();
+    }
+
+    /**
+     * The key of the record, else its post id, for the records published without a key.
+     */
+    private static Object orderingKey(Message<byte[]> message) {
+        Object key = message.getHeaders().get(KafkaHeaders.RECEIVED_KEY);
+        if (key instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return key != null ? key : message.getHeaders().get(SseTopics.POST_ID_HEADER);
     }
 }
@@ -0,0 +1,126 @@
+package com.mycompany.myapp.broker;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * Metrics of the {@link KafkaConsumer}: the time to process a record, and the lag of each partition of the
+ * {@value KafkaRetryPublisher#MAIN_TOPIC}.
+ * <p>
+ * The lag of a partition is the number of its records this instance has not processed yet: the records not fetched yet, as
+ * reported by the Kafka consumer when a record is received, and the records waiting for a worker. The records of a partition
+ * are processed in parallel for different keys, so the last processed offset is taken as the highest one: the lag is an
+ * estimate, exact once the workers are idle. Unlike the {@code kafka.consumer.fetch.manager.records.lag} of the Kafka client,
+ * it does not drop to zero while the fetched records wait for the workers.
+ */
+final class KafkaConsumerMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Timer processing;
+
+    private final ConcurrentMap<TopicPartition, PartitionLag> partitions = new ConcurrentHashMap<>();
+
+    KafkaConsumerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.processing = Timer.builder("kafka.consumer.processing")
+            .description("Time to process a record of the sse-topic on a worker: decoding it and queueing it for the clients")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Record that a record of the main topic was received. This method must be called on the thread of the Kafka consumer.
+     *
+     * @param message the record.
+     */
+    void received(Message<?> message) {
+        MessageHeaders headers = message.getHeaders();
+        TopicPartition partition = partitionOf(headers);
+        Long offset = headers.get(KafkaHeaders.OFFSET, Long.class);
+        if (partition == null || offset == null) {
+            return;
+        }
+        long endOffset = offset + 1;
+        if (headers.get(KafkaHeaders.CONSUMER) instanceof Consumer<?, ?> consumer) {
+            try {
+                // Both are known by the consumer after a fetch: neither calls the brokers
+                OptionalLong fetchLag = consumer.currentLag(partition);
+                if (fetchLag.isPresent()) {
+                    endOffset = Math.max(endOffset, consumer.position(partition) + fetchLag.getAsLong());
+                }
+            } catch (KafkaException | IllegalStateException e) {
+                // The partition was revoked meanwhile: the lag is updated by the next record
+            }
+        }
+        partitions.computeIfAbsent(partition, p -> register(p, offset)).endOffset = endOffset;
+    }
+
+    /**
+     * Record that a record was processed.
+     *
+     * @param message the record.
+     * @param durationNanos the time taken to process it.
+     */
+    void processed(Message<?> message, long durationNanos) {
+        processing.record(durationNanos, TimeUnit.NANOSECONDS);
+        TopicPartition partition = partitionOf(message.getHeaders());
+        Long offset = message.getHeaders().get(KafkaHeaders.OFFSET, Long.class);
+        PartitionLag lag = partition != null ? partitions.get(partition) : null;
+        if (lag != null && offset != null) {
+            lag.processedOffset.accumulateAndGet(offset, Math::max);
+        }
+    }
+
+    /**
+     * @return the partition of a record of the main topic, {@code null} for the other records.
+     */
+    private static TopicPartition partitionOf(MessageHeaders headers) {
+        Integer partition = headers.get(KafkaHeaders.RECEIVED_PARTITION, Integer.class);
+        if (!KafkaRetryPublisher.MAIN_TOPIC.equals(headers.get(KafkaHeaders.RECEIVED_TOPIC)) || partition == null) {
+            return null;
+        }
+        return new TopicPartition(KafkaRetryPublisher.MAIN_TOPIC, partition);
+    }
+
+    private PartitionLag register(TopicPartition partition, long firstOffset) {
+        PartitionLag lag = new PartitionLag(firstOffset);
+        Gauge.builder("kafka.consumer.lag", lag, PartitionLag::lag)
+            .description("Records of the partition not processed yet by this instance, fetched or not")
+            .baseUnit("records")
+            .tag("topic", partition.topic())
+            .tag("partition", String.valueOf(partition.partition()))
+            .register(meterRegistry);
+        return lag;
+    }
+
+    private static final class PartitionLag {
+
+        /**
+         * The offset after the last record of the partition, when the last record was received.
+         */
+        private volatile long endOffset;
+
+        private final AtomicLong processedOffset;
+
+        private PartitionLag(long firstOffset) {
+            this.endOffset = firstOffset + 1;
+            this.processedOffset = new AtomicLong(firstOffset - 1);
+        }
+
+        private double lag() {
+            return Math.max(0, endOffset - processedOffset.get() - 1);
+        }
+    }
+}
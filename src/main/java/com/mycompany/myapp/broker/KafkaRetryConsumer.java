@@ -0,0 +1,79 @@
+package com.mycompany.myapp.broker;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Consumer of the retry topics of the {@value KafkaRetryPublisher#MAIN_TOPIC}, processing again the records which failed on
+ * this instance once their delay has elapsed.
+ * <p>
+ * Each instance reads the retry topics in a group of its own, named after its stable instance id, and acknowledges a record
+ * only once it has been processed again, or sent to the next retry topic: the pending retries survive a restart of the
+ * instance. A record which is not due yet is negatively acknowledged until its due time, which seeks its partition back to it
+ * and pauses the consumer meanwhile, rather than holding it in memory. Each retry topic has its own consumer, so the records
+ * of a retry topic are not held back by the longer delays of the others.
+ */
+@Component
+public class KafkaRetryConsumer implements Consumer<Message<byte[]>> {
+
+    public static final String BINDING_NAME = "kafkaRetryConsumer-in-0";
+
+    private static final Logger LOG = LoggerFactory.getLogger(KafkaRetryConsumer.class);
+
+    private final KafkaConsumer kafkaConsumer;
+
+    private final KafkaRetryPublisher kafkaRetryPublisher;
+
+    public KafkaRetryConsumer(KafkaConsumer kafkaConsumer, KafkaRetryPublisher kafkaRetryPublisher, Environment environment) {
+        this.kafkaConsumer = kafkaConsumer;
+        this.kafkaRetryPublisher = kafkaRetryPublisher;
+        checkDestinations(environment.getProperty("spring.cloud.stream.bindings." + BINDING_NAME + ".destination"));
+    }
+
+    @Override
+    public void accept(Message<byte[]> message) {
+        Acknowledgment acknowledgment = message.getHeaders().get(KafkaHeaders.ACKNOWLEDGMENT, Acknowledgment.class);
+        if (kafkaRetryPublisher.isLocal(message)) {
+            long delay = kafkaRetryPublisher.dueAt(message) - System.currentTimeMillis();
+            if (delay > 0 && acknowledgment != null) {
+                LOG.debug("Got message to retry from kafka stream, in {} ms", delay);
+                acknowledgment.nack(Duration.ofMillis(delay));
+                return;
+            }
+            kafkaConsumer.process(message);
+        }
+        if (acknowledgment != null) {
+            acknowledgment.acknowledge();
+        }
+    }
+
+    /**
+     * Check that the binding reads one retry topic for each retry attempt: a missing topic would never be retried, and its
+     * records would never reach the dead letter topic.
+     */
+    private void checkDestinations(String destination) {
+        List<String> retryTopics = kafkaRetryPublisher.retryTopics();
+        String[] destinations = StringUtils.trimArrayElements(StringUtils.commaDelimitedListToStringArray(destination));
+        if (!new LinkedHashSet<>(Arrays.asList(destinations)).equals(new LinkedHashSet<>(retryTopics))) {
+            throw new IllegalStateException(
+                "The destination of the " +
+                BINDING_NAME +
+                " binding must be " +
+                String.join(",", retryTopics) +
+                ", one retry topic for each of application.kafka.retry-attempts, but is: " +
+                destination
+            );
+        }
+    }
+}
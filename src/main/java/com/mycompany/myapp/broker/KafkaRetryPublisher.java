@@ -0,0 +1,208 @@
+package com.mycompany.myapp.broker;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Publisher moving the records of the {@value #MAIN_TOPIC} which failed to be processed off the main topic: to the next retry
+ * topic, with an exponential delay, and after the last one to the {@value #DEAD_LETTER_TOPIC}.
+ * <p>
+ * Every instance consumes every record of the {@value #MAIN_TOPIC}, for its own clients: a failed record is only retried by the
+ * instance it failed on, named by the {@value #ORIGIN_HEADER} header. The other instances skip it in the retry topics.
+ * <p>
+ * A record is due after the delay of its retry topic, counted from its timestamp in that topic.
+ */
+@Component
+public class KafkaRetryPublisher {
+
+    public static final String MAIN_TOPIC = "sse-topic";
+
+    public static final String RETRY_TOPIC_PREFIX = MAIN_TOPIC + "-retry-";
+
+    public static final String DEAD_LETTER_TOPIC = MAIN_TOPIC + "-dlq";
+
+    public static final String ORIGIN_HEADER = "retryOrigin";
+
+    public static final String ATTEMPT_HEADER = "retryAttempt";
+
+    public static final String ERROR_HEADER = "retryError";
+
+    public static final String ORIGINAL_TOPIC_HEADER = "retryOriginalTopic";
+
+    public static final String ORIGINAL_PARTITION_HEADER = "retryOriginalPartition";
+
+    public static final String ORIGINAL_OFFSET_HEADER = "retryOriginalOffset";
+
+    private static final Logger LOG = LoggerFactory.getLogger(KafkaRetryPublisher.class);
+
+    private final String instanceId;
+
+    private final StreamBridge streamBridge;
+
+    private final Duration[] retryDelays;
+
+    private final Counter[] retries;
+
+    private final Counter deadLetters;
+
+    public KafkaRetryPublisher(StreamBridge streamBridge, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.streamBridge = streamBridge;
+        ApplicationProperties.Kafka properties = applicationProperties.getKafka();
+        this.instanceId = instanceId(properties);
+        this.retryDelays = new Duration[properties.getRetryAttempts()];
+        this.retries = new Counter[retryDelays.length];
+        double delayMillis = properties.getRetryInitialDelay().toMillis();
+        for (int i = 0; i < retryDelays.length; i++) {
+            retryDelays[i] = Duration.ofMillis(Math.round(delayMillis));
+            delayMillis *= properties.getRetryMultiplier();
+            retries[i] = Counter.builder("kafka.consumer.retries")
+                .description("Records which failed to be processed, sent to a retry topic")
+                .tag("topic", retryTopic(i))
+                .register(meterRegistry);
+        }
+        this.deadLetters = Counter.builder("kafka.consumer.dead.letters")
+            .description("Records which failed to be processed after their retries, or could not be read, sent to the dead letter topic")
+            .register(meterRegistry);
+    }
+
+    public static String retryTopic(int attempt) {
+        return RETRY_TOPIC_PREFIX + attempt;
+    }
+
+    /**
+     * @return the retry topics, one for each retry attempt.
+     */
+    public List<String> retryTopics() {
+        List<String> topics = new ArrayList<>(retryDelays.length);
+        for (int i = 0; i < retryDelays.length; i++) {
+            topics.add(retryTopic(i));
+        }
+        return topics;
+    }
+
+    /**
+     * The id of this instance, which must be the same after a restart: it names the consumer group of the retry topics in the
+     * configuration of the binding, with the same fallback to the host name. There is no shared default: instances with the
+     * same id would retry the failed records of each other, which would then never reach the clients they failed for.
+     */
+    private static String instanceId(ApplicationProperties.Kafka properties) {
+        if (StringUtils.hasText(properties.getInstanceId())) {
+            return properties.getInstanceId();
+        }
+        String hostname = System.getenv("HOSTNAME");
+        if (!StringUtils.hasText(hostname)) {
+            throw new IllegalStateException(
+                "No stable id for this instance: set application.kafka.instance-id, or the HOSTNAME environment variable"
+            );
+        }
+        return hostname;
+    }
+
+    /**
+     * @param message a record of a retry topic.
+     * @return {@code true} if the record failed on this instance.
+     */
+    public boolean isLocal(Message<?> message) {
+        return instanceId.equals(headerValue(message.getHeaders(), ORIGIN_HEADER));
+    }
+
+    /**
+     * @param message a record of a retry topic.
+     * @return the time at which it should be processed again, in milliseconds since the epoch.
+     */
+    public long dueAt(Message<?> message) {
+        MessageHeaders headers = message.getHeaders();
+        Long timestamp = headers.get(KafkaHeaders.RECEIVED_TIMESTAMP, Long.class);
+        String topic = headers.get(KafkaHeaders.RECEIVED_TOPIC, String.class);
+        if (timestamp == null || topic == null || !topic.startsWith(RETRY_TOPIC_PREFIX)) {
+            return 0;
+        }
+        try {
+            int attempt = Integer.parseInt(topic.substring(RETRY_TOPIC_PREFIX.length()));
+            // A topic left over from a larger number of attempts is retried at once
+            return attempt < retryDelays.length ? timestamp + retryDelays[attempt].toMillis() : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Send a failed record to the next retry topic, or to the dead letter topic after the last retry.
+     *
+     * @param message the record.
+     * @param error the cause of the failure.
+     */
+    public void retry(Message<byte[]> message, Exception error) {
+        String attemptHeader = headerValue(message.getHeaders(), ATTEMPT_HEADER);
+        int attempt = attemptHeader != null ? Integer.parseInt(attemptHeader) : 0;
+        if (attempt >= retryDelays.length) {
+            deadLetter(message, error);
+            return;
+        }
+        LOG.debug("Retrying message from kafka stream in {}: {}", retryDelays[attempt], error.getMessage());
+        retries[attempt].increment();
+        send(retryTopic(attempt), forward(message, error, attempt + 1).build());
+    }
+
+    /**
+     * Send a failed record to the dead letter topic, without retrying it.
+     *
+     * @param message the record.
+     * @param error the cause of the failure.
+     */
+    public void deadLetter(Message<byte[]> message, Exception error) {
+        LOG.warn("Sending message from kafka stream to {}: {}", DEAD_LETTER_TOPIC, error.getMessage());
+        String attemptHeader = headerValue(message.getHeaders(), ATTEMPT_HEADER);
+        int attempt = attemptHeader != null ? Integer.parseInt(attemptHeader) : 0;
+        deadLetters.increment();
+        send(DEAD_LETTER_TOPIC, forward(message, error, attempt).build());
+    }
+
+    private MessageBuilder<byte[]> forward(Message<byte[]> message, Exception error, int attempt) {
+        MessageHeaders headers = message.getHeaders();
+        return MessageBuilder.withPayload(message.getPayload())
+            .copyHeaders(headers)
+            // The headers of the received record, which the producer would map to the new record
+            .removeHeaders("kafka_*")
+            .setHeader(KafkaHeaders.KEY, headers.get(KafkaHeaders.RECEIVED_KEY))
+            .setHeaderIfAbsent(ORIGINAL_TOPIC_HEADER, headers.get(KafkaHeaders.RECEIVED_TOPIC))
+            .setHeaderIfAbsent(ORIGINAL_PARTITION_HEADER, headers.get(KafkaHeaders.RECEIVED_PARTITION))
+            .setHeaderIfAbsent(ORIGINAL_OFFSET_HEADER, headers.get(KafkaHeaders.OFFSET))
+            .setHeader(ORIGIN_HEADER, instanceId)
+            .setHeader(ATTEMPT_HEADER, attempt)
+            .setHeader(ERROR_HEADER, error.toString());
+    }
+
+    private void send(String topic, Message<byte[]> message) {
+        try {
+            if (!streamBridge.send(topic, message)) {
+                LOG.error("Failed message from kafka stream was not accepted by the producer of {}", topic);
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Failed message from kafka stream could not be sent to {}: {}", topic, e.getMessage());
+        }
+    }
+
+    static String headerValue(MessageHeaders headers, String name) {
+        Object value = headers.get(name);
+        if (value == null) {
+            return null;
+        }
+        // Raw Kafka headers are not converted by the binder
+        return value instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : value.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package com.mycompany.myapp.broker;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Executor running the tasks with the same key one after the other, in the order they were submitted, and the tasks with
+ * different keys in parallel.
+ * <p>
+ * Each key is mapped to one of a fixed set of single-threaded lanes. The queue of a lane is bounded: submitting a task to a full
+ * lane blocks the caller until the lane catches up, rather than rejecting the task or running it out of order. The tasks
+ * without a key are spread over the lanes, with no ordering.
+ */
+final class KeyOrderedExecutor {
+
+    private final ThreadPoolExecutor[] lanes;
+
+    private final AtomicInteger nextLane = new AtomicInteger();
+
+    KeyOrderedExecutor(String threadNamePrefix, int laneCount, int queueCapacity) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        threadFactory.setDaemon(true);
+        RejectedExecutionHandler waitForSpace = (task, lane) -> {
+            if (lane.isShutdown()) {
+                throw new RejectedExecutionException("The executor is shut down");
+            }
+            try {
+                lane.getQueue().put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for the lane", e);
+            }
+        };
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new ThreadPoolExecutor(
+                1,
+                1,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                waitForSpace
+            );
+        }
+    }
+
+    /**
+     * Run a task after the tasks previously submitted with the same key.
+     *
+     * @param key the ordering key, {@code null} if the task can run in any order.
+     * @param task the task.
+     * @throws RejectedExecutionException if the executor is shut down, or the caller is interrupted while the lane is full.
+     */
+    void execute(Object key, Runnable task) {
+        int lane = key != null ? Math.floorMod(key.hashCode(), lanes.length) : Math.floorMod(nextLane.getAndIncrement(), lanes.length);
+        lanes[lane].execute(task);
+    }
+
+    /**
+     * @return the number of tasks waiting in the lanes.
+     */
+    int pending() {
+        int pending = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            pending += lane.getQueue().size();
+        }
+        return pending;
+    }
+
+    /**
+     * Stop accepting tasks, and wait for the submitted ones to complete.
+     *
+     * @param timeoutMillis the maximum time to wait.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    void shutdown(long timeoutMillis) throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+    }
+}
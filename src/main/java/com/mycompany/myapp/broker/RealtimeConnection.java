@@ -0,0 +1,53 @@
+package com.mycompany.myapp.broker;
+
+import java.io.IOException;
+
+/**
+ * Connection of a client registered in the {@link SseEmitterRegistry}, over SSE or WebSocket.
+ * <p>
+ * The registry calls a connection from one thread at a time.
+ */
+public interface RealtimeConnection {
+    /**
+     * Send a frame.
+     *
+     * @param id the id of the frame, which the client sends back when it reconnects.
+     * @param name the name of the frame, {@code null} for a plain message, or {@link SseEmitterRegistry#BATCH_EVENT}.
+     * @param data the message, or the JSON data of a batch.
+     * @throws IOException if the connection failed.
+     */
+    void send(String id, String name, String data) throws IOException;
+
+    /**
+     * Send a frame with no message, so that the idle connection is not closed by the proxies.
+     *
+     * @throws IOException if the connection failed.
+     */
+    void heartbeat() throws IOException;
+
+    /**
+     * @return whether the connection is still writing the previous frame: the registry then keeps the next ones queued until
+     * the {@link #onWritten} task runs.
+     * @throws IOException if the previous frame failed, or was not written within the write timeout.
+     */
+    default boolean isBusy() throws IOException {
+        return false;
+    }
+
+    /**
+     * Set the task run once a frame is written, or failed, for the registry to send the next ones.
+     *
+     * @param task the task.
+     */
+    default void onWritten(Runnable task) {}
+
+    /**
+     * Close the connection, when the registry disconnects the client.
+     */
+    void close();
+
+    /**
+     * @return the name of the transport of the connection, which tags its metrics.
+     */
+    String transport();
+}
@@ -0,0 +1,131 @@
+package com.mycompany.myapp.broker;
+
+import static org.springframework.web.servlet.mvc.method.annotation.SseEmitter.event;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Connection of an SSE client: each frame is an SSE event, and the heartbeats are SSE comments.
+ * <p>
+ * A write to the emitter blocks until the client has room for it, so it runs on a thread of the bounded writer pool, and the
+ * dispatch thread of the registry never waits for it: the connection writes one frame at a time, and is busy meanwhile. It
+ * fails with an {@link IOException}, so that the client is evicted, once the frame has been written for longer than the write
+ * timeout, or its write failed. The write timeout of the container ends the blocked write itself, and frees its writer thread.
+ */
+class SseEmitterConnection implements RealtimeConnection {
+
+    private final SseEmitter emitter;
+
+    private final ExecutorService writer;
+
+    private final long writeTimeoutNanos;
+
+    private final AtomicBoolean writing = new AtomicBoolean();
+
+    /**
+     * Start of the write in progress, from {@link System#nanoTime()}.
+     */
+    private volatile long writeStartedAt;
+
+    private volatile Future<?> write;
+
+    private volatile IOException failure;
+
+    private volatile Runnable onWritten = () -> {};
+
+    SseEmitterConnection(SseEmitter emitter, ExecutorService writer, Duration writeTimeout) {
+        this.emitter = emitter;
+        this.writer = writer;
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+    }
+
+    @Override
+    public void send(String id, String name, String data) throws IOException {
+        if (name == null) {
+            write(() -> emitter.send(event().id(id).data(data, MediaType.TEXT_PLAIN)));
+        } else {
+            write(() -> emitter.send(event().id(id).name(name).data(data, MediaType.APPLICATION_JSON)));
+        }
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+        write(() -> emitter.send(event().comment("")));
+    }
+
+    @Override
+    public boolean isBusy() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (!writing.get()) {
+            return false;
+        }
+        if (System.nanoTime() - writeStartedAt > writeTimeoutNanos) {
+            throw new IOException("Write not completed within " + Duration.ofNanos(writeTimeoutNanos).toMillis() + "ms");
+        }
+        return true;
+    }
+
+    @Override
+    public void onWritten(Runnable task) {
+        this.onWritten = task;
+    }
+
+    @Override
+    public void close() {
+        Future<?> inProgress = write;
+        if (inProgress != null) {
+            // Interrupts the blocked write, if the container lets it
+            inProgress.cancel(true);
+        }
+        try {
+            writer.execute(emitter::complete);
+        } catch (RejectedExecutionException e) {
+            emitter.complete();
+        }
+    }
+
+    @Override
+    public String transport() {
+        return "sse";
+    }
+
+    private void write(Write frame) throws IOException {
+        if (!writing.compareAndSet(false, true)) {
+            throw new IllegalStateException("A frame is already being written");
+        }
+        writeStartedAt = System.nanoTime();
+        try {
+            write = writer.submit(() -> run(frame));
+        } catch (RejectedExecutionException e) {
+            writing.set(false);
+            throw new IOException("The writers are shut down", e);
+        }
+    }
+
+    private void run(Write frame) {
+        try {
+            frame.run();
+        } catch (IOException e) {
+            failure = e;
+        } catch (RuntimeException e) {
+            failure = new IOException(e);
+        } finally {
+            writing.set(false);
+        }
+        onWritten.run();
+    }
+
+    @FunctionalInterface
+    private interface Write {
+        void run() throws IOException;
+    }
+}
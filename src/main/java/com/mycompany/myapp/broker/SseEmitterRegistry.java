@@ -0,0 +1,1019 @@
+package com.mycompany.myapp.broker;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Thread safe registry of the connected SSE and WebSocket clients, fanning the messages out to them.
+ * <p>
+ * Publishing a message only enqueues it in the bounded queue of each subscription. The queues are drained by a fixed set of
+ * dispatch threads, each subscription being always served by the same thread (its shard), so that the messages of a client
+ * stay in order and a slow client only delays the clients of its shard. A client whose queue is full, or whose connection
+ * fails, is evicted. The dispatch threads never block on a write: a bounded pool of writer threads writes one frame at a time
+ * to each SSE client, whose next messages wait in its queue meanwhile, and a client which does not read its frames in time is
+ * evicted too, as a WebSocket client is.
+ * <p>
+ * The messages are published concurrently, with no lock shared by the publishers: a message takes its sequence number from a
+ * counter, is appended to the replay buffers of its topics, each with its own lock, and is queued for its clients. The queue of
+ * a client is ordered by sequence number.
+ * <p>
+ * A client can watch some {@link SseTopics}: an inverted index from each topic to its subscriptions lets a scoped message reach
+ * only the clients watching it, at a cost which does not depend on the total number of clients. A WebSocket client can change
+ * its topics without reconnecting.
+ * <p>
+ * Each message gets an id: the id of the stream of this instance, then a sequence number increasing in the order of
+ * publication. The last published messages are kept in replay buffers, so that a client reconnecting with the id of the last
+ * message it received (its {@code Last-Event-ID}) first gets the messages of its topics it missed while it was disconnected.
+ * Each topic has its own bounded buffer, and the messages for every client another one, so that a busy topic does not push the
+ * messages of the quiet ones out: the replay merges the buffers of the topics of the client by sequence number. A client
+ * reconnecting to another instance, or after a restart, only gets the new messages. The id sent with a message never goes past
+ * a message still being queued for its clients: a client reconnecting right after it may receive such a message twice, rather
+ * than miss it.
+ * <p>
+ * The idle clients receive heartbeats, so that the proxies do not close their connections.
+ * <p>
+ * With a coalescing window, the queue of a client is drained once per window: the messages received meanwhile are merged into
+ * a single {@value #BATCH_EVENT} frame. The messages about an entity are reduced to the entity ids, by kind of change and
+ * entity, and to the latest reaction counts of each post or comment; only the other messages are kept as they are. The number
+ * of frames sent to a client then does not depend on the rate of the messages, nor does their size on the size of the
+ * messages.
+ * <p>
+ * The registry measures the number of clients each message is queued for, the time from the creation of a message (the
+ * timestamp of its Kafka record) to its sending to each client, and the failed sends by transport.
+ */
+@Component
+public class SseEmitterRegistry implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SseEmitterRegistry.class);
+
+    /**
+     * Name of the frames merging several messages.
+     */
+    public static final String BATCH_EVENT = "batch";
+
+    private static final Event HEARTBEAT = new Event(0, Set.of(), null, null, 0);
+
+    private static final Comparator<Event> PUBLICATION_ORDER = Comparator.comparingLong(Event::sequence);
+
+    private final ConcurrentMap<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Set<Subscription>> subscriptionsByTopic = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService[] shards;
+
+    /**
+     * Threads writing to the SSE emitters, so that the dispatch threads do not block on a client which does not read its frames.
+     */
+    private final ExecutorService sseWriters;
+
+    private final Duration sseWriteTimeout;
+
+    private final int queueCapacity;
+
+    private final long coalescingWindowMillis;
+
+    private final int replayCapacity;
+
+    /**
+     * The last published messages of each topic.
+     */
+    private final Cache<String, ReplayBuffer> topicReplayBuffers;
+
+    /**
+     * The last published messages for every client.
+     */
+    private final ReplayBuffer broadcastReplayBuffer;
+
+    /**
+     * Prefix of the ids of the messages published by this instance.
+     */
+    private final String streamId = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, Character.MAX_RADIX);
+
+    private final Sequencer sequencer = new Sequencer();
+
+    private final AtomicLong queuedMessages = new AtomicLong();
+
+    private final Counter sentMessages;
+
+    private final Counter droppedMessages;
+
+    private final Counter replayedMessages;
+
+    private final Counter coalescedMessages;
+
+    private final Counter evictedSubscriptions;
+
+    private final DistributionSummary fanout;
+
+    private final Timer latency;
+
+    private final ConcurrentMap<String, Counter> sendFailures = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public SseEmitterRegistry(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Sse properties = applicationProperties.getSse();
+        this.queueCapacity = properties.getQueueCapacity();
+        this.coalescingWindowMillis = properties.getCoalescingWindow().toMillis();
+        this.replayCapacity = properties.getReplayCapacity();
+        this.topicReplayBuffers = Caffeine.newBuilder().maximumSize(properties.getReplayTopics()).build();
+        this.broadcastReplayBuffer = new ReplayBuffer(replayCapacity);
+        this.shards = new ScheduledExecutorService[properties.getDispatchThreads()];
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("sse-dispatch-");
+        threadFactory.setDaemon(true);
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        }
+        CustomizableThreadFactory writerThreadFactory = new CustomizableThreadFactory("sse-write-");
+        writerThreadFactory.setDaemon(true);
+        this.sseWriters = Executors.newFixedThreadPool(properties.getWriteThreads(), writerThreadFactory);
+        this.sseWriteTimeout = properties.getWriteTimeout();
+
+        Gauge.builder("sse.subscriptions", subscriptions, ConcurrentMap::size)
+            .description("Number of connected SSE clients")
+            .register(meterRegistry);
+        Gauge.builder("sse.queue.depth", queuedMessages, AtomicLong::get)
+            .description("Number of messages waiting to be sent to the SSE clients")
+            .register(meterRegistry);
+        this.sentMessages = Counter.builder("sse.messages.sent").description("Messages sent to SSE clients").register(meterRegistry);
+        this.droppedMessages = Counter.builder("sse.messages.dropped")
+            .description("Messages not sent because the SSE client was too slow or disconnected")
+            .register(meterRegistry);
+        this.replayedMessages = Counter.builder("sse.messages.replayed")
+            .description("Messages sent again to SSE clients which reconnected after missing them")
+            .register(meterRegistry);
+        this.coalescedMessages = Counter.builder("sse.messages.coalesced")
+            .description("Messages merged into the frame of another message")
+            .register(meterRegistry);
+        this.evictedSubscriptions = Counter.builder("sse.subscriptions.evicted")
+            .description("SSE clients disconnected because they were too slow or their connection failed")
+            .register(meterRegistry);
+        this.fanout = DistributionSummary.builder("sse.messages.fanout")
+            .description("Number of clients a published message is queued for")
+            .baseUnit("clients")
+            .maximumExpectedValue(100_000.0)
+            .register(meterRegistry);
+        this.latency = Timer.builder("sse.messages.latency")
+            .description("Time from the creation of a message, the timestamp of its Kafka record, to its sending to a client")
+            .maximumExpectedValue(Duration.ofMinutes(1))
+            .register(meterRegistry);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Register a client receiving only the messages for every client.
+     *
+     * @param key the key of the subscription, for example the login of the user.
+     * @param emitter the emitter of the client.
+     * @return the emitter.
+     */
+    public SseEmitter register(String key, SseEmitter emitter) {
+        return register(key, Set.of(), emitter);
+    }
+
+    /**
+     * Register a client, replacing the previous subscription with the same key if any.
+     *
+     * @param key the key of the subscription, for example the login of the user.
+     * @param topics the topics watched by the client, in addition to the messages for every client.
+     * @param emitter the emitter of the client.
+     * @return the emitter.
+     */
+    public SseEmitter register(String key, Set<String> topics, SseEmitter emitter) {
+        return register(key, topics, null, emitter);
+    }
+
+    /**
+     * Register a client, replacing the previous subscription with the same key if any, and send it the messages of its topics
+     * it missed.
+     *
+     * @param key the key of the subscription, for example the login of the user.
+     * @param topics the topics watched by the client, in addition to the messages for every client.
+     * @param lastEventId the id of the last message received by the client, {@code null} for a new client.
+     * @param emitter the emitter of the client.
+     * @return the emitter.
+     */
+    public SseEmitter register(String key, Set<String> topics, String lastEventId, SseEmitter emitter) {
+        Subscription subscription = add(key, topics, lastEventId, new SseEmitterConnection(emitter, sseWriters, sseWriteTimeout));
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onTimeout(() -> remove(subscription));
+        emitter.onError(e -> remove(subscription));
+        return emitter;
+    }
+
+    /**
+     * Register a client, replacing the previous subscription with the same key if any, and send it the messages of its topics
+     * it missed. The client must be {@link #unregister unregistered} when its connection is closed.
+     *
+     * @param key the key of the subscription, unique for each connection.
+     * @param topics the topics watched by the client, in addition to the messages for every client.
+     * @param lastEventId the id of the last message received by the client, {@code null} for a new client.
+     * @param connection the connection of the client.
+     */
+    public void register(String key, Set<String> topics, String lastEventId, RealtimeConnection connection) {
+        add(key, topics, lastEventId, connection);
+    }
+
+    private Subscription add(String key, Set<String> topics, String lastEventId, RealtimeConnection connection) {
+        LOG.debug("Registering client for {} on {} after {}", key, topics, lastEventId);
+        Long lastSequenceReceived = sequenceOf(lastEventId);
+        // The messages published so far were queued before the client was indexed: it only gets them from the replay
+        long replayOverlapStart = lastSequenceReceived != null ? sequencer.published() : Long.MAX_VALUE;
+        Subscription subscription = new Subscription(key, topics, connection, shardOf(key), replayOverlapStart);
+        subscription.topics.forEach(topic -> index(subscription, topic));
+        Optional.ofNullable(subscriptions.put(key, subscription)).ifPresent(Subscription::complete);
+        if (lastSequenceReceived != null) {
+            replay(subscription, lastSequenceReceived);
+        }
+        return subscription;
+    }
+
+    /**
+     * Queue the messages a reconnecting client missed. The client is already indexed: a message published meanwhile can be
+     * queued both by the replay and by its publication, the subscription keeps only the first one.
+     */
+    private void replay(Subscription subscription, long lastSequenceReceived) {
+        List<Event> missed = replay(lastSequenceReceived, subscription.topics);
+        // The messages published from now on are not in the replay
+        long replayOverlapEnd = sequencer.last();
+        // Half of the queue is left for the new messages, so that the client is not evicted as soon as it reconnects
+        int skipped = Math.max(0, missed.size() - queueCapacity / 2);
+        if (skipped > 0) {
+            droppedMessages.increment(skipped);
+            missed = missed.subList(skipped, missed.size());
+        }
+        int replayed = 0;
+        for (Event event : missed) {
+            // Their latency includes the time the client was disconnected: it is not measured
+            replayed += subscription.offerReplayed(event.withoutTimestamp()) ? 1 : 0;
+        }
+        if (replayed > 0) {
+            LOG.debug("Sending {} missed messages to client {}", replayed, subscription.key);
+            replayedMessages.increment(replayed);
+        }
+        subscription.replayed(replayOverlapEnd);
+    }
+
+    /**
+     * Add topics to the ones watched by a client.
+     *
+     * @param key the key of the subscription.
+     * @param topics the topics.
+     */
+    public void subscribe(String key, Set<String> topics) {
+        Optional.ofNullable(subscriptions.get(key)).ifPresent(subscription -> topics.forEach(subscription::watch));
+    }
+
+    /**
+     * Remove topics from the ones watched by a client.
+     *
+     * @param key the key of the subscription.
+     * @param topics the topics.
+     */
+    public void unsubscribe(String key, Set<String> topics) {
+        Optional.ofNullable(subscriptions.get(key)).ifPresent(subscription -> topics.forEach(subscription::unwatch));
+    }
+
+    /**
+     * Disconnect a client.
+     *
+     * @param key the key of the subscription.
+     */
+    public void unregister(String key) {
+        LOG.debug("Unregistering client for: {}", key);
+        Optional.ofNullable(subscriptions.remove(key)).ifPresent(Subscription::complete);
+    }
+
+    /**
+     * Send a message to all the clients. This method does not wait for the message to be sent.
+     *
+     * @param message the message.
+     */
+    public void broadcast(String message) {
+        broadcast(null, message);
+    }
+
+    /**
+     * Send a message to all the clients. This method does not wait for the message to be sent.
+     *
+     * @param change the change of an entity the message is about, which replaces it in a coalesced frame. May be {@code null}.
+     * @param message the message.
+     */
+    public void broadcast(EntityChange change, String message) {
+        broadcast(change, message, System.currentTimeMillis());
+    }
+
+    private void broadcast(EntityChange change, String message, long timestamp) {
+        Event event = newEvent(Set.of(), change, message, timestamp);
+        int reached = 0;
+        try {
+            for (Subscription subscription : subscriptions.values()) {
+                subscription.offer(event);
+                reached++;
+            }
+        } finally {
+            sequencer.queued(event.sequence());
+        }
+        fanout.record(reached);
+    }
+
+    /**
+     * Send a message to the clients watching at least one of its topics, or to all the clients if it has no topic.
+     * This method does not wait for the message to be sent.
+     *
+     * @param topics the topics of the message.
+     * @param message the message.
+     */
+    public void publish(Set<String> topics, String message) {
+        publish(topics, null, message);
+    }
+
+    /**
+     * Send a message to the clients watching at least one of its topics, or to all the clients if it has no topic.
+     * This method does not wait for the message to be sent.
+     *
+     * @param topics the topics of the message.
+     * @param change the change of an entity the message is about, which replaces it in a coalesced frame. May be {@code null}.
+     * @param message the message.
+     */
+    public void publish(Set<String> topics, EntityChange change, String message) {
+        publish(topics, change, message, System.currentTimeMillis());
+    }
+
+    /**
+     * Send a message to the clients watching at least one of its topics, or to all the clients if it has no topic.
+     * This method does not wait for the message to be sent.
+     *
+     * @param topics the topics of the message.
+     * @param change the change of an entity the message is about, which replaces it in a coalesced frame. May be {@code null}.
+     * @param message the message.
+     * @param timestamp the creation time of the message, in milliseconds since the epoch, from which its latency is measured.
+     */
+    public void publish(Set<String> topics, EntityChange change, String message, long timestamp) {
+        if (topics.isEmpty()) {
+            broadcast(change, message, timestamp);
+            return;
+        }
+        Event event = newEvent(Set.copyOf(topics), change, message, timestamp);
+        int reached = 0;
+        try {
+            if (topics.size() == 1) {
+                Set<Subscription> watchers = subscriptionsByTopic.get(topics.iterator().next());
+                if (watchers != null) {
+                    for (Subscription subscription : watchers) {
+                        subscription.offer(event);
+                        reached++;
+                    }
+                }
+            } else {
+                // A client watching several topics of the message receives it once
+                Set<Subscription> watchers = new HashSet<>();
+                for (String topic : topics) {
+                    Optional.ofNullable(subscriptionsByTopic.get(topic)).ifPresent(watchers::addAll);
+                }
+                watchers.forEach(subscription -> subscription.offer(event));
+                reached = watchers.size();
+            }
+        } finally {
+            sequencer.queued(event.sequence());
+        }
+        fanout.record(reached);
+    }
+
+    /**
+     * Send a heartbeat to the clients which have no message waiting, so that their idle connections are not closed.
+     */
+    @Scheduled(fixedRateString = "${application.sse.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        subscriptions.values().forEach(Subscription::heartbeat);
+    }
+
+    /**
+     * @return the number of connected clients.
+     */
+    public int size() {
+        return subscriptions.size();
+    }
+
+    /**
+     * @param topic the topic.
+     * @return the number of clients watching the topic.
+     */
+    public int size(String topic) {
+        Set<Subscription> watchers = subscriptionsByTopic.get(topic);
+        return watchers == null ? 0 : watchers.size();
+    }
+
+    /**
+     * Create a message, and append it to the replay buffers before it is queued for any client: a client registering while it
+     * is queued gets it from the replay if not from the publication. The caller must mark it {@link Sequencer#queued queued}.
+     */
+    private Event newEvent(Set<String> topics, EntityChange change, String message, long timestamp) {
+        Event event = new Event(sequencer.next(), topics, change, message, timestamp);
+        if (topics.isEmpty()) {
+            broadcastReplayBuffer.append(event);
+        } else {
+            topics.forEach(topic -> topicReplayBuffers.get(topic, t -> new ReplayBuffer(replayCapacity)).append(event));
+        }
+        return event;
+    }
+
+    /**
+     * @param sequence the sequence number of the last message received by a client.
+     * @param watchedTopics the topics watched by the client.
+     * @return the kept messages for the client published after this one, in the order of publication.
+     */
+    private List<Event> replay(long sequence, Set<String> watchedTopics) {
+        // A message of several topics watched by the client is in several buffers
+        Map<Long, Event> missed = new TreeMap<>();
+        broadcastReplayBuffer.after(sequence, missed);
+        for (String topic : watchedTopics) {
+            Optional.ofNullable(topicReplayBuffers.getIfPresent(topic)).ifPresent(buffer -> buffer.after(sequence, missed));
+        }
+        return new ArrayList<>(missed.values());
+    }
+
+    /**
+     * Build the JSON data of a {@value #BATCH_EVENT} frame, for example
+     * {@code {"count":3,"counts":{"POST:1":{"LIKE":4}},"changes":{"CREATED":{"Reactions":[7,8]}},"messages":["text"]}}: the
+     * number of merged messages, the latest reaction counts of each target, the ids of the changed entities by kind of change
+     * and entity, in the order of the messages, and the messages which are not about an entity.
+     */
+    private static String batchData(List<Event> events) {
+        Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+        Map<String, Map<String, Set<Long>>> changes = new LinkedHashMap<>();
+        List<String> messages = new ArrayList<>();
+        for (Event event : events) {
+            EntityChange change = event.change();
+            if (change == null) {
+                messages.add(event.data());
+                continue;
+            }
+            changes
+                .computeIfAbsent(change.eventType(), eventType -> new LinkedHashMap<>())
+                .computeIfAbsent(change.entity(), entity -> new LinkedHashSet<>())
+                .add(change.entityId());
+            if (change.countsTarget() != null) {
+                // The counts of the newest message replace the previous ones
+                counts.put(change.countsTarget(), change.counts());
+            }
+        }
+        StringBuilder data = new StringBuilder("{\"count\":").append(events.size()).append(",\"counts\":{");
+        String separator = "";
+        for (Map.Entry<String, Map<String, Long>> target : counts.entrySet()) {
+            appendString(data.append(separator), target.getKey()).append(":{");
+            String countSeparator = "";
+            for (Map.Entry<String, Long> count : target.getValue().entrySet()) {
+                appendString(data.append(countSeparator), count.getKey()).append(':').append(count.getValue());
+                countSeparator = ",";
+            }
+            data.append('}');
+            separator = ",";
+        }
+        data.append("},\"changes\":{");
+        separator = "";
+        for (Map.Entry<String, Map<String, Set<Long>>> eventType : changes.entrySet()) {
+            appendString(data.append(separator), eventType.getKey()).append(":{");
+            String entitySeparator = "";
+            for (Map.Entry<String, Set<Long>> entity : eventType.getValue().entrySet()) {
+                appendString(data.append(entitySeparator), entity.getKey()).append(":[");
+                String idSeparator = "";
+                for (Long id : entity.getValue()) {
+                    data.append(idSeparator).append(id);
+                    idSeparator = ",";
+                }
+                data.append(']');
+                entitySeparator = ",";
+            }
+            data.append('}');
+            separator = ",";
+        }
+        data.append("},\"messages\":[");
+        separator = "";
+        for (String message : messages) {
+            appendString(data.append(separator), message);
+            separator = ",";
+        }
+        return data.append("]}").toString();
+    }
+
+    private static StringBuilder appendString(StringBuilder data, String value) {
+        return data.append('"').append(JsonStringEncoder.getInstance().quoteAsString(value)).append('"');
+    }
+
+    /**
+     * @param eventId the id of a message.
+     * @return the sequence number of the message, or {@code null} if it was not published by this instance.
+     */
+    private Long sequenceOf(String eventId) {
+        String prefix = streamId + "-";
+        if (eventId == null || !eventId.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private ScheduledExecutorService shardOf(String key) {
+        return shards[Math.floorMod(key.hashCode(), shards.length)];
+    }
+
+    private void index(Subscription subscription, String topic) {
+        subscriptionsByTopic.compute(topic, (t, watchers) -> {
+            Set<Subscription> result = watchers == null ? ConcurrentHashMap.newKeySet() : watchers;
+            result.add(subscription);
+            return result;
+        });
+    }
+
+    private void unindex(Subscription subscription, String topic) {
+        subscriptionsByTopic.computeIfPresent(topic, (t, watchers) -> {
+            watchers.remove(subscription);
+            return watchers.isEmpty() ? null : watchers;
+        });
+    }
+
+    private void remove(Subscription subscription) {
+        subscriptions.remove(subscription.key, subscription);
+        subscription.close();
+    }
+
+    @Override
+    public void destroy() {
+        subscriptions.values().forEach(Subscription::complete);
+        for (ExecutorService shard : shards) {
+            shard.shutdownNow();
+        }
+        sseWriters.shutdownNow();
+    }
+
+    /**
+     * Record the time from the creation of a message to its sending.
+     */
+    private void sent(Event event) {
+        if (event.timestamp() > 0) {
+            latency.record(System.currentTimeMillis() - event.timestamp(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void sendFailed(RealtimeConnection connection) {
+        sendFailures
+            .computeIfAbsent(connection.transport(), transport ->
+                Counter.builder("sse.messages.send.failures")
+                    .description("Frames which could not be sent to a client, whose connection is then closed")
+                    .tag("transport", transport)
+                    .register(meterRegistry)
+            )
+            .increment();
+    }
+
+    /**
+     * A message, with its sequence number, its topics, the change of an entity it is about if any, and its creation time,
+     * {@code 0} if its latency is not measured.
+     */
+    private record Event(long sequence, Set<String> topics, EntityChange change, String data, long timestamp) {
+        private Event withoutTimestamp() {
+            return new Event(sequence, topics, change, data, 0);
+        }
+    }
+
+    /**
+     * Sequence numbers of the messages, and the one up to which every message was queued for its clients.
+     * <p>
+     * The messages are published concurrently, so a message can be queued for its clients after a later one was already sent.
+     * The ids sent to the clients do not go past the messages still being queued, so that a client reconnecting with the id of
+     * the last message it received gets them from the replay.
+     */
+    private static final class Sequencer {
+
+        private final AtomicLong last = new AtomicLong();
+
+        /**
+         * Number of publications between taking their sequence number and adding it to the pending ones.
+         */
+        private final AtomicInteger starting = new AtomicInteger();
+
+        /**
+         * Sequence numbers of the messages being queued for their clients.
+         */
+        private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+
+        private final AtomicLong published = new AtomicLong();
+
+        /**
+         * @return the sequence number of a new message, pending until it is {@link #queued}.
+         */
+        private long next() {
+            starting.incrementAndGet();
+            try {
+                long sequence = last.incrementAndGet();
+                pending.add(sequence);
+                return sequence;
+            } finally {
+                starting.decrementAndGet();
+            }
+        }
+
+        private void queued(long sequence) {
+            pending.remove(sequence);
+        }
+
+        /**
+         * @return the sequence number of the last message.
+         */
+        private long last() {
+            return last.get();
+        }
+
+        /**
+         * @return a sequence number up to which every message was queued for its clients.
+         */
+        private long published() {
+            long candidate = last.get();
+            if (starting.get() > 0) {
+                // A message read above may not be pending yet: the previous result still holds
+                return published.get();
+            }
+            Long firstPending = pending.ceiling(Long.MIN_VALUE);
+            if (firstPending != null) {
+                candidate = Math.min(candidate, firstPending - 1);
+            }
+            return published.accumulateAndGet(candidate, Math::max);
+        }
+    }
+
+    /**
+     * Ring buffer of the last published messages of a topic, oldest first, the concurrent messages being appended in any order.
+     */
+    private static final class ReplayBuffer {
+
+        private final Event[] events;
+
+        private int next;
+
+        private int size;
+
+        private ReplayBuffer(int capacity) {
+            this.events = new Event[capacity];
+        }
+
+        private synchronized void append(Event event) {
+            if (events.length == 0) {
+                return;
+            }
+            events[next] = event;
+            next = (next + 1) % events.length;
+            size = Math.min(size + 1, events.length);
+        }
+
+        /**
+         * Add the messages published after a given one to a result, all the kept ones if it is no longer kept.
+         *
+         * @param sequence the sequence number of the last message received by a client.
+         * @param result the messages by sequence number.
+         */
+        private synchronized void after(long sequence, Map<Long, Event> result) {
+            for (int i = 0; i < size; i++) {
+                Event event = events[Math.floorMod(next - size + i, events.length)];
+                if (event.sequence() > sequence) {
+                    result.put(event.sequence(), event);
+                }
+            }
+        }
+    }
+
+    /**
+     * A client, with its queue of pending messages. The queue is drained by at most one task at a time, on the shard of the client.
+     */
+    private final class Subscription implements Runnable {
+
+        private final String key;
+
+        private final Set<String> topics = ConcurrentHashMap.newKeySet();
+
+        private final RealtimeConnection connection;
+
+        private final ScheduledExecutorService shard;
+
+        /**
+         * The pending messages in the order of publication, bounded by the {@link #queueCapacity}.
+         */
+        private final BlockingQueue<Event> queue = new PriorityBlockingQueue<>(11, PUBLICATION_ORDER);
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        /**
+         * Sequence number after which a message can be queued both by the replay and by its publication,
+         * {@link Long#MAX_VALUE} without replay.
+         */
+        private final long replayOverlapStart;
+
+        /**
+         * Sequence number up to which a message can be queued both by the replay and by its publication, {@link Long#MAX_VALUE}
+         * until the replay is queued.
+         */
+        private volatile long replayOverlapEnd = Long.MAX_VALUE;
+
+        /**
+         * Sequence numbers of the messages of the overlap already queued.
+         */
+        private final Set<Long> replayOverlap = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Whether the replay is not queued yet: the queue is not drained meanwhile, so that the missed messages are sent first.
+         */
+        private volatile boolean replaying;
+
+        private Subscription(
+            String key,
+            Set<String> topics,
+            RealtimeConnection connection,
+            ScheduledExecutorService shard,
+            long replayOverlapStart
+        ) {
+            this.key = key;
+            this.topics.addAll(topics);
+            this.connection = connection;
+            this.shard = shard;
+            this.replayOverlapStart = replayOverlapStart;
+            this.replaying = replayOverlapStart != Long.MAX_VALUE;
+            connection.onWritten(this::schedule);
+        }
+
+        private void watch(String topic) {
+            if (topics.add(topic)) {
+                index(this, topic);
+                if (closed.get()) {
+                    // The subscription was closed meanwhile, and unindexed without this topic
+                    unindex(this, topic);
+                }
+            }
+        }
+
+        private void unwatch(String topic) {
+            if (topics.remove(topic)) {
+                unindex(this, topic);
+            }
+        }
+
+        private void heartbeat() {
+            if (closed.get()) {
+                return;
+            }
+            if (queue.isEmpty()) {
+                offer(HEARTBEAT);
+            } else {
+                // Checks the frame being written, the client of a stalled connection is evicted
+                schedule();
+            }
+        }
+
+        private void offer(Event event) {
+            long sequence = event.sequence();
+            if (sequence > replayOverlapStart && sequence <= replayOverlapEnd && !replayOverlap.add(sequence)) {
+                // Already queued by the replay
+                return;
+            }
+            enqueue(event);
+        }
+
+        /**
+         * Queue a message of the replay.
+         *
+         * @return {@code false} if the message was already queued by its publication.
+         */
+        private boolean offerReplayed(Event event) {
+            if (event.sequence() > replayOverlapStart && !replayOverlap.add(event.sequence())) {
+                return false;
+            }
+            enqueue(event);
+            return true;
+        }
+
+        /**
+         * Start sending the messages, once the replay is queued.
+         *
+         * @param replayOverlapEnd the sequence number of the last message which can be in the replay.
+         */
+        private void replayed(long replayOverlapEnd) {
+            this.replayOverlapEnd = replayOverlapEnd;
+            replaying = false;
+            schedule();
+        }
+
+        private void enqueue(Event event) {
+            if (closed.get()) {
+                return;
+            }
+            // Checked before adding: several messages queued at once can exceed the capacity by a few
+            if (queue.size() >= queueCapacity) {
+                LOG.debug("Evicting client {}: {} messages are waiting", key, queueCapacity);
+                droppedMessages.increment();
+                evict();
+                return;
+            }
+            queuedMessages.incrementAndGet();
+            queue.add(event);
+            schedule();
+        }
+
+        private void schedule() {
+            if (replaying) {
+                return;
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    if (coalescingWindowMillis > 0) {
+                        shard.schedule(this, coalescingWindowMillis, TimeUnit.MILLISECONDS);
+                    } else {
+                        shard.execute(this);
+                    }
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!closed.get() && busy()) {
+                    // Scheduled again once the frame is written
+                    return;
+                }
+                // Read before taking the messages: the ones published up to it are in the queue, or were already sent
+                long published = sequencer.published();
+                if (coalescingWindowMillis > 0) {
+                    List<Event> events = new ArrayList<>();
+                    queue.drainTo(events);
+                    queuedMessages.addAndGet(-events.size());
+                    if (closed.get()) {
+                        droppedMessages.increment(events.size());
+                    } else {
+                        sendCoalesced(events, published);
+                    }
+                } else {
+                    Event event;
+                    while ((closed.get() || !busy()) && (event = queue.poll()) != null) {
+                        queuedMessages.decrementAndGet();
+                        if (closed.get()) {
+                            droppedMessages.increment();
+                        } else {
+                            send(event, published);
+                        }
+                        published = sequencer.published();
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            if (!queue.isEmpty() && (closed.get() || !busy())) {
+                schedule();
+            }
+        }
+
+        /**
+         * @return whether the connection is still writing the previous frame; a connection which failed is evicted.
+         */
+        private boolean busy() {
+            try {
+                return connection.isBusy();
+            } catch (IOException e) {
+                LOG.debug("Evicting client {}: error sending message, {}", key, e.getMessage());
+                // The frame being written is lost
+                droppedMessages.increment();
+                sendFailed(connection);
+                evict();
+                return false;
+            }
+        }
+
+        private void send(Event event, long published) {
+            try {
+                if (event == HEARTBEAT) {
+                    connection.heartbeat();
+                } else {
+                    connection.send(eventId(event.sequence(), published), null, event.data());
+                    sentMessages.increment();
+                    sent(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                LOG.debug("Evicting client {}: error sending message, {}", key, e.getMessage());
+                droppedMessages.increment();
+                sendFailed(connection);
+                evict();
+            }
+        }
+
+        /**
+         * Send the messages received during a coalescing window as one frame: a plain message if there is only one, else a
+         * {@value #BATCH_EVENT} merging them.
+         */
+        private void sendCoalesced(List<Event> events, long published) {
+            List<Event> messages = events.stream().filter(event -> event != HEARTBEAT).toList();
+            if (messages.isEmpty()) {
+                if (!events.isEmpty()) {
+                    send(HEARTBEAT, published);
+                }
+                return;
+            }
+            if (messages.size() == 1) {
+                send(messages.get(0), published);
+                return;
+            }
+            long lastSequence = messages.stream().mapToLong(Event::sequence).max().orElseThrow();
+            try {
+                connection.send(eventId(lastSequence, published), BATCH_EVENT, batchData(messages));
+                sentMessages.increment(messages.size());
+                coalescedMessages.increment(messages.size() - 1);
+                messages.forEach(SseEmitterRegistry.this::sent);
+            } catch (IOException | IllegalStateException e) {
+                LOG.debug("Evicting client {}: error sending message, {}", key, e.getMessage());
+                droppedMessages.increment(messages.size());
+                sendFailed(connection);
+                evict();
+            }
+        }
+
+        /**
+         * @param sequence the sequence number of the last message of a frame.
+         * @param published a sequence number up to which every message was queued when the frame was taken from the queue.
+         * @return the id of the frame: the sequence number, unless a previous message may not be queued yet.
+         */
+        private String eventId(long sequence, long published) {
+            return streamId + "-" + (sequence <= published + 1 ? sequence : published);
+        }
+
+        private void evict() {
+            if (close()) {
+                evictedSubscriptions.increment();
+                subscriptions.remove(key, this);
+                connection.close();
+            }
+        }
+
+        private void complete() {
+            close();
+            connection.close();
+        }
+
+        /**
+         * Stop accepting messages; the pending ones are discarded by the drain task.
+         *
+         * @return {@code true} if the subscription was open.
+         */
+        private boolean close() {
+            if (closed.compareAndSet(false, true)) {
+                topics.forEach(topic -> unindex(this, topic));
+                schedule();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.mycompany.myapp.broker;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * Topics an SSE client can subscribe to, and the message headers they are read from.
+ * <p>
+ * A message carrying a {@value #POST_ID_HEADER} or a {@value #USER_ID_HEADER} header is only sent to the clients watching
+ * that post or that user. A message without these headers is sent to every client.
+ */
+public final class SseTopics {
+
+    public static final String POST_ID_HEADER = "postId";
+
+    public static final String USER_ID_HEADER = "userId";
+
+    /**
+     * Headers of the reaction counts carried by a message: the target they count, for example {@code POST:12}, and the counts
+     * as a JSON object of the number of reactions by type.
+     */
+    public static final String COUNTS_TARGET_HEADER = "countsTarget";
+
+    public static final String COUNTS_HEADER = "counts";
+
+    private static final Logger LOG = LoggerFactory.getLogger(SseTopics.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final TypeReference<Map<String, Long>> COUNTS_TYPE = new TypeReference<>() {};
+
+    private static final String POST_PREFIX = "post:";
+
+    private static final String USER_PREFIX = "user:";
+
+    private SseTopics() {}
+
+    public static String post(Object postId) {
+        return POST_PREFIX + postId;
+    }
+
+    public static String user(Object userId) {
+        return USER_PREFIX + userId;
+    }
+
+    /**
+     * Build the topics watched by a client.
+     *
+     * @param postIds the ids of the watched posts, may be {@code null}.
+     * @param userIds the ids of the watched users, may be {@code null}.
+     * @return the topics, empty if the client watches everything.
+     */
+    public static Set<String> of(Collection<Long> postIds, Collection<Long> userIds) {
+        Set<String> topics = new LinkedHashSet<>();
+        if (postIds != null) {
+            postIds.forEach(postId -> topics.add(post(postId)));
+        }
+        if (userIds != null) {
+            userIds.forEach(userId -> topics.add(user(userId)));
+        }
+        return topics;
+    }
+
+    /**
+     * Read the topics of a message from its headers.
+     *
+     * @param headers the headers of the message.
+     * @return the topics, empty if the message is for every client.
+     */
+    public static Set<String> of(MessageHeaders headers) {
+        Set<String> topics = new LinkedHashSet<>();
+        String postId = headerValue(headers, POST_ID_HEADER);
+        if (postId != null) {
+            topics.add(post(postId));
+        }
+        String userId = headerValue(headers, USER_ID_HEADER);
+        if (userId != null) {
+            topics.add(user(userId));
+        }
+        return topics;
+    }
+
+    /**
+     * Read the change of an entity a message is about, merged with the other changes when the messages are coalesced.
+     *
+     * @param envelope the payload of the message.
+     * @param headers the headers of the message, with the reaction counts it carries if any.
+     * @return the change, or {@code null} if the message is not about an entity.
+     */
+    public static EntityChange changeOf(EventEnvelope envelope, MessageHeaders headers) {
+        if (envelope.entity() == null || envelope.entityId() == null) {
+            return null;
+        }
+        String countsTarget = headerValue(headers, COUNTS_TARGET_HEADER);
+        Map<String, Long> counts = countsTarget != null ? countsOf(envelope, headerValue(headers, COUNTS_HEADER)) : null;
+        return new EntityChange(envelope.eventType(), envelope.entity(), envelope.entityId(), counts != null ? countsTarget : null, counts);
+    }
+
+    private static Map<String, Long> countsOf(EventEnvelope envelope, String counts) {
+        if (counts == null) {
+            return null;
+        }
+        try {
+            return MAPPER.readValue(counts, COUNTS_TYPE);
+        } catch (JsonProcessingException e) {
+            LOG.debug("Ignoring the unreadable counts of {} {}: {}", envelope.entity(), envelope.entityId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static String headerValue(MessageHeaders headers, String name) {
+        Object value = headers.get(name);
+        if (value == null) {
+            return null;
+        }
+        // Raw Kafka headers are not converted by the binder
+        return value instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : value.toString();
+    }
+}
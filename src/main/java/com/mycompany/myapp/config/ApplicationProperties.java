@@ -1,5 +1,8 @@
 package com.mycompany.myapp.config;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -13,12 +16,72 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final Batch batch = new Batch();
+
+    private final Pagination pagination = new Pagination();
+
+    private final Sse sse = new Sse();
+
+    private final Outbox outbox = new Outbox();
+
+    private final Kafka kafka = new Kafka();
+
+    private final CommentTree commentTree = new CommentTree();
+
+    private final NearCache nearCache = new NearCache();
+
+    private final CacheNamespace cacheNamespace = new CacheNamespace();
+
+    private final CacheExpiry cacheExpiry = new CacheExpiry();
+
+    private final CacheRegions cacheRegions = new CacheRegions();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public Pagination getPagination() {
+        return pagination;
+    }
+
+    public Sse getSse() {
+        return sse;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public Kafka getKafka() {
+        return kafka;
+    }
+
+    public CommentTree getCommentTree() {
+        return commentTree;
+    }
+
+    public NearCache getNearCache() {
+        return nearCache;
+    }
+
+    public CacheNamespace getCacheNamespace() {
+        return cacheNamespace;
+    }
+
+    public CacheExpiry getCacheExpiry() {
+        return cacheExpiry;
+    }
+
+    public CacheRegions getCacheRegions() {
+        return cacheRegions;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +96,597 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    /**
+     * Limits of the endpoints reading or writing several entities in one request.
+     */
+    public static class Batch {
+
+        private int maxIds = 100;
+
+        /**
+         * Maximum number of entities created by a bulk request.
+         */
+        private int maxBulkItems = 5000;
+
+        /**
+         * JDBC batch size used by the bulk requests; with {@code rewriteBatchedStatements}, one batch is one multi-row insert.
+         */
+        private int bulkJdbcBatchSize = 1000;
+
+        public int getMaxIds() {
+            return maxIds;
+        }
+
+        public void setMaxIds(int maxIds) {
+            this.maxIds = maxIds;
+        }
+
+        public int getMaxBulkItems() {
+            return maxBulkItems;
+        }
+
+        public void setMaxBulkItems(int maxBulkItems) {
+            this.maxBulkItems = maxBulkItems;
+        }
+
+        public int getBulkJdbcBatchSize() {
+            return bulkJdbcBatchSize;
+        }
+
+        public void setBulkJdbcBatchSize(int bulkJdbcBatchSize) {
+            this.bulkJdbcBatchSize = bulkJdbcBatchSize;
+        }
+    }
+
+    /**
+     * Total counts of the list endpoints.
+     */
+    public static class Pagination {
+
+        /**
+         * Time during which a total count requested with {@code count=cached} is reused for the same criteria.
+         */
+        private Duration countCacheTtl = Duration.ofSeconds(30);
+
+        public Duration getCountCacheTtl() {
+            return countCacheTtl;
+        }
+
+        public void setCountCacheTtl(Duration countCacheTtl) {
+            this.countCacheTtl = countCacheTtl;
+        }
+    }
+
+    /**
+     * Fan-out of the Kafka messages to the SSE clients.
+     */
+    public static class Sse {
+
+        /**
+         * Maximum number of messages waiting to be sent to a client: a client which falls further behind is disconnected.
+         */
+        private int queueCapacity = 256;
+
+        /**
+         * Number of threads sending the messages; each client is always served by the same thread.
+         */
+        private int dispatchThreads = 4;
+
+        /**
+         * Number of the last published messages of each topic, and of the messages for every client, which are kept to be sent
+         * to the clients which missed them when they reconnect.
+         */
+        private int replayCapacity = 100;
+
+        /**
+         * Maximum number of topics whose last messages are kept: the topics without recent messages are forgotten first.
+         */
+        private int replayTopics = 10_000;
+
+        /**
+         * Interval between the heartbeats sent to the idle clients, shorter than the idle timeout of the proxies.
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+        /**
+         * Time during which the messages for a client are merged into one frame, for example 100ms; zero sends each message in
+         * its own frame.
+         */
+        private Duration coalescingWindow = Duration.ZERO;
+
+        /**
+         * Maximum time to write a frame to an SSE client: a client which does not read its frames in time is disconnected, and
+         * the container ends its blocked write.
+         */
+        private Duration writeTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Number of threads writing the frames to the SSE clients: a client which does not read its frames holds one of them,
+         * at most for the write timeout.
+         */
+        private int writeThreads = 16;
+
+        /**
+         * Time after which a stream is closed, the client then reconnects.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getDispatchThreads() {
+            return dispatchThreads;
+        }
+
+        public void setDispatchThreads(int dispatchThreads) {
+            this.dispatchThreads = dispatchThreads;
+        }
+
+        public int getReplayCapacity() {
+            return replayCapacity;
+        }
+
+        public void setReplayCapacity(int replayCapacity) {
+            this.replayCapacity = replayCapacity;
+        }
+
+        public int getReplayTopics() {
+            return replayTopics;
+        }
+
+        public void setReplayTopics(int replayTopics) {
+            this.replayTopics = replayTopics;
+        }
+
+        public Duration getHeartbeatInterval() {
+            return heartbeatInterval;
+        }
+
+        public void setHeartbeatInterval(Duration heartbeatInterval) {
+            this.heartbeatInterval = heartbeatInterval;
+        }
+
+        public Duration getCoalescingWindow() {
+            return coalescingWindow;
+        }
+
+        public void setCoalescingWindow(Duration coalescingWindow) {
+            this.coalescingWindow = coalescingWindow;
+        }
+
+        public Duration getWriteTimeout() {
+            return writeTimeout;
+        }
+
+        public void setWriteTimeout(Duration writeTimeout) {
+            this.writeTimeout = writeTimeout;
+        }
+
+        public int getWriteThreads() {
+            return writeThreads;
+        }
+
+        public void setWriteThreads(int writeThreads) {
+            this.writeThreads = writeThreads;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    /**
+     * Relay publishing the outbox events to Kafka.
+     */
+    public static class Outbox {
+
+        /**
+         * Delay between the end of a run of the relay and the start of the next one.
+         */
+        private Duration relayDelay = Duration.ofSeconds(1);
+
+        /**
+         * Maximum number of events claimed in one transaction.
+         */
+        private int batchSize = 100;
+
+        /**
+         * Time after which a dispatched event which was not acknowledged by Kafka is dispatched again.
+         */
+        private Duration redeliveryTimeout = Duration.ofMinutes(1);
+
+        public Duration getRelayDelay() {
+            return relayDelay;
+        }
+
+        public void setRelayDelay(Duration relayDelay) {
+            this.relayDelay = relayDelay;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getRedeliveryTimeout() {
+            return redeliveryTimeout;
+        }
+
+        public void setRedeliveryTimeout(Duration redeliveryTimeout) {
+            this.redeliveryTimeout = redeliveryTimeout;
+        }
+    }
+
+    /**
+     * Processing of the records read from Kafka.
+     */
+    public static class Kafka {
+
+        /**
+         * Number of threads processing the records of the consumer; the records with the same key are always processed by the
+         * same thread, in order.
+         */
+        private int consumerWorkers = 4;
+
+        /**
+         * Maximum number of records waiting for each worker: the consumer thread waits when the queue of a worker is full.
+         */
+        private int consumerQueueCapacity = 1000;
+
+        /**
+         * Id of this instance, which must stay the same across its restarts, for example the name of its pod in a StatefulSet:
+         * the failed records are retried by the instance they failed on, in a consumer group named after it. Defaults to the
+         * {@code HOSTNAME} environment variable; the application does not start without either.
+         */
+        private String instanceId;
+
+        /**
+         * Number of retry topics a failed record goes through before the dead letter topic; the binding of the consumer of the
+         * retry topics must list as many of them, which is checked at startup.
+         */
+        private int retryAttempts = 3;
+
+        /**
+         * Delay before the first retry of a failed record.
+         */
+        private Duration retryInitialDelay = Duration.ofSeconds(1);
+
+        /**
+         * Factor applied to the delay at each retry.
+         */
+        private double retryMultiplier = 4;
+
+        public int getConsumerWorkers() {
+            return consumerWorkers;
+        }
+
+        public void setConsumerWorkers(int consumerWorkers) {
+            this.consumerWorkers = consumerWorkers;
+        }
+
+        public int getConsumerQueueCapacity() {
+            return consumerQueueCapacity;
+        }
+
+        public void setConsumerQueueCapacity(int consumerQueueCapacity) {
+            this.consumerQueueCapacity = consumerQueueCapacity;
+        }
+
+        public String getInstanceId() {
+            return instanceId;
+        }
+
+        public void setInstanceId(String instanceId) {
+            this.instanceId = instanceId;
+        }
+
+        public int getRetryAttempts() {
+            return retryAttempts;
+        }
+
+        public void setRetryAttempts(int retryAttempts) {
+            this.retryAttempts = retryAttempts;
+        }
+
+        public Duration getRetryInitialDelay() {
+            return retryInitialDelay;
+        }
+
+        public void setRetryInitialDelay(Duration retryInitialDelay) {
+            this.retryInitialDelay = retryInitialDelay;
+        }
+
+        public double getRetryMultiplier() {
+            return retryMultiplier;
+        }
+
+        public void setRetryMultiplier(double retryMultiplier) {
+            this.retryMultiplier = retryMultiplier;
+        }
+    }
+
+    /**
+     * Limits of the comment threads read in one request.
+     */
+    public static class CommentTree {
+
+        /**
+         * Maximum depth of the replies, {@code 0} being the top level comments of a post.
+         */
+        private int maxDepth = 8;
+
+        /**
+         * Maximum number of replies read for each comment; the other ones are only counted.
+         */
+        private int maxReplies = 50;
+
+        /**
+         * Maximum number of comments read for a thread: the recursive query stops once it has read them, the deepest ones being
+         * the ones not read.
+         */
+        private int maxNodes = 1000;
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public void setMaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+
+        public int getMaxReplies() {
+            return maxReplies;
+        }
+
+        public void setMaxReplies(int maxReplies) {
+            this.maxReplies = maxReplies;
+        }
+
+        public int getMaxNodes() {
+            return maxNodes;
+        }
+
+        public void setMaxNodes(int maxNodes) {
+            this.maxNodes = maxNodes;
+        }
+    }
+
+    /**
+     * In-process cache in front of the Redis second level cache of Hibernate.
+     */
+    public static class NearCache {
+
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of entries kept in memory for each entity region.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * Time after which an entry is reloaded from Redis, bounding the staleness when an invalidation message is lost.
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+    }
+    /**
+     * Namespace of the Hibernate second level cache regions in Redis.
+     */
+    public static class CacheNamespace {
+
+        /**
+         * What a new namespace is derived from: {@code SCHEMA} starts a new one when the cached entities change, {@code BUILD}
+         * on every new build.
+         */
+        private Strategy strategy = Strategy.SCHEMA;
+
+        /**
+         * Delay between two heartbeats of the namespace in use.
+         */
+        private Duration heartbeat = Duration.ofMinutes(1);
+
+        /**
+         * Time after which a namespace without heartbeat is deleted from Redis.
+         */
+        private Duration retention = Duration.ofHours(1);
+
+        public Strategy getStrategy() {
+            return strategy;
+        }
+
+        public void setStrategy(Strategy strategy) {
+            this.strategy = strategy;
+        }
+
+        public Duration getHeartbeat() {
+            return heartbeat;
+        }
+
+        public void setHeartbeat(Duration heartbeat) {
+            this.heartbeat = heartbeat;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public enum Strategy {
+            SCHEMA,
+            BUILD,
+        }
+    }
+
+    /**
+     * Expiration of the cached entries, spread so that they are not all reloaded from the database at the same time.
+     */
+    public static class CacheExpiry {
+
+        /**
+         * Maximum relative deviation of the time to live of each entry from the configured one.
+         */
+        private double jitter = 0.1;
+
+        /**
+         * How eagerly the hot entries of the second level cache are reloaded before they expire: above 1 earlier, below 1 later,
+         * 0 never.
+         */
+        private double earlyRefreshBeta = 1.0;
+
+        /**
+         * Typical time to load an entry from the database, which scales how early the entries are reloaded.
+         */
+        private Duration recomputeTime = Duration.ofMillis(100);
+
+        public double getJitter() {
+            return jitter;
+        }
+
+        public void setJitter(double jitter) {
+            this.jitter = jitter;
+        }
+
+        public double getEarlyRefreshBeta() {
+            return earlyRefreshBeta;
+        }
+
+        public void setEarlyRefreshBeta(double earlyRefreshBeta) {
+            this.earlyRefreshBeta = earlyRefreshBeta;
+        }
+
+        public Duration getRecomputeTime() {
+            return recomputeTime;
+        }
+
+        public void setRecomputeTime(Duration recomputeTime) {
+            this.recomputeTime = recomputeTime;
+        }
+    }
+
+    /**
+     * Policies of the second level cache regions, by entity (for example {@code posts} or {@code reported-comments}).
+     */
+    public static class CacheRegions {
+
+        /**
+         * Delay between two checks of the number of entries of the bounded regions.
+         */
+        private Duration sizeCheckDelay = Duration.ofSeconds(30);
+
+        /**
+         * Number of keys whose reads are tracked in each region, to find the hottest ones.
+         */
+        private int hotKeysTracked = 1000;
+
+        private Map<String, Region> regions = new LinkedHashMap<>();
+
+        public Duration getSizeCheckDelay() {
+            return sizeCheckDelay;
+        }
+
+        public void setSizeCheckDelay(Duration sizeCheckDelay) {
+            this.sizeCheckDelay = sizeCheckDelay;
+        }
+
+        public int getHotKeysTracked() {
+            return hotKeysTracked;
+        }
+
+        public void setHotKeysTracked(int hotKeysTracked) {
+            this.hotKeysTracked = hotKeysTracked;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public void setRegions(Map<String, Region> regions) {
+            this.regions = regions;
+        }
+
+        /**
+         * Policy of one region; the properties which are not set take the defaults of all the regions.
+         */
+        public static class Region {
+
+            /**
+             * Average time to live of the entries, {@code jhipster.cache.redis.expiration} by default.
+             */
+            private Duration timeToLive;
+
+            /**
+             * Maximum number of entries in Redis, unbounded by default. The entries closest to their expiration are evicted first.
+             */
+            private Long maxEntries;
+
+            /**
+             * Whether the entries are also kept in memory, {@code application.near-cache.enabled} by default.
+             */
+            private Boolean nearCache;
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public Boolean getNearCache() {
+                return nearCache;
+            }
+
+            public void setNearCache(Boolean nearCache) {
+                this.nearCache = nearCache;
+            }
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -1,12 +1,24 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.service.CommentsQueryService;
+import com.mycompany.myapp.service.PostsQueryService;
+import com.mycompany.myapp.service.ReactionsQueryService;
+import com.mycompany.myapp.service.ReportedCommentsQueryService;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.net.URI;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import javax.cache.configuration.CompleteConfiguration;
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.FactoryBuilder;
 import javax.cache.configuration.MutableConfiguration;
 import javax.cache.expiry.CreatedExpiryPolicy;
 import javax.cache.expiry.Duration;
+import javax.cache.expiry.ExpiryPolicy;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
 import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
 import org.redisson.config.ClusterServersConfig;
 import org.redisson.config.Config;
 import org.redisson.config.SingleServerConfig;
@@ -36,18 +48,27 @@ public class CacheConfiguration {
 
     private static final Logger LOG = LoggerFactory.getLogger(CacheConfiguration.class);
 
+    /**
+     * Entities cached in the second level cache, whose shape makes the {@link CacheRegionNamespace}.
+     */
+    private static final List<Class<?>> CACHED_ENTITIES = List.of(
+        com.mycompany.myapp.domain.Comments.class,
+        com.mycompany.myapp.domain.Posts.class,
+        com.mycompany.myapp.domain.Reactions.class,
+        com.mycompany.myapp.domain.ReportedComments.class
+    );
+
     @Value("${ssh.redis_password}")
     private String redisPassword;
 
-    @Bean
-    public javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(JHipsterProperties jHipsterProperties) {
-        MutableConfiguration<Object, Object> jcacheConfig = new MutableConfiguration<>();
-
+    @Bean(destroyMethod = "shutdown")
+    public RedissonClient redissonClient(JHipsterProperties jHipsterProperties) {
         URI redisUri = URI.create(jHipsterProperties.getCache().getRedis().getServer()[0]);
 
         Config config = new Config();
         // Fix Hibernate lazy initialization https://github.com/jhipster/generator-jhipster/issues/22889
-        config.setCodec(new org.redisson.codec.SerializationCodec());
+        // The codec falls back to Java serialization for the objects it does not know
+        config.setCodec(new HibernateCacheCodec());
         if (jHipsterProperties.getCache().getRedis().isCluster()) {
             ClusterServersConfig clusterServersConfig = config
                 .useClusterServers()
@@ -72,38 +93,144 @@ public class CacheConfiguration {
                 singleServerConfig.setPassword(redisUri.getUserInfo().substring(redisUri.getUserInfo().indexOf(':') + 1));
             }
         }
+        return Redisson.create(config);
+    }
+
+    @Bean
+    public javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        RedissonClient redissonClient
+    ) {
+        MutableConfiguration<Object, Object> jcacheConfig = new MutableConfiguration<>();
         jcacheConfig.setStatisticsEnabled(true);
-        jcacheConfig.setExpiryPolicyFactory(
-            CreatedExpiryPolicy.factoryOf(new Duration(TimeUnit.SECONDS, jHipsterProperties.getCache().getRedis().getExpiration()))
+        jcacheConfig.setExpiryPolicyFactory(FactoryBuilder.factoryOf(expiryPolicy(jHipsterProperties, applicationProperties)));
+        return RedissonConfiguration.fromInstance(redissonClient, jcacheConfig);
+    }
+
+    private static JitteredExpiryPolicy expiryPolicy(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        return new JitteredExpiryPolicy(
+            java.time.Duration.ofSeconds(jHipsterProperties.getCache().getRedis().getExpiration()),
+            applicationProperties.getCacheExpiry().getJitter()
         );
-        return RedissonConfiguration.fromInstance(Redisson.create(config), jcacheConfig);
     }
 
     @Bean
-    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cm) {
-        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cm);
+    public CacheRegionNamespace cacheRegionNamespace(ApplicationProperties applicationProperties) {
+        CacheRegionNamespace namespace = CacheRegionNamespace.of(
+            applicationProperties.getCacheNamespace().getStrategy(),
+            CACHED_ENTITIES,
+            gitProperties,
+            buildProperties
+        );
+        LOG.info("Using the cache namespace {}", namespace);
+        return namespace;
+    }
+
+    @Bean
+    public NearCacheRegionFactory nearCacheRegionFactory(
+        RedissonClient redissonClient,
+        MeterRegistry meterRegistry,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        return new NearCacheRegionFactory(redissonClient, meterRegistry, applicationProperties, jHipsterProperties);
     }
 
     @Bean
-    public JCacheManagerCustomizer cacheManagerCustomizer(javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration) {
+    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(
+        javax.cache.CacheManager cm,
+        CacheRegionNamespace cacheRegionNamespace,
+        NearCacheRegionFactory nearCacheRegionFactory
+    ) {
+        return hibernateProperties -> {
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cm);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_PREFIX, cacheRegionNamespace.getName());
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, nearCacheRegionFactory);
+        };
+    }
+
+    @Bean
+    public JCacheManagerCustomizer cacheManagerCustomizer(
+        javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration,
+        CacheRegionNamespace cacheRegionNamespace,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        javax.cache.configuration.Configuration<Object, Object> countCacheConfiguration = withExpiryPolicy(
+            jcacheConfiguration,
+            CreatedExpiryPolicy.factoryOf(
+                new Duration(TimeUnit.MILLISECONDS, applicationProperties.getPagination().getCountCacheTtl().toMillis())
+            )
+        );
         return cm -> {
-            createCache(cm, com.mycompany.myapp.domain.Comments.class.getName(), jcacheConfiguration);
-            createCache(cm, com.mycompany.myapp.domain.Posts.class.getName(), jcacheConfiguration);
-            createCache(cm, com.mycompany.myapp.domain.Reactions.class.getName(), jcacheConfiguration);
-            createCache(cm, com.mycompany.myapp.domain.ReportedComments.class.getName(), jcacheConfiguration);
+            for (Class<?> entity : CACHED_ENTITIES) {
+                CacheRegionPolicy policy = CacheRegionPolicy.of(entity.getName(), applicationProperties, jHipsterProperties);
+                JitteredExpiryPolicy expiryPolicy = new JitteredExpiryPolicy(
+                    policy.timeToLive(),
+                    applicationProperties.getCacheExpiry().getJitter()
+                );
+                createCache(
+                    cm,
+                    cacheRegionNamespace.qualify(entity.getName()),
+                    withExpiryPolicy(jcacheConfiguration, FactoryBuilder.factoryOf(expiryPolicy))
+                );
+            }
+            createCache(cm, PostsQueryService.COUNT_CACHE, countCacheConfiguration);
+            createCache(cm, CommentsQueryService.COUNT_CACHE, countCacheConfiguration);
+            createCache(cm, ReactionsQueryService.COUNT_CACHE, countCacheConfiguration);
+            createCache(cm, ReportedCommentsQueryService.COUNT_CACHE, countCacheConfiguration);
             // jhipster-needle-redis-add-entry
         };
     }
 
+    @Bean
+    public CacheRegionMetrics cacheRegionMetrics(javax.cache.CacheManager cm, CacheRegionNamespace cacheRegionNamespace) {
+        return new CacheRegionMetrics(cm, cacheRegionNamespace, CACHED_ENTITIES.stream().map(Class::getName).toList());
+    }
+
+    @Bean
+    public CacheRegionTrimmer cacheRegionTrimmer(
+        javax.cache.CacheManager cm,
+        RedissonClient redissonClient,
+        CacheRegionNamespace cacheRegionNamespace,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        List<CacheRegionPolicy> policies = CACHED_ENTITIES.stream()
+            .map(entity -> CacheRegionPolicy.of(entity.getName(), applicationProperties, jHipsterProperties))
+            .toList();
+        return new CacheRegionTrimmer(cm, redissonClient, cacheRegionNamespace, policies);
+    }
+
+    @Bean
+    public CacheHotKeysEndpoint cacheHotKeysEndpoint(NearCacheRegionFactory nearCacheRegionFactory) {
+        return new CacheHotKeysEndpoint(nearCacheRegionFactory);
+    }
+
+    /**
+     * Copy a cache configuration, on the same Redisson client, with another expiry policy.
+     */
+    @SuppressWarnings("unchecked")
+    private static javax.cache.configuration.Configuration<Object, Object> withExpiryPolicy(
+        javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration,
+        Factory<? extends ExpiryPolicy> expiryPolicyFactory
+    ) {
+        RedissonConfiguration<Object, Object> redissonConfiguration = (RedissonConfiguration<Object, Object>) jcacheConfiguration;
+        MutableConfiguration<Object, Object> configuration = new MutableConfiguration<>(
+            (CompleteConfiguration<Object, Object>) redissonConfiguration.getJcacheConfig()
+        );
+        configuration.setExpiryPolicyFactory(expiryPolicyFactory);
+        return RedissonConfiguration.fromInstance(redissonConfiguration.getRedisson(), configuration);
+    }
+
     private void createCache(
         javax.cache.CacheManager cm,
         String cacheName,
         javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration
     ) {
-        javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
-        if (cache != null) {
-            cache.clear();
-        } else {
+        // The regions are shared with the running instances: an existing region is in the same namespace, so its entries are valid
+        if (cm.getCache(cacheName) == null) {
             cm.createCache(cacheName, jcacheConfiguration);
         }
     }
@@ -0,0 +1,54 @@
+package com.mycompany.myapp.config;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.hibernate.cache.internal.BasicCacheKeyImplementation;
+import org.hibernate.cache.internal.CacheKeyImplementation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+
+/**
+ * Management endpoint listing the keys read the most often recently in each second level cache region.
+ * <p>
+ * The regions are named by their key in {@code application.cache-regions.regions}, for example {@code reported-comments}, and
+ * the keys by the id of the cached entity. The ranking is approximate: it only counts the reads of this instance, on the
+ * {@code application.cache-regions.hot-keys-tracked} keys retained by a bounded Caffeine cache.
+ */
+@Endpoint(id = "cachehotkeys")
+public class CacheHotKeysEndpoint {
+
+    static final int DEFAULT_LIMIT = 10;
+
+    private final NearCacheRegionFactory nearCacheRegionFactory;
+
+    public CacheHotKeysEndpoint(NearCacheRegionFactory nearCacheRegionFactory) {
+        this.nearCacheRegionFactory = nearCacheRegionFactory;
+    }
+
+    @ReadOperation
+    public Map<String, List<String>> hotKeys(@Nullable Integer limit) {
+        Map<String, List<String>> hotKeys = new TreeMap<>();
+        nearCacheRegionFactory
+            .hottestKeys(limit != null ? limit : DEFAULT_LIMIT)
+            .forEach((regionName, keys) -> hotKeys.put(CacheRegionPolicy.propertyKey(regionName), keys.stream().map(this::id).toList()));
+        return hotKeys;
+    }
+
+    @ReadOperation
+    public List<String> regionHotKeys(@Selector String region, @Nullable Integer limit) {
+        return hotKeys(limit).get(region);
+    }
+
+    private String id(Object key) {
+        if (key instanceof BasicCacheKeyImplementation cacheKey) {
+            return String.valueOf(cacheKey.getId());
+        }
+        if (key instanceof CacheKeyImplementation cacheKey) {
+            return String.valueOf(cacheKey.getId());
+        }
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,95 @@
+package com.mycompany.myapp.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.redisson.jcache.JCache;
+import org.redisson.jcache.JCacheManager;
+import org.redisson.jcache.bean.JCacheStatisticsMXBean;
+
+/**
+ * Micrometer binder exporting the JCache statistics of each second level cache region: hits, misses, puts, removals, evictions,
+ * and the average latency of the operations on Redis.
+ * <p>
+ * The meters are tagged with the {@code region}, the key of the region in {@code application.cache-regions.regions}.
+ */
+public class CacheRegionMetrics implements MeterBinder {
+
+    private final CacheManager cacheManager;
+
+    private final CacheRegionNamespace namespace;
+
+    private final List<String> regionNames;
+
+    public CacheRegionMetrics(CacheManager cacheManager, CacheRegionNamespace namespace, List<String> regionNames) {
+        this.cacheManager = cacheManager;
+        this.namespace = namespace;
+        this.regionNames = regionNames;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String regionName : regionNames) {
+            JCacheStatisticsMXBean statistics = statistics(cacheManager, namespace.qualify(regionName));
+            if (statistics == null) {
+                continue;
+            }
+            String region = CacheRegionPolicy.propertyKey(regionName);
+            FunctionCounter.builder("cache.region.gets", statistics, JCacheStatisticsMXBean::getCacheHits)
+                .tags("region", region, "result", "hit")
+                .description("Reads of the region finding an entry in Redis")
+                .register(registry);
+            FunctionCounter.builder("cache.region.gets", statistics, JCacheStatisticsMXBean::getCacheMisses)
+                .tags("region", region, "result", "miss")
+                .description("Reads of the region finding no entry in Redis")
+                .register(registry);
+            FunctionCounter.builder("cache.region.puts", statistics, JCacheStatisticsMXBean::getCachePuts)
+                .tag("region", region)
+                .description("Entries written to the region")
+                .register(registry);
+            FunctionCounter.builder("cache.region.removals", statistics, JCacheStatisticsMXBean::getCacheRemovals)
+                .tag("region", region)
+                .description("Entries removed from the region")
+                .register(registry);
+            FunctionCounter.builder("cache.region.evictions", statistics, JCacheStatisticsMXBean::getCacheEvictions)
+                .tag("region", region)
+                .description("Entries evicted from the region to keep it under its maximum number of entries")
+                .register(registry);
+            latency(registry, region, "get", statistics, JCacheStatisticsMXBean::getAverageGetTime);
+            latency(registry, region, "put", statistics, JCacheStatisticsMXBean::getAveragePutTime);
+            latency(registry, region, "remove", statistics, JCacheStatisticsMXBean::getAverageRemoveTime);
+        }
+    }
+
+    private static void latency(
+        MeterRegistry registry,
+        String region,
+        String operation,
+        JCacheStatisticsMXBean statistics,
+        ToDoubleFunction<JCacheStatisticsMXBean> averageTime
+    ) {
+        TimeGauge.builder("cache.region.latency", statistics, TimeUnit.MICROSECONDS, averageTime)
+            .tags("region", region, "operation", operation)
+            .description("Average time of the operations on the region since the start of the instance")
+            .register(registry);
+    }
+
+    /**
+     * @param cacheManager the Redisson cache manager.
+     * @param cacheName the qualified name of the region.
+     * @return the statistics of the region, or {@code null} if it does not exist.
+     */
+    static JCacheStatisticsMXBean statistics(CacheManager cacheManager, String cacheName) {
+        Cache<Object, Object> cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return null;
+        }
+        return cacheManager.unwrap(JCacheManager.class).getStatBean(cache.unwrap(JCache.class));
+    }
+}
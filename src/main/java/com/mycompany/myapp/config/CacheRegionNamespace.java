@@ -0,0 +1,109 @@
+package com.mycompany.myapp.config;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import org.springframework.boot.info.BuildProperties;
+import org.springframework.boot.info.GitProperties;
+
+/**
+ * Namespace of the Hibernate second level cache regions in Redis, used as the Hibernate region prefix.
+ * <p>
+ * The instances sharing a namespace share their cached entries. An instance caching entities of another shape, or written by
+ * another codec, gets another namespace instead of clearing the regions of the running instances: the old namespace is deleted
+ * once no instance uses it anymore.
+ */
+public final class CacheRegionNamespace {
+
+    static final String PREFIX = "l2-";
+
+    private final String name;
+
+    private CacheRegionNamespace(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Derive the namespace from the cached entities, or from the build.
+     *
+     * @param strategy what the namespace is derived from.
+     * @param entities the cached entities.
+     * @param gitProperties the git information of the build, may be {@code null}.
+     * @param buildProperties the build information, may be {@code null}.
+     * @return the namespace.
+     */
+    public static CacheRegionNamespace of(
+        ApplicationProperties.CacheNamespace.Strategy strategy,
+        List<Class<?>> entities,
+        GitProperties gitProperties,
+        BuildProperties buildProperties
+    ) {
+        StringBuilder shape = new StringBuilder();
+        // Same sources as the PrefixedKeyGenerator of the Spring caches
+        if (strategy == ApplicationProperties.CacheNamespace.Strategy.BUILD && gitProperties != null) {
+            shape.append(gitProperties.getShortCommitId()).append('\n');
+        } else if (strategy == ApplicationProperties.CacheNamespace.Strategy.BUILD && buildProperties != null) {
+            shape.append(buildProperties.getVersion()).append('\n');
+        }
+        shape.append(org.hibernate.Version.getVersionString()).append('\n');
+        shape.append(HibernateCacheCodec.FORMAT_VERSION).append('\n');
+        for (Class<?> entity : entities) {
+            shape.append(entity.getName()).append('\n').append(persistentFields(entity));
+        }
+        return new CacheRegionNamespace(PREFIX + fingerprint(shape.toString()));
+    }
+
+    /**
+     * @param entity an entity.
+     * @return the names and types of the persistent fields of the entity, one per line.
+     */
+    static String persistentFields(Class<?> entity) {
+        StringBuilder fields = new StringBuilder();
+        for (Class<?> type = entity; type != null && type != Object.class; type = type.getSuperclass()) {
+            Arrays.stream(type.getDeclaredFields())
+                .filter(CacheRegionNamespace::isPersistent)
+                .sorted(Comparator.comparing(Field::getName))
+                .forEach(field -> fields.append(field.getName()).append(':').append(field.getGenericType().getTypeName()).append('\n'));
+        }
+        return fields.toString();
+    }
+
+    private static boolean isPersistent(Field field) {
+        int modifiers = field.getModifiers();
+        return (
+            !Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isAnnotationPresent(jakarta.persistence.Transient.class)
+        );
+    }
+
+    private static String fingerprint(String shape) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(shape.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param regionName the name of a region.
+     * @return the name of the region in this namespace, as qualified by Hibernate.
+     */
+    public String qualify(String regionName) {
+        return name + '.' + regionName;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
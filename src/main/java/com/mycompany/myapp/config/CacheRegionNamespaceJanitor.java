@@ -0,0 +1,67 @@
+package com.mycompany.myapp.config;
+
+import java.time.Instant;
+import java.util.Map;
+import org.redisson.api.RMap;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background task keeping the {@link CacheRegionNamespace} in use alive, and deleting from Redis the namespaces that no instance
+ * has used for the retention time, for example those of the instances replaced by a rolling deployment.
+ */
+@Component
+public class CacheRegionNamespaceJanitor {
+
+    static final String NAMESPACES_KEY = "hibernate:cache-namespaces";
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheRegionNamespaceJanitor.class);
+
+    private final RMap<String, Long> heartbeats;
+
+    private final RedissonClient redissonClient;
+
+    private final CacheRegionNamespace namespace;
+
+    private final ApplicationProperties.CacheNamespace properties;
+
+    public CacheRegionNamespaceJanitor(
+        RedissonClient redissonClient,
+        CacheRegionNamespace namespace,
+        ApplicationProperties applicationProperties
+    ) {
+        this.redissonClient = redissonClient;
+        this.heartbeats = redissonClient.getMap(NAMESPACES_KEY);
+        this.namespace = namespace;
+        this.properties = applicationProperties.getCacheNamespace();
+    }
+
+    /**
+     * Record that the namespace is in use, and delete the expired namespaces.
+     */
+    @Scheduled(fixedDelayString = "${application.cache-namespace.heartbeat:PT1M}")
+    public void heartbeat() {
+        Instant now = Instant.now();
+        heartbeats.fastPut(namespace.getName(), now.toEpochMilli());
+        long expiredBefore = now.minus(properties.getRetention()).toEpochMilli();
+        for (Map.Entry<String, Long> entry : heartbeats.readAllEntrySet()) {
+            if (
+                entry.getKey().startsWith(CacheRegionNamespace.PREFIX) &&
+                entry.getValue() < expiredBefore &&
+                heartbeats.remove(entry.getKey(), entry.getValue())
+            ) {
+                delete(entry.getKey());
+            }
+        }
+    }
+
+    private void delete(String expired) {
+        // The regions are Redisson hashes named after the region, with companion keys such as "jcache_timeout_set:{region}"
+        long deleted = redissonClient.getKeys().deleteByPattern(expired + ".*");
+        deleted += redissonClient.getKeys().deleteByPattern("*{" + expired + ".*}");
+        LOG.info("Deleted the expired cache namespace {}: {} keys", expired, deleted);
+    }
+}
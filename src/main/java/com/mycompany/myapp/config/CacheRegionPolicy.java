@@ -0,0 +1,67 @@
+package com.mycompany.myapp.config;
+
+import java.time.Duration;
+import java.util.Locale;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Effective policy of a second level cache region: its {@link ApplicationProperties.CacheRegions.Region} properties, completed
+ * with the defaults of all the regions.
+ *
+ * @param regionName the name of the region, without namespace.
+ * @param timeToLive the average time to live of the entries.
+ * @param maxEntries the maximum number of entries in Redis, or {@code null} if unbounded.
+ * @param nearCache whether the entries are also kept in memory.
+ * @param nearCacheMaximumSize the maximum number of entries kept in memory.
+ * @param nearCacheExpireAfterWrite the time after which an entry kept in memory is read again from Redis.
+ * @param hotKeysTracked the number of keys whose reads are tracked.
+ */
+public record CacheRegionPolicy(
+    String regionName,
+    Duration timeToLive,
+    Long maxEntries,
+    boolean nearCache,
+    long nearCacheMaximumSize,
+    Duration nearCacheExpireAfterWrite,
+    int hotKeysTracked
+) {
+    /**
+     * Resolve the policy of a region.
+     *
+     * @param regionName the name of the region, the class name of the cached entity.
+     * @param applicationProperties the application properties.
+     * @param jHipsterProperties the JHipster properties, holding the default time to live.
+     * @return the policy.
+     */
+    public static CacheRegionPolicy of(
+        String regionName,
+        ApplicationProperties applicationProperties,
+        JHipsterProperties jHipsterProperties
+    ) {
+        ApplicationProperties.CacheRegions.Region region = applicationProperties
+            .getCacheRegions()
+            .getRegions()
+            .getOrDefault(propertyKey(regionName), new ApplicationProperties.CacheRegions.Region());
+        ApplicationProperties.NearCache nearCache = applicationProperties.getNearCache();
+        return new CacheRegionPolicy(
+            regionName,
+            region.getTimeToLive() != null
+                ? region.getTimeToLive()
+                : Duration.ofSeconds(jHipsterProperties.getCache().getRedis().getExpiration()),
+            region.getMaxEntries(),
+            region.getNearCache() != null ? region.getNearCache() : nearCache.isEnabled(),
+            nearCache.getMaximumSize(),
+            nearCache.getExpireAfterWrite(),
+            applicationProperties.getCacheRegions().getHotKeysTracked()
+        );
+    }
+
+    /**
+     * @param regionName the name of a region, the class name of the cached entity.
+     * @return the key of the region in {@code application.cache-regions.regions}: the simple class name, in kebab case.
+     */
+    static String propertyKey(String regionName) {
+        String simpleName = regionName.substring(regionName.lastIndexOf('.') + 1);
+        return simpleName.replaceAll("([a-z0-9])([A-Z])", "$1-$2").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,107 @@
+package com.mycompany.myapp.config;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.jcache.bean.JCacheStatisticsMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Background task keeping each second level cache region under its {@link CacheRegionPolicy#maxEntries()}.
+ * <p>
+ * Redis has no per-hash size bound, so the regions are checked periodically, and the entries of a region over its bound are
+ * evicted, those closest to their expiry first: Redisson keeps the expiry times of a cache in a sorted set, which gives them
+ * cheaply. A region can exceed its bound between two checks.
+ * <p>
+ * The regions are shared by the instances: a run holds a Redis lock, and the instances which do not get it skip their run,
+ * so that the excess of a region is evicted once, not once by each instance. The next run of any instance reads the sizes
+ * again.
+ */
+public class CacheRegionTrimmer {
+
+    /**
+     * Maximum number of entries evicted from a region by a run, to keep each Redis command short.
+     */
+    static final int MAX_EVICTIONS_PER_RUN = 10_000;
+
+    /**
+     * Time after which the lock of a run is released, if its instance stopped meanwhile.
+     */
+    private static final long LOCK_LEASE_SECONDS = 60;
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheRegionTrimmer.class);
+
+    private final CacheManager cacheManager;
+
+    private final RedissonClient redissonClient;
+
+    private final CacheRegionNamespace namespace;
+
+    private final List<CacheRegionPolicy> policies;
+
+    public CacheRegionTrimmer(
+        CacheManager cacheManager,
+        RedissonClient redissonClient,
+        CacheRegionNamespace namespace,
+        List<CacheRegionPolicy> policies
+    ) {
+        this.cacheManager = cacheManager;
+        this.redissonClient = redissonClient;
+        this.namespace = namespace;
+        this.policies = policies.stream().filter(policy -> policy.maxEntries() != null).toList();
+    }
+
+    @Scheduled(fixedDelayString = "${application.cache-regions.size-check-delay:PT30S}")
+    public void trim() {
+        RLock lock = redissonClient.getLock(namespace.qualify("size-check-lock"));
+        boolean locked;
+        try {
+            locked = lock.tryLock(0, LOCK_LEASE_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (!locked) {
+            LOG.debug("Skipping the size check of the cache regions, run by another instance");
+            return;
+        }
+        try {
+            trimRegions();
+        } finally {
+            // The lease may have expired during a long run
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void trimRegions() {
+        for (CacheRegionPolicy policy : policies) {
+            String cacheName = namespace.qualify(policy.regionName());
+            Cache<Object, Object> cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+            long excess = redissonClient.getMap(cacheName).size() - policy.maxEntries();
+            if (excess <= 0) {
+                continue;
+            }
+            Collection<Object> keys = redissonClient
+                .getScoredSortedSet("jcache_timeout_set:{" + cacheName + "}")
+                .valueRange(0, (int) Math.min(excess, MAX_EVICTIONS_PER_RUN) - 1);
+            cache.removeAll(new HashSet<>(keys));
+            JCacheStatisticsMXBean statistics = CacheRegionMetrics.statistics(cacheManager, cacheName);
+            if (statistics != null) {
+                statistics.addEvictions(keys.size());
+            }
+            LOG.debug("Evicted {} entries from the cache region {}, over its {} entries", keys.size(), cacheName, policy.maxEntries());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.mycompany.myapp.config;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Probabilistic early expiration of the cached entries ("XFetch"): a read may decide to reload an entry before it expires, with a
+ * probability growing exponentially as the expiration gets closer. A hot entry is then reloaded by one reader shortly before it
+ * expires, instead of by all its readers at once just after, while a cold entry is almost never reloaded early.
+ */
+class EarlyRefreshPolicy {
+
+    private final long timeToLiveMillis;
+
+    private final double scaledRecomputeMillis;
+
+    private final DoubleSupplier random;
+
+    /**
+     * @param timeToLiveMillis the time to live of the entries; the shortest one if they are jittered.
+     * @param recomputeMillis the time to load an entry from the database.
+     * @param beta how eagerly entries are refreshed: above 1 earlier, below 1 later, 0 never.
+     */
+    EarlyRefreshPolicy(long timeToLiveMillis, long recomputeMillis, double beta) {
+        this(timeToLiveMillis, recomputeMillis, beta, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    EarlyRefreshPolicy(long timeToLiveMillis, long recomputeMillis, double beta, DoubleSupplier random) {
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.scaledRecomputeMillis = recomputeMillis * beta;
+        this.random = random;
+    }
+
+    /**
+     * @param ageMillis the time since the entry was written.
+     * @return {@code true} if this read should reload the entry.
+     */
+    boolean shouldRefresh(long ageMillis) {
+        if (scaledRecomputeMillis <= 0) {
+            return false;
+        }
+        // -log(u), u uniform in ]0, 1], follows an exponential distribution of mean 1
+        double advance = -scaledRecomputeMillis * Math.log(1 - random.getAsDouble());
+        return ageMillis + advance >= timeToLiveMillis;
+    }
+}
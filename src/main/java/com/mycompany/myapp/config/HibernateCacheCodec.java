@@ -0,0 +1,386 @@
+package com.mycompany.myapp.config;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.hibernate.cache.internal.BasicCacheKeyImplementation;
+import org.hibernate.cache.internal.CacheKeyImplementation;
+import org.hibernate.cache.spi.entry.StandardCacheEntryImpl;
+import org.hibernate.cache.spi.support.AbstractReadWriteAccess;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.handler.State;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+import org.redisson.codec.SerializationCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Redisson codec writing the Hibernate second level cache entries in a compact binary format.
+ * <p>
+ * The cache keys, the read-write items and the disassembled state of the entities are written field by field, with tagged
+ * values: variable length numbers, UTF-8 strings, and a dictionary for the entity and enumeration class names. Any other
+ * object (soft locks, lazy proxies, query cache results...) is written with Java serialization, like the
+ * {@link SerializationCodec} this codec replaces, so the codec accepts everything it did. Values stored by the
+ * {@link SerializationCodec} are still read, so the entries cached before an upgrade do not have to be flushed.
+ */
+public class HibernateCacheCodec extends BaseCodec {
+
+    /**
+     * First byte of the values written by this codec. A Java serialization stream starts with {@code 0xAC}.
+     */
+    static final byte FORMAT_VERSION = 1;
+
+    /**
+     * Names written as their index. Only append to this list: the index of a name is stored in Redis.
+     */
+    static final List<String> DICTIONARY = List.of(
+        com.mycompany.myapp.domain.Comments.class.getName(),
+        com.mycompany.myapp.domain.Posts.class.getName(),
+        com.mycompany.myapp.domain.Reactions.class.getName(),
+        com.mycompany.myapp.domain.ReportedComments.class.getName(),
+        com.mycompany.myapp.domain.enumeration.ReactionType.class.getName(),
+        com.mycompany.myapp.domain.enumeration.ReactionTargetType.class.getName()
+    );
+
+    private static final Logger LOG = LoggerFactory.getLogger(HibernateCacheCodec.class);
+
+    private static final Map<String, Integer> DICTIONARY_INDEXES = new HashMap<>();
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte LONG = 3;
+    private static final byte INTEGER = 4;
+    private static final byte STRING = 5;
+    private static final byte INSTANT = 6;
+    private static final byte UUID_VALUE = 7;
+    private static final byte ENUM = 8;
+    private static final byte ARRAY = 9;
+    private static final byte ENTITY_KEY = 10;
+    private static final byte TENANT_KEY = 11;
+    private static final byte ENTITY_ENTRY = 12;
+    private static final byte ITEM = 13;
+    private static final byte JAVA = 14;
+
+    private static final byte NAME = 0;
+    private static final byte NAME_REFERENCE = 1;
+
+    /**
+     * Handles on the non public members of the Hibernate entries, or {@code null} if this version of Hibernate does not have
+     * them, in which case the entries are written with Java serialization.
+     */
+    static final HibernateMembers HIBERNATE_MEMBERS = HibernateMembers.lookup();
+
+    static {
+        for (int i = 0; i < DICTIONARY.size(); i++) {
+            DICTIONARY_INDEXES.put(DICTIONARY.get(i), i);
+        }
+    }
+
+    private final SerializationCodec serializationCodec;
+
+    private final Encoder encoder = this::encode;
+
+    private final Decoder<Object> decoder = (buf, state) -> decode(buf, state);
+
+    public HibernateCacheCodec() {
+        this(null);
+    }
+
+    public HibernateCacheCodec(ClassLoader classLoader) {
+        this.serializationCodec = new SerializationCodec(classLoader);
+    }
+
+    public HibernateCacheCodec(ClassLoader classLoader, HibernateCacheCodec codec) {
+        this(classLoader);
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return serializationCodec.getClassLoader();
+    }
+
+    private ByteBuf encode(Object value) throws IOException {
+        ByteBuf out = ByteBufAllocator.DEFAULT.buffer();
+        try {
+            out.writeByte(FORMAT_VERSION);
+            writeValue(out, value);
+            return out;
+        } catch (IOException | RuntimeException e) {
+            out.release();
+            throw e;
+        }
+    }
+
+    private Object decode(ByteBuf in, State state) throws IOException {
+        if (in.getByte(in.readerIndex()) != FORMAT_VERSION) {
+            return serializationCodec.getValueDecoder().decode(in, state);
+        }
+        in.skipBytes(1);
+        return readValue(in, state);
+    }
+
+    private void writeValue(ByteBuf out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(b ? TRUE : FALSE);
+        } else if (value instanceof Long l) {
+            out.writeByte(LONG);
+            writeVarLong(out, l);
+        } else if (value instanceof Integer i) {
+            out.writeByte(INTEGER);
+            writeVarLong(out, i);
+        } else if (value instanceof String s) {
+            out.writeByte(STRING);
+            writeString(out, s);
+        } else if (value instanceof Instant instant) {
+            out.writeByte(INSTANT);
+            writeVarLong(out, instant.getEpochSecond());
+            writeVarLong(out, instant.getNano());
+        } else if (value instanceof UUID uuid) {
+            out.writeByte(UUID_VALUE);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else if (value instanceof Enum<?> e) {
+            out.writeByte(ENUM);
+            writeName(out, e.getDeclaringClass().getName());
+            writeString(out, e.name());
+        } else if (value.getClass() == Serializable[].class || value.getClass() == Object[].class) {
+            Object[] array = (Object[]) value;
+            out.writeByte(ARRAY);
+            out.writeBoolean(value.getClass() == Serializable[].class);
+            writeVarLong(out, array.length);
+            for (Object element : array) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof BasicCacheKeyImplementation key) {
+            out.writeByte(ENTITY_KEY);
+            writeValue(out, key.getId());
+            writeName(out, key.getEntityOrRoleName());
+            out.writeInt(key.hashCode());
+        } else if (value instanceof CacheKeyImplementation key) {
+            out.writeByte(TENANT_KEY);
+            writeValue(out, key.getId());
+            writeName(out, key.getEntityOrRoleName());
+            writeValue(out, key.getTenantId());
+            out.writeInt(key.hashCode());
+        } else if (value.getClass() == StandardCacheEntryImpl.class && HIBERNATE_MEMBERS != null) {
+            StandardCacheEntryImpl entry = (StandardCacheEntryImpl) value;
+            out.writeByte(ENTITY_ENTRY);
+            writeName(out, entry.getSubclass());
+            writeValue(out, entry.getVersion());
+            writeValue(out, entry.getDisassembledState());
+        } else if (value instanceof AbstractReadWriteAccess.Item item && HIBERNATE_MEMBERS != null) {
+            out.writeByte(ITEM);
+            writeValue(out, item.getValue());
+            writeValue(out, HIBERNATE_MEMBERS.itemVersion(item));
+            writeVarLong(out, HIBERNATE_MEMBERS.itemTimestamp(item));
+        } else {
+            ByteBuf serialized = serializationCodec.getValueEncoder().encode(value);
+            try {
+                out.writeByte(JAVA);
+                writeVarLong(out, serialized.readableBytes());
+                out.writeBytes(serialized);
+            } finally {
+                serialized.release();
+            }
+        }
+    }
+
+    private Object readValue(ByteBuf in, State state) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case NULL -> null;
+            case TRUE -> Boolean.TRUE;
+            case FALSE -> Boolean.FALSE;
+            case LONG -> readVarLong(in);
+            case INTEGER -> (int) readVarLong(in);
+            case STRING -> readString(in);
+            case INSTANT -> Instant.ofEpochSecond(readVarLong(in), readVarLong(in));
+            case UUID_VALUE -> new UUID(in.readLong(), in.readLong());
+            case ENUM -> readEnum(in);
+            case ARRAY -> readArray(in, state);
+            case ENTITY_KEY -> new BasicCacheKeyImplementation((Serializable) readValue(in, state), readName(in), in.readInt());
+            case TENANT_KEY -> new CacheKeyImplementation(readValue(in, state), readName(in), (String) readValue(in, state), in.readInt());
+            case ENTITY_ENTRY -> HIBERNATE_MEMBERS.newEntityEntry(
+                readName(in),
+                readValue(in, state),
+                (Serializable[]) readValue(in, state)
+            );
+            case ITEM -> HIBERNATE_MEMBERS.newItem(readValue(in, state), readValue(in, state), readVarLong(in));
+            case JAVA -> readSerialized(in, state);
+            default -> throw new IOException("Unknown cache value tag " + tag);
+        };
+    }
+
+    private Object[] readArray(ByteBuf in, State state) throws IOException {
+        boolean serializable = in.readBoolean();
+        int length = (int) readVarLong(in);
+        Object[] array = serializable ? new Serializable[length] : new Object[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = readValue(in, state);
+        }
+        return array;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Object readEnum(ByteBuf in) throws IOException {
+        String className = readName(in);
+        String name = readString(in);
+        try {
+            return Enum.valueOf((Class<? extends Enum>) Class.forName(className, false, enumClassLoader()), name);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown enumeration " + className, e);
+        }
+    }
+
+    private ClassLoader enumClassLoader() {
+        ClassLoader classLoader = getClassLoader();
+        return classLoader != null ? classLoader : HibernateCacheCodec.class.getClassLoader();
+    }
+
+    private Object readSerialized(ByteBuf in, State state) throws IOException {
+        int length = (int) readVarLong(in);
+        Object value = serializationCodec.getValueDecoder().decode(in.slice(in.readerIndex(), length), state);
+        in.skipBytes(length);
+        return value;
+    }
+
+    private static void writeName(ByteBuf out, String name) {
+        Integer index = DICTIONARY_INDEXES.get(name);
+        if (index != null) {
+            out.writeByte(NAME_REFERENCE);
+            writeVarLong(out, index);
+        } else {
+            out.writeByte(NAME);
+            writeString(out, name);
+        }
+    }
+
+    private static String readName(ByteBuf in) {
+        return in.readByte() == NAME_REFERENCE ? DICTIONARY.get((int) readVarLong(in)) : readString(in);
+    }
+
+    private static void writeString(ByteBuf out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static String readString(ByteBuf in) {
+        int length = (int) readVarLong(in);
+        String value = in.toString(in.readerIndex(), length, StandardCharsets.UTF_8);
+        in.skipBytes(length);
+        return value;
+    }
+
+    /**
+     * Write a number in 7 bits groups, zigzag encoded so that small negative numbers are short too.
+     */
+    private static void writeVarLong(ByteBuf out, long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(ByteBuf in) {
+        long zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * Access to the package private constructors and fields of the Hibernate cache entries.
+     */
+    record HibernateMembers(
+        MethodHandle entryConstructor,
+        MethodHandle itemConstructor,
+        MethodHandle itemVersion,
+        MethodHandle itemTimestamp
+    ) {
+        static HibernateMembers lookup() {
+            try {
+                MethodHandles.Lookup entryLookup = MethodHandles.privateLookupIn(StandardCacheEntryImpl.class, MethodHandles.lookup());
+                MethodHandles.Lookup itemLookup = MethodHandles.privateLookupIn(AbstractReadWriteAccess.Item.class, MethodHandles.lookup());
+                return new HibernateMembers(
+                    entryLookup.findConstructor(
+                        StandardCacheEntryImpl.class,
+                        MethodType.methodType(void.class, Serializable[].class, String.class, Object.class)
+                    ),
+                    itemLookup.findConstructor(
+                        AbstractReadWriteAccess.Item.class,
+                        MethodType.methodType(void.class, Object.class, Object.class, long.class)
+                    ),
+                    itemLookup.findGetter(AbstractReadWriteAccess.Item.class, "version", Object.class),
+                    itemLookup.findGetter(AbstractReadWriteAccess.Item.class, "timestamp", long.class)
+                );
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                LOG.warn("Hibernate cache entries will be written with Java serialization: {}", e.toString());
+                return null;
+            }
+        }
+
+        StandardCacheEntryImpl newEntityEntry(String subclass, Object version, Serializable[] state) throws IOException {
+            try {
+                return (StandardCacheEntryImpl) entryConstructor.invoke(state, subclass, version);
+            } catch (Throwable e) {
+                throw new IOException("Cannot read the cache entry of " + subclass, e);
+            }
+        }
+
+        AbstractReadWriteAccess.Item newItem(Object value, Object version, long timestamp) throws IOException {
+            try {
+                return (AbstractReadWriteAccess.Item) itemConstructor.invoke(value, version, timestamp);
+            } catch (Throwable e) {
+                throw new IOException("Cannot read a cache item", e);
+            }
+        }
+
+        Object itemVersion(AbstractReadWriteAccess.Item item) throws IOException {
+            try {
+                return itemVersion.invoke(item);
+            } catch (Throwable e) {
+                throw new IOException("Cannot write a cache item", e);
+            }
+        }
+
+        long itemTimestamp(AbstractReadWriteAccess.Item item) throws IOException {
+            try {
+                return (long) itemTimestamp.invoke(item);
+            } catch (Throwable e) {
+                throw new IOException("Cannot write a cache item", e);
+            }
+        }
+    }
+}
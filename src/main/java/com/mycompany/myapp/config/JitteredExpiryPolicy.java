@@ -0,0 +1,62 @@
+package com.mycompany.myapp.config;
+
+import java.io.Serializable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.cache.expiry.Duration;
+import javax.cache.expiry.ExpiryPolicy;
+
+/**
+ * Expiry policy giving each written entry its own time to live, spread around the configured one, so that the entries loaded
+ * together do not all expire at the same moment.
+ * <p>
+ * Unlike {@link javax.cache.expiry.CreatedExpiryPolicy}, an update restarts the time to live of the entry, as the entry is then
+ * fresh again; this is what makes an early refresh of the entry useful.
+ */
+public class JitteredExpiryPolicy implements ExpiryPolicy, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long timeToLiveMillis;
+
+    private final double jitter;
+
+    /**
+     * @param timeToLive the average time to live of the entries.
+     * @param jitter the maximum relative deviation from the average time to live, between 0 and 1.
+     */
+    public JitteredExpiryPolicy(java.time.Duration timeToLive, double jitter) {
+        if (jitter < 0 || jitter >= 1) {
+            throw new IllegalArgumentException("The jitter must be between 0 and 1: " + jitter);
+        }
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.jitter = jitter;
+    }
+
+    /**
+     * @return the shortest time to live an entry can get, in milliseconds.
+     */
+    public long getMinimumTimeToLiveMillis() {
+        return Math.round(timeToLiveMillis * (1 - jitter));
+    }
+
+    @Override
+    public Duration getExpiryForCreation() {
+        return nextTimeToLive();
+    }
+
+    @Override
+    public Duration getExpiryForAccess() {
+        return null;
+    }
+
+    @Override
+    public Duration getExpiryForUpdate() {
+        return nextTimeToLive();
+    }
+
+    private Duration nextTimeToLive() {
+        double factor = jitter == 0 ? 1 : 1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        return new Duration(TimeUnit.MILLISECONDS, Math.max(1, Math.round(timeToLiveMillis * factor)));
+    }
+}
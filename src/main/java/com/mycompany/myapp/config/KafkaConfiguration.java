@@ -0,0 +1,14 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.broker.DeadLetterQueue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class KafkaConfiguration {
+
+    @Bean
+    public KafkaDeadLetterEndpoint kafkaDeadLetterEndpoint(DeadLetterQueue deadLetterQueue) {
+        return new KafkaDeadLetterEndpoint(deadLetterQueue);
+    }
+}
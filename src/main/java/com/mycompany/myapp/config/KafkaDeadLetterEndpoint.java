@@ -0,0 +1,37 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.broker.DeadLetterQueue;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * Management endpoint listing the last records of the dead letter topic of the {@code sse-topic} consumer, and replaying
+ * them on their original topic once the cause of their failure is fixed.
+ */
+@Endpoint(id = "kafkadlq")
+public class KafkaDeadLetterEndpoint {
+
+    static final int DEFAULT_LIMIT = 20;
+
+    static final int DEFAULT_REPLAY_MAX = 1000;
+
+    private final DeadLetterQueue deadLetterQueue;
+
+    public KafkaDeadLetterEndpoint(DeadLetterQueue deadLetterQueue) {
+        this.deadLetterQueue = deadLetterQueue;
+    }
+
+    @ReadOperation
+    public List<DeadLetterQueue.DeadLetter> deadLetters(@Nullable Integer limit) {
+        return deadLetterQueue.last(limit != null ? limit : DEFAULT_LIMIT);
+    }
+
+    @WriteOperation
+    public Map<String, Integer> replay(@Nullable Integer max) {
+        return Map.of("replayed", deadLetterQueue.replay(max != null ? max : DEFAULT_REPLAY_MAX));
+    }
+}
@@ -0,0 +1,144 @@
+package com.mycompany.myapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.BaseStatusListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Hibernate region factory adding an in-process near cache in front of each Redis entity region, following the
+ * {@link CacheRegionPolicy} of the region.
+ * <p>
+ * The instances keep their near caches coherent through a Redis pub/sub topic: each lock or removal of an entry publishes its
+ * key, and the other instances drop it. When the subscription is lost and restored, messages may have been missed, so all the near
+ * caches are dropped.
+ */
+public class NearCacheRegionFactory extends JCacheRegionFactory {
+
+    static final String INVALIDATION_TOPIC = "hibernate:near-cache:invalidations";
+
+    private static final Logger LOG = LoggerFactory.getLogger(NearCacheRegionFactory.class);
+
+    private final RedissonClient redissonClient;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final ConcurrentMap<String, NearCacheStorageAccess> regions = new ConcurrentHashMap<>();
+
+    private volatile RTopic topic;
+
+    private int messageListenerId;
+
+    private int statusListenerId;
+
+    public NearCacheRegionFactory(
+        RedissonClient redissonClient,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties,
+        JHipsterProperties jHipsterProperties
+    ) {
+        this.redissonClient = redissonClient;
+        this.meterRegistry = meterRegistry;
+        this.applicationProperties = applicationProperties;
+        this.jHipsterProperties = jHipsterProperties;
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        super.prepareForUse(settings, configValues);
+        topic = redissonClient.getTopic(INVALIDATION_TOPIC);
+        messageListenerId = topic.addListener(Invalidation.class, (channel, invalidation) -> onInvalidation(invalidation));
+        statusListenerId = topic.addListener(
+            new BaseStatusListener() {
+                @Override
+                public void onSubscribe(String channel) {
+                    LOG.debug("Subscribed to {}, dropping the near caches", channel);
+                    regions.values().forEach(NearCacheStorageAccess::invalidateAllLocally);
+                }
+            }
+        );
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        if (topic != null) {
+            topic.removeListener(messageListenerId, statusListenerId);
+        }
+        regions.clear();
+        super.releaseFromUse();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(
+        DomainDataRegionConfig regionConfig,
+        DomainDataRegionBuildingContext buildingContext
+    ) {
+        String regionName = regionConfig.getRegionName();
+        CacheRegionPolicy policy = CacheRegionPolicy.of(regionName, applicationProperties, jHipsterProperties);
+        ApplicationProperties.CacheExpiry cacheExpiry = applicationProperties.getCacheExpiry();
+        EarlyRefreshPolicy earlyRefreshPolicy = new EarlyRefreshPolicy(
+            new JitteredExpiryPolicy(policy.timeToLive(), cacheExpiry.getJitter()).getMinimumTimeToLiveMillis(),
+            cacheExpiry.getRecomputeTime().toMillis(),
+            cacheExpiry.getEarlyRefreshBeta()
+        );
+        NearCacheStorageAccess storageAccess = new NearCacheStorageAccess(
+            super.createDomainDataStorageAccess(regionConfig, buildingContext),
+            policy,
+            key -> publish(regionName, key),
+            earlyRefreshPolicy,
+            meterRegistry
+        );
+        regions.put(regionName, storageAccess);
+        return storageAccess;
+    }
+
+    /**
+     * @param limit the maximum number of keys by region.
+     * @return the keys read the most often recently in each region, the hottest first.
+     */
+    public Map<String, List<Object>> hottestKeys(int limit) {
+        Map<String, List<Object>> hottestKeys = new TreeMap<>();
+        regions.forEach((regionName, storageAccess) -> hottestKeys.put(regionName, storageAccess.hottestKeys(limit)));
+        return hottestKeys;
+    }
+
+    private void publish(String regionName, Object key) {
+        topic.publishAsync(new Invalidation(instanceId, regionName, key));
+    }
+
+    private void onInvalidation(Invalidation invalidation) {
+        if (instanceId.equals(invalidation.origin())) {
+            return;
+        }
+        NearCacheStorageAccess storageAccess = regions.get(invalidation.region());
+        if (storageAccess != null) {
+            storageAccess.invalidateLocally(invalidation.key());
+        }
+    }
+
+    /**
+     * Message announcing that an entry, or a whole region if the key is {@code null}, was changed by an instance.
+     */
+    record Invalidation(String origin, String region, Object key) implements Serializable {}
+}
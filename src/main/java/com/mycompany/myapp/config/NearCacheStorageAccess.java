@@ -0,0 +1,290 @@
+package com.mycompany.myapp.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.cache.spi.support.AbstractReadWriteAccess;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.SimpleTimestamper;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Storage of a Hibernate second level cache region, reading from a bounded in-process cache (L1) before the Redis cache (L2).
+ * <p>
+ * Every write goes to both tiers. The L1 never holds the soft locks of the read-write concurrency strategy, which are always
+ * read from the L2. A lock, a removal and a clear are announced to the other instances, so that they drop their L1 copy of the
+ * entry. The other writes are not: an update locks its entry first, so the other instances drop their copy when the lock is
+ * announced, and an entry loaded after a miss is the one they would read anyway. Until the announcement is received, an
+ * instance may still read its stale L1 copy, and Hibernate may check a write against it: an entry is not written over a lock
+ * of the L2 while the L1 has a copy of it, as the check did not see the lock.
+ * <p>
+ * A read of an entry close to its expiration may be turned into a miss by the {@link EarlyRefreshPolicy}, so that Hibernate
+ * loads the entity again and writes it back with a new time to live. Only one thread of the instance refreshes a given entry:
+ * the other readers keep getting the cached one meanwhile. An L1 copy due for a refresh is read again from the L2 first, as
+ * another instance may have refreshed it already.
+ * <p>
+ * When the near cache is disabled for the region, the reads go straight to Redis, but the early refresh and the tracking of
+ * the hottest keys remain.
+ */
+class NearCacheStorageAccess implements DomainDataStorageAccess {
+
+    private final String regionName;
+
+    private final DomainDataStorageAccess l2;
+
+    /**
+     * The in-process cache, {@code null} if the near cache is disabled for the region.
+     */
+    private final Cache<Object, Object> l1;
+
+    /**
+     * Number of reads of the keys recently read. The cache is bounded, and its admission policy keeps the frequently read keys.
+     */
+    private final Cache<Object, LongAdder> reads;
+
+    private final Consumer<Object> invalidationPublisher;
+
+    private final EarlyRefreshPolicy earlyRefreshPolicy;
+
+    /**
+     * Thread reloading each entry refreshed early. An entry whose reload failed can be refreshed again after a while.
+     */
+    private final Map<Object, Thread> refreshingThreads = Caffeine.newBuilder()
+        .expireAfterWrite(Duration.ofSeconds(10))
+        .<Object, Thread>build()
+        .asMap();
+
+    private final Counter l1Hits;
+
+    private final Counter l1Misses;
+
+    private final Counter l2Hits;
+
+    private final Counter l2Misses;
+
+    private final Counter remoteInvalidations;
+
+    private final Counter earlyRefreshes;
+
+    /**
+     * @param l2 the storage of the region in Redis.
+     * @param policy the policy of the region.
+     * @param invalidationPublisher publishes to the other instances the key of a changed entry, or {@code null} when the
+     * whole region is cleared.
+     * @param earlyRefreshPolicy decides when an entry is reloaded before it expires.
+     * @param meterRegistry the registry of the metrics of the region.
+     */
+    NearCacheStorageAccess(
+        DomainDataStorageAccess l2,
+        CacheRegionPolicy policy,
+        Consumer<Object> invalidationPublisher,
+        EarlyRefreshPolicy earlyRefreshPolicy,
+        MeterRegistry meterRegistry
+    ) {
+        this.regionName = policy.regionName();
+        this.l2 = l2;
+        this.l1 = policy.nearCache()
+            ? Caffeine.newBuilder().maximumSize(policy.nearCacheMaximumSize()).expireAfterWrite(policy.nearCacheExpireAfterWrite()).build()
+            : null;
+        this.reads = Caffeine.newBuilder().maximumSize(policy.hotKeysTracked()).build();
+        this.invalidationPublisher = invalidationPublisher;
+        this.earlyRefreshPolicy = earlyRefreshPolicy;
+        this.l1Hits = getsCounter(meterRegistry, "l1", "hit");
+        this.l1Misses = getsCounter(meterRegistry, "l1", "miss");
+        this.l2Hits = getsCounter(meterRegistry, "l2", "hit");
+        this.l2Misses = getsCounter(meterRegistry, "l2", "miss");
+        this.remoteInvalidations = Counter.builder("cache.near.invalidations")
+            .description("Entries or regions of the in-process cache dropped because another instance changed them")
+            .tag("region", regionName)
+            .register(meterRegistry);
+        this.earlyRefreshes = Counter.builder("cache.near.early.refreshes")
+            .description("Entries reloaded from the database before they expire")
+            .tag("region", regionName)
+            .register(meterRegistry);
+        if (l1 != null) {
+            Gauge.builder("cache.near.size", l1, Cache::estimatedSize)
+                .description("Number of entries in the in-process cache")
+                .tag("region", regionName)
+                .register(meterRegistry);
+        }
+    }
+
+    private Counter getsCounter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("cache.near.gets")
+            .description("Reads of the second level cache, by tier")
+            .tag("region", regionName)
+            .tag("tier", tier)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        if (refreshingThreads.get(key) == Thread.currentThread()) {
+            // Hibernate checks that the entry can be written back
+            return null;
+        }
+        reads.get(key, k -> new LongAdder()).increment();
+        Object value = l1 != null ? l1.getIfPresent(key) : null;
+        if (value != null) {
+            l1Hits.increment();
+            if (shouldRefresh(value)) {
+                // Another instance may have refreshed it already, without announcing it
+                value = getFromL2(key, session);
+            }
+        } else {
+            if (l1 != null) {
+                l1Misses.increment();
+            }
+            value = getFromL2(key, session);
+        }
+        if (value != null && shouldRefresh(value) && refreshingThreads.putIfAbsent(key, Thread.currentThread()) == null) {
+            earlyRefreshes.increment();
+            return null;
+        }
+        return value;
+    }
+
+    private Object getFromL2(Object key, SharedSessionContractImplementor session) {
+        Object value = l2.getFromCache(key, session);
+        if (value != null) {
+            l2Hits.increment();
+            putLocally(key, value);
+        } else {
+            l2Misses.increment();
+            dropLocally(key);
+        }
+        return value;
+    }
+
+    private boolean shouldRefresh(Object value) {
+        if (!(value instanceof AbstractReadWriteAccess.Item item) || HibernateCacheCodec.HIBERNATE_MEMBERS == null) {
+            return false;
+        }
+        long writtenAt;
+        try {
+            writtenAt = HibernateCacheCodec.HIBERNATE_MEMBERS.itemTimestamp(item) / SimpleTimestamper.ONE_MS;
+        } catch (IOException e) {
+            return false;
+        }
+        return earlyRefreshPolicy.shouldRefresh(System.currentTimeMillis() - writtenAt);
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        refreshingThreads.remove(key);
+        if (
+            !(value instanceof SoftLock) && l1 != null && l1.getIfPresent(key) != null && l2.getFromCache(key, session) instanceof SoftLock
+        ) {
+            // Checked against a stale L1 copy, whose invalidation is not received yet
+            dropLocally(key);
+            return;
+        }
+        l2.putIntoCache(key, value, session);
+        putLocally(key, value);
+        if (value instanceof SoftLock) {
+            invalidationPublisher.accept(key);
+        }
+    }
+
+    @Override
+    public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+        l2.removeFromCache(key, session);
+        dropLocally(key);
+        refreshingThreads.remove(key);
+        invalidationPublisher.accept(key);
+    }
+
+    @Override
+    public void clearCache(SharedSessionContractImplementor session) {
+        l2.clearCache(session);
+        dropLocally(null);
+        invalidationPublisher.accept(null);
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return (l1 != null && l1.getIfPresent(key) != null) || l2.contains(key);
+    }
+
+    @Override
+    public void evictData() {
+        l2.evictData();
+        dropLocally(null);
+        invalidationPublisher.accept(null);
+    }
+
+    @Override
+    public void evictData(Object key) {
+        l2.evictData(key);
+        dropLocally(key);
+        invalidationPublisher.accept(key);
+    }
+
+    @Override
+    public void release() {
+        dropLocally(null);
+        l2.release();
+    }
+
+    /**
+     * Drop an entry changed by another instance from the L1.
+     *
+     * @param key the key of the entry, or {@code null} to drop the whole region.
+     */
+    void invalidateLocally(Object key) {
+        dropLocally(key);
+        remoteInvalidations.increment();
+    }
+
+    /**
+     * Drop the whole L1, when invalidation messages may have been missed.
+     */
+    void invalidateAllLocally() {
+        dropLocally(null);
+    }
+
+    /**
+     * @param limit the maximum number of keys.
+     * @return the keys read the most often recently, the hottest first.
+     */
+    List<Object> hottestKeys(int limit) {
+        return reads
+            .asMap()
+            .entrySet()
+            .stream()
+            .sorted(Comparator.comparingLong((Map.Entry<Object, LongAdder> entry) -> entry.getValue().sum()).reversed())
+            .limit(limit)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+
+    private void putLocally(Object key, Object value) {
+        if (value instanceof SoftLock) {
+            dropLocally(key);
+        } else if (l1 != null) {
+            l1.put(key, value);
+        }
+    }
+
+    private void dropLocally(Object key) {
+        if (l1 == null) {
+            return;
+        }
+        if (key == null) {
+            l1.invalidateAll();
+        } else {
+            l1.invalidate(key);
+        }
+    }
+}
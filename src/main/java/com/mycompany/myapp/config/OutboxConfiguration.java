@@ -0,0 +1,20 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.service.OutboxRelay;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.messaging.SubscribableChannel;
+
+@Configuration
+public class OutboxConfiguration {
+
+    /**
+     * Channel receiving the records of the outbox binding acknowledged by Kafka, see the {@code record-metadata-channel}
+     * producer property of the binding.
+     */
+    @Bean(name = OutboxRelay.PUBLISHED_CHANNEL)
+    public SubscribableChannel outboxPublishedChannel() {
+        return new DirectChannel();
+    }
+}
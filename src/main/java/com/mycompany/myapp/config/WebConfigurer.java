@@ -3,6 +3,7 @@ package com.mycompany.myapp.config;
 import jakarta.servlet.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
 import org.springframework.boot.web.server.*;
 import org.springframework.boot.web.servlet.ServletContextInitializer;
 import org.springframework.context.annotation.Bean;
@@ -12,6 +13,7 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
+import org.xnio.Options;
 import tech.jhipster.config.JHipsterProperties;
 
 /**
@@ -53,4 +55,16 @@ public class WebConfigurer implements ServletContextInitializer {
         }
         return new CorsFilter(source);
     }
+
+    /**
+     * Ends the writes to a client which does not read its response, for example a stalled SSE client, after the SSE write
+     * timeout: the blocked write then fails, and releases its thread.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<UndertowServletWebServerFactory> undertowWriteTimeoutCustomizer(
+        ApplicationProperties applicationProperties
+    ) {
+        int writeTimeoutMillis = Math.toIntExact(applicationProperties.getSse().getWriteTimeout().toMillis());
+        return factory -> factory.addBuilderCustomizers(builder -> builder.setSocketOption(Options.WRITE_TIMEOUT, writeTimeoutMillis));
+    }
 }
@@ -0,0 +1,33 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.web.websocket.RealtimeWebSocketHandler;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import tech.jhipster.config.JHipsterProperties;
+
+@Configuration
+@EnableWebSocket
+public class WebsocketConfiguration implements WebSocketConfigurer {
+
+    private final RealtimeWebSocketHandler realtimeWebSocketHandler;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    public WebsocketConfiguration(RealtimeWebSocketHandler realtimeWebSocketHandler, JHipsterProperties jHipsterProperties) {
+        this.realtimeWebSocketHandler = realtimeWebSocketHandler;
+        this.jHipsterProperties = jHipsterProperties;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // The handshake is a request of the API: it is authenticated, and accepted from the origins allowed by CORS
+        List<String> allowedOrigins = Optional.ofNullable(jHipsterProperties.getCors().getAllowedOrigins()).orElse(List.of());
+        registry
+            .addHandler(realtimeWebSocketHandler, RealtimeWebSocketHandler.PATH)
+            .setAllowedOrigins(allowedOrigins.toArray(String[]::new));
+    }
+}
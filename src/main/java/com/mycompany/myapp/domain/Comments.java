@@ -20,7 +20,8 @@ public class Comments implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "commentsSequenceGenerator")
+    @SequenceGenerator(name = "commentsSequenceGenerator", sequenceName = "comments_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
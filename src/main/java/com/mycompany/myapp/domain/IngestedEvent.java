@@ -0,0 +1,82 @@
+package com.mycompany.myapp.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+import org.hibernate.annotations.Immutable;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * An event of another service which was ingested by {@code IngestConsumer}, so that a redelivered event is not ingested again.
+ * <p>
+ * The rows are only ever inserted, in the transaction which saves the entity created by the event: the entity is always new
+ * for Spring Data, which persists it without reading it first, so that the inserts are batched.
+ */
+@Entity
+@Immutable
+@Table(name = "ingested_event")
+public class IngestedEvent implements Persistable<IngestedEventId>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @EmbeddedId
+    private IngestedEventId id;
+
+    @Column(name = "ingested_at", nullable = false)
+    private Instant ingestedAt;
+
+    public IngestedEvent() {}
+
+    public IngestedEvent(IngestedEventId id, Instant ingestedAt) {
+        this.id = id;
+        this.ingestedAt = ingestedAt;
+    }
+
+    @Override
+    public IngestedEventId getId() {
+        return this.id;
+    }
+
+    public void setId(IngestedEventId id) {
+        this.id = id;
+    }
+
+    public Instant getIngestedAt() {
+        return this.ingestedAt;
+    }
+
+    public void setIngestedAt(Instant ingestedAt) {
+        this.ingestedAt = ingestedAt;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IngestedEvent)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((IngestedEvent) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "IngestedEvent{" +
+            "id=" + getId() +
+            ", ingestedAt='" + getIngestedAt() + "'" +
+            "}";
+    }
+}
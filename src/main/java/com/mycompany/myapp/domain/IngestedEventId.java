@@ -0,0 +1,61 @@
+package com.mycompany.myapp.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Identifier of an {@link IngestedEvent}: the entity of the producing service the event created.
+ */
+@Embeddable
+public class IngestedEventId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "source_entity", length = 64, nullable = false)
+    private String sourceEntity;
+
+    @Column(name = "source_id", nullable = false)
+    private Long sourceId;
+
+    public IngestedEventId() {}
+
+    public IngestedEventId(String sourceEntity, Long sourceId) {
+        this.sourceEntity = sourceEntity;
+        this.sourceId = sourceId;
+    }
+
+    public String getSourceEntity() {
+        return sourceEntity;
+    }
+
+    public Long getSourceId() {
+        return sourceId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IngestedEventId)) {
+            return false;
+        }
+        IngestedEventId that = (IngestedEventId) o;
+        return Objects.equals(sourceEntity, that.sourceEntity) && Objects.equals(sourceId, that.sourceId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sourceEntity, sourceId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "IngestedEventId{" +
+            "sourceEntity='" + getSourceEntity() + "'" +
+            ", sourceId=" + getSourceId() +
+            "}";
+    }
+}
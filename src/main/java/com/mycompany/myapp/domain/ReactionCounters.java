@@ -0,0 +1,68 @@
+package com.mycompany.myapp.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * The number of {@link Reactions} of each type on a post or on a comment.
+ * <p>
+ * The rows are maintained by {@code ReactionsService}, in the transaction which writes the reaction, with atomic
+ * upserts: the entity is read only from the JPA point of view, and is not put in the second level cache as it
+ * changes on every reaction.
+ */
+@Entity
+@Immutable
+@Table(name = "reaction_counters")
+public class ReactionCounters implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @EmbeddedId
+    private ReactionCountersId id;
+
+    @Column(name = "reaction_count", nullable = false)
+    private Long reactionCount;
+
+    public ReactionCountersId getId() {
+        return this.id;
+    }
+
+    public void setId(ReactionCountersId id) {
+        this.id = id;
+    }
+
+    public Long getReactionCount() {
+        return this.reactionCount;
+    }
+
+    public void setReactionCount(Long reactionCount) {
+        this.reactionCount = reactionCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReactionCounters)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((ReactionCounters) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReactionCounters{" +
+            "id=" + getId() +
+            ", reactionCount=" + getReactionCount() +
+            "}";
+    }
+}
@@ -0,0 +1,74 @@
+package com.mycompany.myapp.domain;
+
+import com.mycompany.myapp.domain.enumeration.ReactionTargetType;
+import com.mycompany.myapp.domain.enumeration.ReactionType;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Identifier of a {@link ReactionCounters} row: one counter per target and per {@link ReactionType}.
+ */
+@Embeddable
+public class ReactionCountersId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_type", nullable = false)
+    private ReactionTargetType targetType;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reaction_type", nullable = false)
+    private ReactionType reactionType;
+
+    public ReactionCountersId() {}
+
+    public ReactionCountersId(ReactionTargetType targetType, Long targetId, ReactionType reactionType) {
+        this.targetType = targetType;
+        this.targetId = targetId;
+        this.reactionType = reactionType;
+    }
+
+    public ReactionTargetType getTargetType() {
+        return targetType;
+    }
+
+    public Long getTargetId() {
+        return targetId;
+    }
+
+    public ReactionType getReactionType() {
+        return reactionType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReactionCountersId)) {
+            return false;
+        }
+        ReactionCountersId that = (ReactionCountersId) o;
+        return targetType == that.targetType && Objects.equals(targetId, that.targetId) && reactionType == that.reactionType;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(targetType, targetId, reactionType);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReactionCountersId{" +
+            "targetType='" + getTargetType() + "'" +
+            ", targetId=" + getTargetId() +
+            ", reactionType='" + getReactionType() + "'" +
+            "}";
+    }
+}
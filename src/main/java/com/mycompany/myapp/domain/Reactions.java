@@ -20,7 +20,8 @@ public class Reactions implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reactionsSequenceGenerator")
+    @SequenceGenerator(name = "reactionsSequenceGenerator", sequenceName = "reactions_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -0,0 +1,10 @@
+package com.mycompany.myapp.domain.enumeration;
+
+/**
+ * The kind of change recorded by an outbox event.
+ */
+public enum OutboxEventType {
+    CREATED,
+    UPDATED,
+    DELETED,
+}
@@ -0,0 +1,9 @@
+package com.mycompany.myapp.domain.enumeration;
+
+/**
+ * The kind of entity a reaction is attached to.
+ */
+public enum ReactionTargetType {
+    POST,
+    COMMENT,
+}
@@ -0,0 +1,20 @@
+package com.mycompany.myapp.repository;
+
+import java.util.List;
+
+/**
+ * Repository fragment loading several entities by id, from the second level cache first.
+ */
+public interface CacheAwareLoadingRepository {
+    /**
+     * Load the entities with the given ids: the ones in the persistence context or in the second level cache are not
+     * read from the database, and the others are read with a single {@code IN} query.
+     *
+     * @param domainClass the class of the entities.
+     * @param ids the ids of the entities, without duplicates.
+     * @param <T> the type of the entities.
+     * @param <ID> the type of the ids.
+     * @return the entities, in the order of {@code ids}, with {@code null} for the ids which do not exist.
+     */
+    <T, ID> List<T> multiLoad(Class<T> domainClass, List<ID> ids);
+}
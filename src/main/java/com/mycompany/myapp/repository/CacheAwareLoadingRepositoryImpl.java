@@ -0,0 +1,29 @@
+package com.mycompany.myapp.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.List;
+import org.hibernate.Session;
+
+/**
+ * Utility repository to load several entities by id through the Hibernate multi load API.
+ */
+public class CacheAwareLoadingRepositoryImpl implements CacheAwareLoadingRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public <T, ID> List<T> multiLoad(Class<T> domainClass, List<ID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager
+            .unwrap(Session.class)
+            .byMultipleIds(domainClass)
+            .enableOrderedReturn(true)
+            .enableSessionCheck(true)
+            .withBatchSize(ids.size())
+            .multiLoad(ids);
+    }
+}
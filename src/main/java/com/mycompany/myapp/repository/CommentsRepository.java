@@ -9,4 +9,12 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface CommentsRepository extends JpaRepository<Comments, Long>, JpaSpecificationExecutor<Comments> {}
+public interface CommentsRepository
+    extends
+        CacheAwareLoadingRepository,
+        CommentsRepositoryWithTree,
+        CountFreePagingRepository,
+        JdbcBatchingRepository,
+        StreamingRepository,
+        JpaRepository<Comments, Long>,
+        JpaSpecificationExecutor<Comments> {}
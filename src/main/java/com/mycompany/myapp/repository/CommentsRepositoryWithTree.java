@@ -0,0 +1,34 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Comments;
+import java.util.List;
+
+/**
+ * Repository fragment reading the comment threads of a post with a single recursive query.
+ */
+public interface CommentsRepositoryWithTree {
+    /**
+     * Read the comments of a post and their replies, level by level, with a recursive common table expression.
+     * <p>
+     * Only the first {@code maxReplies} replies of each comment (and top level comments of the post) are kept, by creation
+     * date; the replies of a dropped comment are dropped too. The comments are managed entities: their lazy associations are
+     * not initialized, but the ids of their post and parent comment can be read.
+     *
+     * @param postId the id of the post.
+     * @param maxDepth the depth of the deepest replies, {@code 0} for the top level comments only.
+     * @param maxReplies the maximum number of replies kept for each comment.
+     * @param maxNodes the maximum number of comments read from the thread, before the fan-out limit: the recursion stops once
+     * it has read them, so the deepest ones are dropped first.
+     * @return the comments, ordered by depth, then creation date, then id.
+     */
+    List<CommentTreeRow> findTreeOfPost(Long postId, int maxDepth, int maxReplies, int maxNodes);
+
+    /**
+     * A comment of a thread.
+     *
+     * @param comment the comment.
+     * @param depth the depth of the comment, {@code 0} for the top level comments.
+     * @param replyCount the total number of replies to the comment, including the ones which are not read.
+     */
+    record CommentTreeRow(Comments comment, int depth, long replyCount) {}
+}
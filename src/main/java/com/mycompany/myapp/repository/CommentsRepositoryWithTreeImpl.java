@@ -0,0 +1,76 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Comments;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Utility repository to read the comment threads of a post with a MySQL {@code WITH RECURSIVE} query.
+ */
+public class CommentsRepositoryWithTreeImpl implements CommentsRepositoryWithTree {
+
+    /**
+     * The recursive part walks down the {@code parent_comment_id} index, one level per iteration, up to the maximum depth. Its
+     * {@code LIMIT} stops the recursion once it has produced {@code maxNodes} comments, so a large thread is not expanded
+     * beyond them: as MySQL runs one level per iteration, the deepest comments are the ones not read. MySQL does not allow
+     * window functions there, so the fan-out limit is applied on the read comments, by ranking the replies of each comment;
+     * the top level comments are limited by the anchor part already. The reply counts are read from the same index, for the
+     * kept comments only.
+     */
+    private static final String TREE_QUERY =
+        """
+        WITH RECURSIVE thread (id, depth) AS (
+            (
+                SELECT c.id, 0 FROM comments c WHERE c.post_id = :postId AND c.parent_comment_id IS NULL
+                ORDER BY c.created_at, c.id
+                LIMIT :maxReplies
+            )
+            UNION ALL
+            SELECT r.id, t.depth + 1 FROM thread t JOIN comments r ON r.parent_comment_id = t.id WHERE t.depth < :maxDepth
+            LIMIT :maxNodes
+        )
+        SELECT ranked.*, (SELECT COUNT(*) FROM comments r WHERE r.parent_comment_id = ranked.id) AS reply_count FROM (
+            SELECT c.*, t.depth, ROW_NUMBER() OVER (PARTITION BY c.parent_comment_id ORDER BY c.created_at, c.id) AS reply_rank
+            FROM thread t JOIN comments c ON c.id = t.id
+        ) ranked
+        WHERE ranked.reply_rank <= :maxReplies
+        ORDER BY ranked.depth, ranked.created_at, ranked.id
+        """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<CommentTreeRow> findTreeOfPost(Long postId, int maxDepth, int maxReplies, int maxNodes) {
+        List<Object[]> rows = entityManager
+            .createNativeQuery(TREE_QUERY)
+            .unwrap(NativeQuery.class)
+            .addEntity(Comments.class)
+            .addScalar("depth", StandardBasicTypes.INTEGER)
+            .addScalar("reply_count", StandardBasicTypes.LONG)
+            .setParameter("postId", postId)
+            .setParameter("maxDepth", maxDepth)
+            .setParameter("maxReplies", maxReplies)
+            .setParameter("maxNodes", maxNodes)
+            .getResultList();
+        // The rows are ordered by depth: a reply is kept only if its parent was kept
+        Set<Long> keptIds = new HashSet<>();
+        List<CommentTreeRow> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Comments comment = (Comments) row[0];
+            int depth = (Integer) row[1];
+            if (depth == 0 || keptIds.contains(comment.getParentComment().getId())) {
+                keptIds.add(comment.getId());
+                result.add(new CommentTreeRow(comment, depth, (Long) row[2]));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,31 @@
+package com.mycompany.myapp.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+/**
+ * Repository fragment paginating without the count query of {@link JpaSpecificationExecutor#findAll(Specification, Pageable)}.
+ */
+public interface CountFreePagingRepository {
+    /**
+     * Read a page of the entities matching a specification, and whether there is a next page, by reading one more entity.
+     *
+     * @param domainClass the class of the entities.
+     * @param specification the specification the entities should match.
+     * @param pageable the page to read, with its sort.
+     * @param <T> the type of the entities.
+     * @return the slice of entities.
+     */
+    <T> Slice<T> findSlice(Class<T> domainClass, Specification<T> specification, Pageable pageable);
+
+    /**
+     * Estimate the number of rows of the table of an entity from the statistics of the optimizer, without reading them.
+     * The estimate is refreshed by InnoDB when about a tenth of the table changed, and can be off by a few tens of percents.
+     *
+     * @param domainClass the class of the entities, annotated with {@link jakarta.persistence.Table}.
+     * @return the estimated number of rows.
+     */
+    long estimateCount(Class<?> domainClass);
+}
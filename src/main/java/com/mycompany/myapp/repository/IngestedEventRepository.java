@@ -0,0 +1,24 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.IngestedEvent;
+import com.mycompany.myapp.domain.IngestedEventId;
+import java.util.Collection;
+import java.util.Set;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the IngestedEvent entity.
+ */
+@Repository
+public interface IngestedEventRepository extends JpaRepository<IngestedEvent, IngestedEventId> {
+    /**
+     * Find which of several entities of a producing service were already ingested, with a single query.
+     */
+    @Query(
+        "select ingestedEvent.id.sourceId from IngestedEvent ingestedEvent " +
+        "where ingestedEvent.id.sourceEntity = :sourceEntity and ingestedEvent.id.sourceId in :sourceIds"
+    )
+    Set<Long> findIngestedSourceIds(@Param("sourceEntity") String sourceEntity, @Param("sourceIds") Collection<Long> sourceIds);
+}
@@ -0,0 +1,18 @@
+package com.mycompany.myapp.repository;
+
+import java.util.function.Supplier;
+
+/**
+ * Repository fragment running bulk writes with a larger JDBC batch size than the default {@code hibernate.jdbc.batch_size}.
+ */
+public interface JdbcBatchingRepository {
+    /**
+     * Run some writes, then flush them with the given JDBC batch size.
+     *
+     * @param batchSize the number of statements sent in one JDBC batch.
+     * @param work the writes.
+     * @param <R> the type of the result of the writes.
+     * @return the result of the writes.
+     */
+    <R> R withJdbcBatchSize(int batchSize, Supplier<R> work);
+}
@@ -0,0 +1,29 @@
+package com.mycompany.myapp.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.function.Supplier;
+import org.hibernate.Session;
+
+/**
+ * Utility repository setting the JDBC batch size of the current session around some writes.
+ */
+public class JdbcBatchingRepositoryImpl implements JdbcBatchingRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public <R> R withJdbcBatchSize(int batchSize, Supplier<R> work) {
+        Session session = entityManager.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+        try {
+            R result = work.get();
+            session.flush();
+            return result;
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+    }
+}
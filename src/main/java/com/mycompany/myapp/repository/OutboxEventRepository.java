@@ -0,0 +1,30 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.OutboxEvent;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the OutboxEvent entity.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * Lock the oldest events which were never dispatched, or whose dispatch was not confirmed in time. The rows locked by
+     * another instance of the relay are skipped, so that several instances can drain the outbox concurrently.
+     */
+    @Query(
+        value = "SELECT * FROM outbox_event WHERE dispatched_at IS NULL OR dispatched_at < :redeliverBefore " +
+        "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+        nativeQuery = true
+    )
+    List<OutboxEvent> lockNextBatch(@Param("redeliverBefore") Instant redeliverBefore, @Param("limit") int limit);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update OutboxEvent outboxEvent set outboxEvent.dispatchedAt = :dispatchedAt where outboxEvent.id in :ids")
+    int markDispatched(@Param("ids") Collection<Long> ids, @Param("dispatchedAt") Instant dispatchedAt);
+}
@@ -9,4 +9,10 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface PostsRepository extends JpaRepository<Posts, Long>, JpaSpecificationExecutor<Posts> {}
+public interface PostsRepository
+    extends
+        CacheAwareLoadingRepository,
+        CountFreePagingRepository,
+        StreamingRepository,
+        JpaRepository<Posts, Long>,
+        JpaSpecificationExecutor<Posts> {}
@@ -0,0 +1,64 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.ReactionCounters;
+import com.mycompany.myapp.domain.ReactionCountersId;
+import com.mycompany.myapp.domain.enumeration.ReactionTargetType;
+import com.mycompany.myapp.domain.enumeration.ReactionType;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the ReactionCounters entity.
+ */
+@Repository
+public interface ReactionCountersRepository extends JpaRepository<ReactionCounters, ReactionCountersId> {
+    /**
+     * Atomically add {@code delta} to a counter, creating it if needed. The counter never goes below zero.
+     * <p>
+     * The query space hint restricts the second level cache invalidation done by Hibernate for native updates to this table.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reaction_counters"))
+    @Query(
+        value = "INSERT INTO reaction_counters (target_type, target_id, reaction_type, reaction_count) " +
+        "VALUES (:targetType, :targetId, :reactionType, GREATEST(:delta, 0)) " +
+        "ON DUPLICATE KEY UPDATE reaction_count = GREATEST(reaction_count + :delta, 0)",
+        nativeQuery = true
+    )
+    int addToCount(
+        @Param("targetType") String targetType,
+        @Param("targetId") Long targetId,
+        @Param("reactionType") String reactionType,
+        @Param("delta") long delta
+    );
+
+    /**
+     * Read the counters of several targets. The values are projected, and not loaded as entities, so that they are never
+     * stale copies from the persistence context after an {@link #addToCount} in the same transaction.
+     */
+    @Query(
+        "select reactionCounters.id.targetId as targetId, reactionCounters.id.reactionType as reactionType, " +
+        "reactionCounters.reactionCount as reactionCount from ReactionCounters reactionCounters " +
+        "where reactionCounters.id.targetType = :targetType and reactionCounters.id.targetId in :targetIds"
+    )
+    List<TargetCount> findAllByTargets(
+        @Param("targetType") ReactionTargetType targetType,
+        @Param("targetIds") Collection<Long> targetIds
+    );
+
+    /**
+     * The count of a reaction type on a target.
+     */
+    interface TargetCount {
+        Long getTargetId();
+
+        ReactionType getReactionType();
+
+        Long getReactionCount();
+    }
+}
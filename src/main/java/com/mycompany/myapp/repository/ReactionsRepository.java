@@ -9,4 +9,10 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ReactionsRepository extends JpaRepository<Reactions, Long>, JpaSpecificationExecutor<Reactions> {}
+public interface ReactionsRepository
+    extends
+        CacheAwareLoadingRepository,
+        CountFreePagingRepository,
+        JdbcBatchingRepository,
+        JpaRepository<Reactions, Long>,
+        JpaSpecificationExecutor<Reactions> {}
@@ -9,4 +9,5 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ReportedCommentsRepository extends JpaRepository<ReportedComments, Long>, JpaSpecificationExecutor<ReportedComments> {}
+public interface ReportedCommentsRepository
+    extends CountFreePagingRepository, JpaRepository<ReportedComments, Long>, JpaSpecificationExecutor<ReportedComments> {}
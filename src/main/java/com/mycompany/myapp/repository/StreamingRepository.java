@@ -0,0 +1,23 @@
+package com.mycompany.myapp.repository;
+
+import java.util.function.Consumer;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Repository fragment reading large result sets row by row, with a memory use which does not depend on the number of rows.
+ */
+public interface StreamingRepository {
+    /**
+     * Read the entities matching a specification, ordered by id, from a forward-only JDBC cursor.
+     * <p>
+     * The entities are read-only, bypass the second level cache, and are evicted from the persistence context as the rows
+     * are read: the action must not keep them, nor navigate their lazy associations other than reading their ids.
+     *
+     * @param domainClass the class of the entities.
+     * @param specification the specification the entities should match.
+     * @param action the action run for each entity.
+     * @param <T> the type of the entities.
+     * @return the number of read entities.
+     */
+    <T> long streamAll(Class<T> domainClass, Specification<T> specification, Consumer<? super T> action);
+}
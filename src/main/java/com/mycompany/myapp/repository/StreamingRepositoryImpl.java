@@ -0,0 +1,65 @@
+package com.mycompany.myapp.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.function.Consumer;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Utility repository streaming the results of a query from a MySQL server side cursor.
+ */
+public class StreamingRepositoryImpl implements StreamingRepository {
+
+    /**
+     * Fetch size making MySQL Connector/J stream the rows one by one, instead of reading the whole result set in memory.
+     */
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    /**
+     * Number of rows after which the persistence context is cleared, dropping the read entities and the proxies of their associations.
+     */
+    private static final int CLEAR_INTERVAL = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public <T> long streamAll(Class<T> domainClass, Specification<T> specification, Consumer<? super T> action) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = builder.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(builder.asc(root.get("id")));
+
+        Session session = entityManager.unwrap(Session.class);
+        long count = 0;
+        try (
+            ScrollableResults<T> results = session
+                .createQuery(query)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .setFetchSize(STREAMING_FETCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY)
+        ) {
+            while (results.next()) {
+                action.accept(results.get());
+                if (++count % CLEAR_INTERVAL == 0) {
+                    session.clear();
+                }
+            }
+        }
+        session.clear();
+        return count;
+    }
+}
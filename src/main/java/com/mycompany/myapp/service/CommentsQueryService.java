@@ -4,13 +4,21 @@ import com.mycompany.myapp.domain.*; // for static metamodels
 import com.mycompany.myapp.domain.Comments;
 import com.mycompany.myapp.repository.CommentsRepository;
 import com.mycompany.myapp.service.criteria.CommentsCriteria;
+import com.mycompany.myapp.service.criteria.KeysetCursor;
 import com.mycompany.myapp.service.dto.CommentsDTO;
 import com.mycompany.myapp.service.mapper.CommentsMapper;
 import jakarta.persistence.criteria.JoinType;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,6 +34,11 @@ import tech.jhipster.service.QueryService;
 @Transactional(readOnly = true)
 public class CommentsQueryService extends QueryService<Comments> {
 
+    /**
+     * Cache of the total counts requested with {@code count=cached}, by criteria; it expires after a short time.
+     */
+    public static final String COUNT_CACHE = "commentsCount";
+
     private static final Logger LOG = LoggerFactory.getLogger(CommentsQueryService.class);
 
     private final CommentsRepository commentsRepository;
@@ -50,6 +63,60 @@ public class CommentsQueryService extends QueryService<Comments> {
         return commentsRepository.findAll(specification, page).map(commentsMapper::toDto);
     }
 
+    /**
+     * Return a {@link Slice} of {@link CommentsDTO} which matches the criteria from the database, using keyset pagination.
+     * The entities are ordered by {@link KeysetCursor#SORT} and only the ones located after the cursor are returned,
+     * so that no offset rows are scanned and no count query is executed.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The position after which the entities should be returned, or {@code null} for the first page.
+     * @param size The maximum number of entities to return.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<CommentsDTO> findByCriteria(CommentsCriteria criteria, KeysetCursor cursor, int size) {
+        LOG.debug("find by criteria : {}, cursor: {}, size: {}", criteria, cursor, size);
+        Specification<Comments> specification = createSpecification(criteria);
+        if (cursor != null) {
+            specification = specification.and(cursor.toSpecification(Comments_.createdAt, Comments_.id));
+        }
+        List<Comments> comments = commentsRepository.findBy(specification, query -> query.sortBy(KeysetCursor.SORT).limit(size + 1).all());
+        boolean hasNext = comments.size() > size;
+        return new SliceImpl<>(
+            commentsMapper.toDto(hasNext ? comments.subList(0, size) : comments),
+            PageRequest.of(0, size, KeysetCursor.SORT),
+            hasNext
+        );
+    }
+
+    /**
+     * Stream the {@link CommentsDTO}s which match the criteria from the database, ordered by id.
+     * The rows are read from a forward-only cursor and the entities are evicted as they are read,
+     * so that the memory use does not depend on the number of matching entities.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param action The action run for each matching entity.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long exportByCriteria(CommentsCriteria criteria, Consumer<CommentsDTO> action) {
+        LOG.debug("export by criteria : {}", criteria);
+        final Specification<Comments> specification = createSpecification(criteria);
+        return commentsRepository.streamAll(Comments.class, specification, comments -> action.accept(commentsMapper.toDto(comments)));
+    }
+
+    /**
+     * Return a {@link Slice} of {@link CommentsDTO} which matches the criteria from the database, without counting them.
+     * One more entity than the page size is read, to know whether there is a next page.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<CommentsDTO> findSliceByCriteria(CommentsCriteria criteria, Pageable page) {
+        LOG.debug("find slice by criteria : {}, page: {}", criteria, page);
+        final Specification<Comments> specification = createSpecification(criteria);
+        return commentsRepository.findSlice(Comments.class, specification, page).map(commentsMapper::toDto);
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -62,6 +129,32 @@ public class CommentsQueryService extends QueryService<Comments> {
         return commentsRepository.count(specification);
     }
 
+    /**
+     * Return the number of matching entities in the database, memoized for a short time in the {@value #COUNT_CACHE} cache.
+     * The key is the normalized criteria: the filters which are not set are left out, and the others are always in the same
+     * order. The count can be stale by up to the time to live of the cache.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = COUNT_CACHE, key = "'' + #criteria")
+    public long countByCriteriaCached(CommentsCriteria criteria) {
+        return countByCriteria(criteria);
+    }
+
+    /**
+     * Estimate the number of matching entities from the statistics of the table, without reading it.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the estimated number of entities, or empty if the criteria have filters, as the statistics cannot account for them.
+     */
+    @Transactional(readOnly = true)
+    public OptionalLong estimateCountByCriteria(CommentsCriteria criteria) {
+        if (criteria != null && !criteria.equals(new CommentsCriteria())) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(commentsRepository.estimateCount(Comments.class));
+    }
+
     /**
      * Function to convert {@link CommentsCriteria} to a {@link Specification}
      * @param criteria The object which holds all the filters, which the entities should match.
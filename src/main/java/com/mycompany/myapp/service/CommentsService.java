@@ -1,9 +1,18 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.Comments;
+import com.mycompany.myapp.domain.enumeration.OutboxEventType;
 import com.mycompany.myapp.repository.CommentsRepository;
+import com.mycompany.myapp.repository.CommentsRepositoryWithTree.CommentTreeRow;
+import com.mycompany.myapp.service.dto.CommentTreeNodeDTO;
 import com.mycompany.myapp.service.dto.CommentsDTO;
 import com.mycompany.myapp.service.mapper.CommentsMapper;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +21,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service Implementation for managing {@link com.mycompany.myapp.domain.Comments}.
+ * <p>
+ * Every change is also recorded in the outbox, in the same transaction, to be published to Kafka.
  */
 @Service
 @Transactional
@@ -23,9 +34,22 @@ public class CommentsService {
 
     private final CommentsMapper commentsMapper;
 
-    public CommentsService(CommentsRepository commentsRepository, CommentsMapper commentsMapper) {
+    private final SingleFlight<Long, Optional<CommentsDTO>> findOneFlights = new SingleFlight<>();
+
+    private final OutboxService outboxService;
+
+    private final ApplicationProperties applicationProperties;
+
+    public CommentsService(
+        CommentsRepository commentsRepository,
+        CommentsMapper commentsMapper,
+        OutboxService outboxService,
+        ApplicationProperties applicationProperties
+    ) {
         this.commentsRepository = commentsRepository;
         this.commentsMapper = commentsMapper;
+        this.outboxService = outboxService;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -38,7 +62,25 @@ public class CommentsService {
         LOG.debug("Request to save Comments : {}", commentsDTO);
         Comments comments = commentsMapper.toEntity(commentsDTO);
         comments = commentsRepository.save(comments);
-        return commentsMapper.toDto(comments);
+        CommentsDTO result = commentsMapper.toDto(comments);
+        outboxService.record(Comments.class, result.getId(), OutboxEventType.CREATED, result);
+        return result;
+    }
+
+    /**
+     * Save several new comments, with batched inserts.
+     *
+     * @param commentsDTOs the entities to save.
+     * @return the persisted entities, in the same order.
+     */
+    public List<CommentsDTO> saveAll(List<CommentsDTO> commentsDTOs) {
+        LOG.debug("Request to save {} Comments", commentsDTOs.size());
+        return commentsRepository.withJdbcBatchSize(applicationProperties.getBatch().getBulkJdbcBatchSize(), () -> {
+            List<Comments> comments = commentsRepository.saveAll(commentsMapper.toEntity(commentsDTOs));
+            List<CommentsDTO> result = commentsMapper.toDto(comments);
+            result.forEach(dto -> outboxService.record(Comments.class, dto.getId(), OutboxEventType.CREATED, dto));
+            return result;
+        });
     }
 
     /**
@@ -51,7 +93,9 @@ public class CommentsService {
         LOG.debug("Request to update Comments : {}", commentsDTO);
         Comments comments = commentsMapper.toEntity(commentsDTO);
         comments = commentsRepository.save(comments);
-        return commentsMapper.toDto(comments);
+        CommentsDTO result = commentsMapper.toDto(comments);
+        outboxService.record(Comments.class, result.getId(), OutboxEventType.UPDATED, result);
+        return result;
     }
 
     /**
@@ -71,11 +115,17 @@ public class CommentsService {
                 return existingComments;
             })
             .map(commentsRepository::save)
-            .map(commentsMapper::toDto);
+            .map(commentsMapper::toDto)
+            .map(result -> {
+                outboxService.record(Comments.class, result.getId(), OutboxEventType.UPDATED, result);
+                return result;
+            });
     }
 
     /**
      * Get one comments by id.
+     * <p>
+     * Concurrent requests for the same id share one load, so that a miss of the second level cache hits the database once.
      *
      * @param id the id of the entity.
      * @return the entity.
@@ -83,7 +133,63 @@ public class CommentsService {
     @Transactional(readOnly = true)
     public Optional<CommentsDTO> findOne(Long id) {
         LOG.debug("Request to get Comments : {}", id);
-        return commentsRepository.findById(id).map(commentsMapper::toDto);
+        return findOneFlights.load(id, () -> commentsRepository.findById(id).map(commentsMapper::toDto));
+    }
+
+    /**
+     * Get several comments by id, with a single query for the ones which are not in the second level cache.
+     *
+     * @param ids the ids of the entities.
+     * @return the entities, in the order of {@code ids}, without the duplicated and the unknown ids.
+     */
+    @Transactional(readOnly = true)
+    public List<CommentsDTO> findAllByIds(List<Long> ids) {
+        LOG.debug("Request to get Comments : {}", ids);
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        return commentsRepository
+            .multiLoad(Comments.class, distinctIds)
+            .stream()
+            .filter(Objects::nonNull)
+            .map(commentsMapper::toDto)
+            .toList();
+    }
+
+    /**
+     * Get the comment threads of a post, read with a single recursive query.
+     *
+     * @param postId the id of the post.
+     * @param maxDepth the depth of the deepest replies, {@code 0} for the top level comments only.
+     * @param maxReplies the maximum number of replies of each comment, and of top level comments.
+     * @return the top level comments of the post, with their nested replies, ordered by creation date.
+     */
+    @Transactional(readOnly = true)
+    public List<CommentTreeNodeDTO> findTreeOfPost(Long postId, int maxDepth, int maxReplies) {
+        LOG.debug("Request to get the comment tree of Posts : {}, depth: {}, replies: {}", postId, maxDepth, maxReplies);
+        int maxNodes = applicationProperties.getCommentTree().getMaxNodes();
+        List<CommentTreeNodeDTO> roots = new ArrayList<>();
+        Map<Long, CommentTreeNodeDTO> nodes = new HashMap<>();
+        // The parents are read before their replies
+        for (CommentTreeRow row : commentsRepository.findTreeOfPost(postId, maxDepth, maxReplies, maxNodes)) {
+            CommentTreeNodeDTO node = toTreeNode(row);
+            nodes.put(node.getId(), node);
+            if (row.depth() == 0) {
+                roots.add(node);
+            } else {
+                nodes.get(row.comment().getParentComment().getId()).getReplies().add(node);
+            }
+        }
+        return roots;
+    }
+
+    private static CommentTreeNodeDTO toTreeNode(CommentTreeRow row) {
+        CommentTreeNodeDTO node = new CommentTreeNodeDTO();
+        node.setId(row.comment().getId());
+        node.setUserId(row.comment().getUserId());
+        node.setContent(row.comment().getContent());
+        node.setCreatedAt(row.comment().getCreatedAt());
+        node.setDepth(row.depth());
+        node.setReplyCount(row.replyCount());
+        return node;
     }
 
     /**
@@ -93,6 +199,12 @@ public class CommentsService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete Comments : {}", id);
-        commentsRepository.deleteById(id);
+        commentsRepository
+            .findById(id)
+            .ifPresent(comments -> {
+                // Recorded with its post, so that the event reaches the clients of the post
+                outboxService.record(Comments.class, id, OutboxEventType.DELETED, commentsMapper.toDto(comments));
+                commentsRepository.delete(comments);
+            });
     }
 }
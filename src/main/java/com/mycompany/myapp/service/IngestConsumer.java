@@ -0,0 +1,273 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mycompany.myapp.broker.EventEnvelope;
+import com.mycompany.myapp.broker.EventEnvelopeCodec;
+import com.mycompany.myapp.domain.Comments;
+import com.mycompany.myapp.domain.IngestedEvent;
+import com.mycompany.myapp.domain.IngestedEventId;
+import com.mycompany.myapp.domain.Reactions;
+import com.mycompany.myapp.domain.enumeration.OutboxEventType;
+import com.mycompany.myapp.repository.IngestedEventRepository;
+import com.mycompany.myapp.service.dto.CommentsDTO;
+import com.mycompany.myapp.service.dto.ReactionsDTO;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Batch consumer of the reactions and comments created by other services, read from the {@value #BINDING_NAME} binding.
+ * <p>
+ * The binding is in batch mode: each call receives the records of one poll, as {@link EventEnvelope}s of
+ * {@code CREATED} events. Their entities are saved together, in a single transaction, with the bulk writes of
+ * {@link ReactionsService#saveAll(List)} and {@link CommentsService#saveAll(List)}. The offsets of the poll are committed
+ * once this consumer returns, so only after the transaction is committed: if it fails, the exception is thrown back to the
+ * container, which delivers the whole poll again. The delivery is at least once.
+ * <p>
+ * Each ingested event is recorded as an {@link IngestedEvent}, keyed by the entity and the id of the producing service, in the
+ * transaction of the entity it creates: the events of a redelivered poll which were already ingested are skipped.
+ * <p>
+ * The records which cannot be read, are not about a reaction or a comment, or are not valid are skipped, so that they do not
+ * hold back the rest of the topic. A record rejected by the database, for example for a reference to a missing entity, fails
+ * the transaction of the whole poll: the records of the poll are then saved one by one, and the rejected ones are sent to the
+ * {@value #DEAD_LETTER_TOPIC}.
+ */
+@Service("ingestConsumer")
+public class IngestConsumer implements Consumer<List<byte[]>> {
+
+    public static final String BINDING_NAME = "ingestConsumer-in-0";
+
+    public static final String DEAD_LETTER_TOPIC = "ms-media-ingest-dlq";
+
+    public static final String ERROR_HEADER = "ingestError";
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngestConsumer.class);
+
+    private final ReactionsService reactionsService;
+
+    private final CommentsService commentsService;
+
+    private final IngestedEventRepository ingestedEventRepository;
+
+    private final StreamBridge streamBridge;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public IngestConsumer(
+        ReactionsService reactionsService,
+        CommentsService commentsService,
+        IngestedEventRepository ingestedEventRepository,
+        StreamBridge streamBridge,
+        ObjectMapper objectMapper,
+        Validator validator,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.reactionsService = reactionsService;
+        this.commentsService = commentsService;
+        this.ingestedEventRepository = ingestedEventRepository;
+        this.streamBridge = streamBridge;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void accept(List<byte[]> payloads) {
+        // A record delivered twice in the same poll is only ingested once
+        Map<IngestedEventId, Ingest> ingests = new LinkedHashMap<>();
+        int skipped = 0;
+        for (byte[] payload : payloads) {
+            Ingest ingest = ingest(payload);
+            if (ingest == null || ingests.putIfAbsent(ingest.source(), ingest) != null) {
+                skipped++;
+            }
+        }
+        if (ingests.isEmpty()) {
+            LOG.debug("Ingested no entity, skipped {} records", skipped);
+            return;
+        }
+        List<Ingest> batch = new ArrayList<>(ingests.values());
+        int saved;
+        try {
+            saved = save(batch);
+        } catch (NonTransientDataAccessException e) {
+            // The transaction of the poll was rolled back: nothing was saved
+            LOG.warn("Ingesting the {} records of the poll one by one: {}", batch.size(), e.getMostSpecificCause().getMessage());
+            saved = 0;
+            for (Ingest ingest : batch) {
+                try {
+                    saved += save(List.of(ingest));
+                } catch (NonTransientDataAccessException recordError) {
+                    deadLetter(ingest, recordError);
+                }
+            }
+        }
+        LOG.debug("Ingested {} entities, skipped {} records", saved, skipped + batch.size() - saved);
+    }
+
+    /**
+     * Save the entities of some records in one transaction, without the ones already ingested.
+     *
+     * @return the number of saved entities.
+     */
+    private int save(List<Ingest> ingests) {
+        Integer saved = transactionTemplate.execute(status -> {
+            List<Ingest> notIngested = notIngestedYet(ingests);
+            List<ReactionsDTO> reactions = new ArrayList<>();
+            List<CommentsDTO> comments = new ArrayList<>();
+            List<IngestedEvent> ingestedEvents = new ArrayList<>(notIngested.size());
+            Instant now = Instant.now();
+            for (Ingest ingest : notIngested) {
+                if (ingest.dto() instanceof ReactionsDTO reaction) {
+                    reactions.add(reaction);
+                } else if (ingest.dto() instanceof CommentsDTO comment) {
+                    comments.add(comment);
+                }
+                ingestedEvents.add(new IngestedEvent(ingest.source(), now));
+            }
+            ingestedEventRepository.saveAll(ingestedEvents);
+            if (!reactions.isEmpty()) {
+                reactionsService.saveAll(reactions);
+            }
+            if (!comments.isEmpty()) {
+                commentsService.saveAll(comments);
+            }
+            return notIngested.size();
+        });
+        return saved != null ? saved : 0;
+    }
+
+    private List<Ingest> notIngestedYet(List<Ingest> ingests) {
+        Map<String, List<Long>> sourceIds = new HashMap<>();
+        for (Ingest ingest : ingests) {
+            sourceIds.computeIfAbsent(ingest.source().getSourceEntity(), entity -> new ArrayList<>()).add(ingest.source().getSourceId());
+        }
+        Map<String, Set<Long>> ingested = new HashMap<>();
+        sourceIds.forEach((entity, ids) -> ingested.put(entity, ingestedEventRepository.findIngestedSourceIds(entity, ids)));
+        List<Ingest> notIngested = new ArrayList<>(ingests.size());
+        for (Ingest ingest : ingests) {
+            if (ingested.get(ingest.source().getSourceEntity()).contains(ingest.source().getSourceId())) {
+                LOG.debug("Skipping ingest record of {} already ingested", ingest.source());
+            } else {
+                notIngested.add(ingest);
+            }
+        }
+        return notIngested;
+    }
+
+    private void deadLetter(Ingest ingest, NonTransientDataAccessException error) {
+        LOG.warn("Sending ingest record of {} to {}: {}", ingest.source(), DEAD_LETTER_TOPIC, error.getMostSpecificCause().getMessage());
+        try {
+            if (
+                !streamBridge.send(
+                    DEAD_LETTER_TOPIC,
+                    MessageBuilder.withPayload(ingest.payload()).setHeader(ERROR_HEADER, error.getMostSpecificCause().toString()).build()
+                )
+            ) {
+                LOG.error("Ingest record of {} was not accepted by the producer of {}", ingest.source(), DEAD_LETTER_TOPIC);
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Ingest record of {} could not be sent to {}: {}", ingest.source(), DEAD_LETTER_TOPIC, e.getMessage());
+        }
+    }
+
+    /**
+     * Read a record.
+     *
+     * @return the entity to save, or {@code null} if the record is skipped.
+     */
+    private Ingest ingest(byte[] payload) {
+        EventEnvelope envelope = read(payload);
+        if (envelope == null) {
+            return null;
+        }
+        if (envelope.entityId() == null) {
+            LOG.warn("Skipping ingest record of {} without id", envelope.entity());
+            return null;
+        }
+        Object dto;
+        if (Reactions.class.getSimpleName().equals(envelope.entity())) {
+            dto = toDto(envelope, ReactionsDTO.class);
+        } else if (Comments.class.getSimpleName().equals(envelope.entity())) {
+            dto = toDto(envelope, CommentsDTO.class);
+        } else {
+            LOG.warn("Skipping ingest record of unknown entity {}", envelope.entity());
+            return null;
+        }
+        return dto != null ? new Ingest(payload, new IngestedEventId(envelope.entity(), envelope.entityId()), dto) : null;
+    }
+
+    private static EventEnvelope read(byte[] payload) {
+        if (!EventEnvelopeCodec.isEnvelope(payload)) {
+            LOG.warn("Skipping ingest record which is not an event envelope");
+            return null;
+        }
+        try {
+            EventEnvelope envelope = EventEnvelopeCodec.decode(payload);
+            if (!OutboxEventType.CREATED.name().equals(envelope.eventType())) {
+                LOG.warn("Skipping ingest record of {} event", envelope.eventType());
+                return null;
+            }
+            return envelope;
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Skipping unreadable ingest record: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Read the entity of an envelope.
+     *
+     * @return the entity, or {@code null} if it is not valid.
+     */
+    private <D> D toDto(EventEnvelope envelope, Class<D> dtoClass) {
+        if (!(envelope.delta() instanceof ObjectNode delta)) {
+            LOG.warn("Skipping ingest record of {} {} without fields", envelope.entity(), envelope.entityId());
+            return null;
+        }
+        D dto;
+        try {
+            // The id is the one of the producing service: the entity gets a new id here
+            dto = objectMapper.treeToValue(delta.deepCopy().without("id"), dtoClass);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            LOG.warn("Skipping ingest record of {} {}: {}", envelope.entity(), envelope.entityId(), e.getMessage());
+            return null;
+        }
+        Set<ConstraintViolation<D>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            LOG.warn("Skipping invalid ingest record of {} {}: {}", envelope.entity(), envelope.entityId(), violations);
+            return null;
+        }
+        return dto;
+    }
+
+    /**
+     * A record to ingest.
+     *
+     * @param payload the record, sent as it is to the dead letter topic.
+     * @param source the entity of the producing service the record created.
+     * @param dto the entity to save.
+     */
+    private record Ingest(byte[] payload, IngestedEventId source, Object dto) {}
+}
@@ -0,0 +1,282 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.broker.EventEnvelope;
+import com.mycompany.myapp.broker.EventEnvelopeCodec;
+import com.mycompany.myapp.broker.SseTopics;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.OutboxEvent;
+import com.mycompany.myapp.domain.Posts;
+import com.mycompany.myapp.domain.Reactions;
+import com.mycompany.myapp.domain.enumeration.ReactionTargetType;
+import com.mycompany.myapp.repository.OutboxEventRepository;
+import com.mycompany.myapp.service.dto.ReactionCountsDTO;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Background relay publishing the {@link OutboxEvent}s to Kafka, through the {@value #BINDING_NAME} binding.
+ * <p>
+ * Each run claims a batch of events (marking them as dispatched, in a short transaction), then hands them to the producer,
+ * which batches and compresses them. The producer reports each acknowledged record on the {@value #PUBLISHED_CHANNEL}
+ * channel, and the acknowledged events are deleted by the next run. An event which is not acknowledged in time is dispatched
+ * again: the delivery is at least once, and consumers can deduplicate on the {@value #EVENT_ID_HEADER} header.
+ * <p>
+ * The records are keyed by aggregate, so that the events of an entity go to the same partition, in the order of the outbox.
+ * Their payload is an {@link EventEnvelope}, whose delta is the JSON state recorded in the outbox.
+ * <p>
+ * The events about a post (the post itself, its comments and its reactions) are also sent, best effort, to the SSE clients
+ * watching it, through the {@value #REALTIME_BINDING_NAME} binding. The events of the reactions carry the current reaction
+ * counts of the post or comment they are about, which the SSE registry sends in place of the individual reactions when it
+ * coalesces them.
+ */
+@Service
+public class OutboxRelay {
+
+    public static final String BINDING_NAME = "binding-out-0";
+
+    /**
+     * Binding of the topic read by the {@code KafkaConsumer}, which sends its records to the SSE clients.
+     */
+    public static final String REALTIME_BINDING_NAME = "realtime-out-0";
+
+    /**
+     * Name of the channel bean receiving the records acknowledged by Kafka; it is the {@code record-metadata-channel} of the binding.
+     */
+    public static final String PUBLISHED_CHANNEL = "outboxPublished";
+
+    public static final String EVENT_ID_HEADER = "outboxEventId";
+
+    public static final String EVENT_TYPE_HEADER = "eventType";
+
+    public static final String AGGREGATE_TYPE_HEADER = "aggregateType";
+
+    public static final String AGGREGATE_ID_HEADER = "aggregateId";
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final StreamBridge streamBridge;
+
+    private final ObjectMapper objectMapper;
+
+    private final ReactionCountersService reactionCountersService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.Outbox properties;
+
+    private final Queue<Long> publishedEventIds = new ConcurrentLinkedQueue<>();
+
+    public OutboxRelay(
+        OutboxEventRepository outboxEventRepository,
+        StreamBridge streamBridge,
+        ObjectMapper objectMapper,
+        ReactionCountersService reactionCountersService,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        @Qualifier(PUBLISHED_CHANNEL) SubscribableChannel publishedChannel
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.streamBridge = streamBridge;
+        this.objectMapper = objectMapper;
+        this.reactionCountersService = reactionCountersService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getOutbox();
+        publishedChannel.subscribe(this::onPublished);
+    }
+
+    /**
+     * Drain the outbox, until it has no more events to dispatch.
+     */
+    @Scheduled(fixedDelayString = "${application.outbox.relay-delay:PT1S}")
+    public void relay() {
+        deletePublished();
+        int dispatched;
+        do {
+            dispatched = dispatchNextBatch();
+        } while (dispatched == properties.getBatchSize());
+    }
+
+    /**
+     * Claim and send the next batch of events.
+     *
+     * @return the number of dispatched events.
+     */
+    int dispatchNextBatch() {
+        Instant now = Instant.now();
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepository.lockNextBatch(
+                now.minus(properties.getRedeliveryTimeout()),
+                properties.getBatchSize()
+            );
+            if (!events.isEmpty()) {
+                outboxEventRepository.markDispatched(events.stream().map(OutboxEvent::getId).toList(), now);
+            }
+            return events;
+        });
+        List<EventEnvelope> envelopes = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            EventEnvelope envelope = envelopeOf(event);
+            envelopes.add(envelope);
+            if (!streamBridge.send(BINDING_NAME, toMessage(event, envelope))) {
+                LOG.warn("Outbox event {} was not accepted by the producer, it will be dispatched again", event.getId());
+            }
+        }
+        if (!batch.isEmpty()) {
+            publishRealtime(envelopes);
+            LOG.debug("Dispatched {} outbox events", batch.size());
+        }
+        return batch.size();
+    }
+
+    /**
+     * Send the events about a post to its SSE clients, with the current counts of the targets of the reactions, read with a
+     * single query per kind of target. A failure is only logged: the clients see the change on their next read.
+     */
+    private void publishRealtime(List<EventEnvelope> envelopes) {
+        try {
+            Map<ReactionTargetType, Set<Long>> targetIds = new EnumMap<>(ReactionTargetType.class);
+            for (EventEnvelope envelope : envelopes) {
+                ReactionTarget target = reactionTargetOf(envelope);
+                if (target != null) {
+                    targetIds.computeIfAbsent(target.type(), type -> new HashSet<>()).add(target.id());
+                }
+            }
+            Map<ReactionTarget, ReactionCountsDTO> counts = new HashMap<>();
+            targetIds.forEach((type, ids) ->
+                reactionCountersService
+                    .findCounts(type, ids)
+                    .forEach(count -> counts.put(new ReactionTarget(type, count.getTargetId()), count))
+            );
+            for (EventEnvelope envelope : envelopes) {
+                Long postId = postIdOf(envelope);
+                if (postId != null) {
+                    streamBridge.send(REALTIME_BINDING_NAME, toRealtimeMessage(envelope, postId, counts.get(reactionTargetOf(envelope))));
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Outbox events were not sent to the SSE clients: {}", e.getMessage());
+        }
+    }
+
+    private Message<byte[]> toRealtimeMessage(EventEnvelope envelope, Long postId, ReactionCountsDTO counts) {
+        MessageBuilder<byte[]> message = MessageBuilder.withPayload(EventEnvelopeCodec.encode(envelope))
+            .setHeader(KafkaHeaders.KEY, String.valueOf(postId).getBytes(StandardCharsets.UTF_8))
+            .setHeader(SseTopics.POST_ID_HEADER, postId)
+            .setHeader(EVENT_TYPE_HEADER, envelope.eventType())
+            .setHeader(AGGREGATE_TYPE_HEADER, envelope.entity())
+            .setHeader(AGGREGATE_ID_HEADER, envelope.entityId());
+        if (counts != null) {
+            try {
+                message
+                    .setHeader(SseTopics.COUNTS_TARGET_HEADER, counts.getTargetType() + ":" + counts.getTargetId())
+                    .setHeader(SseTopics.COUNTS_HEADER, objectMapper.writeValueAsString(counts.getCounts()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Cannot serialize the reaction counts of " + counts.getTargetId(), e);
+            }
+        }
+        return message.build();
+    }
+
+    /**
+     * @return the post an event is about, or {@code null} if it is not known.
+     */
+    private static Long postIdOf(EventEnvelope envelope) {
+        if (Posts.class.getSimpleName().equals(envelope.entity())) {
+            return envelope.entityId();
+        }
+        return idOf(envelope.delta(), "post");
+    }
+
+    /**
+     * @return the post or comment a reaction is counted on, or {@code null} if the event is not about a counted reaction.
+     */
+    private static ReactionTarget reactionTargetOf(EventEnvelope envelope) {
+        if (!Reactions.class.getSimpleName().equals(envelope.entity())) {
+            return null;
+        }
+        Long commentId = idOf(envelope.delta(), "comment");
+        if (commentId != null) {
+            return new ReactionTarget(ReactionTargetType.COMMENT, commentId);
+        }
+        Long postId = idOf(envelope.delta(), "post");
+        return postId != null ? new ReactionTarget(ReactionTargetType.POST, postId) : null;
+    }
+
+    private static Long idOf(JsonNode delta, String relationship) {
+        JsonNode id = delta != null ? delta.path(relationship).path("id") : null;
+        return id != null && id.canConvertToLong() ? id.longValue() : null;
+    }
+
+    private record ReactionTarget(ReactionTargetType type, Long id) {}
+
+    /**
+     * Delete the events acknowledged by Kafka since the last run.
+     */
+    void deletePublished() {
+        List<Long> ids = new ArrayList<>();
+        Long id;
+        while ((id = publishedEventIds.poll()) != null) {
+            ids.add(id);
+        }
+        if (!ids.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.deleteAllByIdInBatch(ids));
+        }
+    }
+
+    private void onPublished(Message<?> message) {
+        Object id = message.getHeaders().get(EVENT_ID_HEADER);
+        if (id instanceof Number number) {
+            publishedEventIds.add(number.longValue());
+        }
+    }
+
+    private EventEnvelope envelopeOf(OutboxEvent event) {
+        try {
+            return new EventEnvelope(
+                event.getEventType().name(),
+                event.getAggregateType(),
+                event.getAggregateId(),
+                event.getCreatedAt(),
+                objectMapper.readTree(event.getPayload())
+            );
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read the payload of outbox event " + event.getId(), e);
+        }
+    }
+
+    private Message<byte[]> toMessage(OutboxEvent event, EventEnvelope envelope) {
+        return MessageBuilder.withPayload(EventEnvelopeCodec.encode(envelope))
+            .setHeader(KafkaHeaders.KEY, (event.getAggregateType() + ":" + event.getAggregateId()).getBytes(StandardCharsets.UTF_8))
+            .setHeader(EVENT_ID_HEADER, event.getId())
+            .setHeader(EVENT_TYPE_HEADER, event.getEventType().name())
+            .setHeader(AGGREGATE_TYPE_HEADER, event.getAggregateType())
+            .setHeader(AGGREGATE_ID_HEADER, event.getAggregateId())
+            .build();
+    }
+}
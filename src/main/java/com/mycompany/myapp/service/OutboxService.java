@@ -0,0 +1,71 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.domain.OutboxEvent;
+import com.mycompany.myapp.domain.enumeration.OutboxEventType;
+import com.mycompany.myapp.repository.OutboxEventRepository;
+import java.time.Instant;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service recording the changes of the entities in the {@link OutboxEvent} table.
+ * <p>
+ * It must be called from the transaction of the change: the event is then committed, or rolled back, with it.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutboxService.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Record a change of an entity.
+     *
+     * @param aggregateType the entity class.
+     * @param aggregateId the id of the entity.
+     * @param eventType the kind of change.
+     * @param state the new state of the entity, or its last one if it is deleted, serialized as the payload of the event.
+     */
+    public void record(Class<?> aggregateType, Long aggregateId, OutboxEventType eventType, Object state) {
+        LOG.debug("Request to record {} of {} : {}", eventType, aggregateType.getSimpleName(), aggregateId);
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(state);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize the " + eventType + " event of " + aggregateType.getSimpleName(), e);
+        }
+        outboxEventRepository.save(
+            new OutboxEvent()
+                .aggregateType(aggregateType.getSimpleName())
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(payload)
+                .createdAt(Instant.now())
+        );
+    }
+
+    /**
+     * Record the deletion of an entity, with its id only.
+     *
+     * @param aggregateType the entity class.
+     * @param aggregateId the id of the deleted entity.
+     */
+    public void recordDeletion(Class<?> aggregateType, Long aggregateId) {
+        record(aggregateType, aggregateId, OutboxEventType.DELETED, Map.of("id", aggregateId));
+    }
+}
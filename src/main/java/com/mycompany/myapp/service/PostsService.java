@@ -1,9 +1,12 @@
 package com.mycompany.myapp.service;
 
 import com.mycompany.myapp.domain.Posts;
+import com.mycompany.myapp.domain.enumeration.OutboxEventType;
 import com.mycompany.myapp.repository.PostsRepository;
 import com.mycompany.myapp.service.dto.PostsDTO;
 import com.mycompany.myapp.service.mapper.PostsMapper;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +15,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service Implementation for managing {@link com.mycompany.myapp.domain.Posts}.
+ * <p>
+ * Every change is also recorded in the outbox, in the same transaction, to be published to Kafka.
  */
 @Service
 @Transactional
@@ -23,9 +28,14 @@ public class PostsService {
 
     private final PostsMapper postsMapper;
 
-    public PostsService(PostsRepository postsRepository, PostsMapper postsMapper) {
+    private final SingleFlight<Long, Optional<PostsDTO>> findOneFlights = new SingleFlight<>();
+
+    private final OutboxService outboxService;
+
+    public PostsService(PostsRepository postsRepository, PostsMapper postsMapper, OutboxService outboxService) {
         this.postsRepository = postsRepository;
         this.postsMapper = postsMapper;
+        this.outboxService = outboxService;
     }
 
     /**
@@ -38,7 +48,9 @@ public class PostsService {
         LOG.debug("Request to save Posts : {}", postsDTO);
         Posts posts = postsMapper.toEntity(postsDTO);
         posts = postsRepository.save(posts);
-        return postsMapper.toDto(posts);
+        PostsDTO result = postsMapper.toDto(posts);
+        outboxService.record(Posts.class, result.getId(), OutboxEventType.CREATED, result);
+        return result;
     }
 
     /**
@@ -51,7 +63,9 @@ public class PostsService {
         LOG.debug("Request to update Posts : {}", postsDTO);
         Posts posts = postsMapper.toEntity(postsDTO);
         posts = postsRepository.save(posts);
-        return postsMapper.toDto(posts);
+        PostsDTO result = postsMapper.toDto(posts);
+        outboxService.record(Posts.class, result.getId(), OutboxEventType.UPDATED, result);
+        return result;
     }
 
     /**
@@ -71,11 +85,17 @@ public class PostsService {
                 return existingPosts;
             })
             .map(postsRepository::save)
-            .map(postsMapper::toDto);
+            .map(postsMapper::toDto)
+            .map(result -> {
+                outboxService.record(Posts.class, result.getId(), OutboxEventType.UPDATED, result);
+                return result;
+            });
     }
 
     /**
      * Get one posts by id.
+     * <p>
+     * Concurrent requests for the same id share one load, so that a miss of the second level cache hits the database once.
      *
      * @param id the id of the entity.
      * @return the entity.
@@ -83,7 +103,20 @@ public class PostsService {
     @Transactional(readOnly = true)
     public Optional<PostsDTO> findOne(Long id) {
         LOG.debug("Request to get Posts : {}", id);
-        return postsRepository.findById(id).map(postsMapper::toDto);
+        return findOneFlights.load(id, () -> postsRepository.findById(id).map(postsMapper::toDto));
+    }
+
+    /**
+     * Get several posts by id, with a single query for the ones which are not in the second level cache.
+     *
+     * @param ids the ids of the entities.
+     * @return the entities, in the order of {@code ids}, without the duplicated and the unknown ids.
+     */
+    @Transactional(readOnly = true)
+    public List<PostsDTO> findAllByIds(List<Long> ids) {
+        LOG.debug("Request to get Posts : {}", ids);
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        return postsRepository.multiLoad(Posts.class, distinctIds).stream().filter(Objects::nonNull).map(postsMapper::toDto).toList();
     }
 
     /**
@@ -93,6 +126,11 @@ public class PostsService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete Posts : {}", id);
-        postsRepository.deleteById(id);
+        postsRepository
+            .findById(id)
+            .ifPresent(posts -> {
+                postsRepository.delete(posts);
+                outboxService.recordDeletion(Posts.class, id);
+            });
     }
 }
@@ -0,0 +1,125 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.ReactionCountersId;
+import com.mycompany.myapp.domain.Reactions;
+import com.mycompany.myapp.domain.enumeration.ReactionTargetType;
+import com.mycompany.myapp.repository.ReactionCountersRepository;
+import com.mycompany.myapp.repository.ReactionCountersRepository.TargetCount;
+import com.mycompany.myapp.service.dto.ReactionCountsDTO;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service maintaining and reading the materialized {@link com.mycompany.myapp.domain.ReactionCounters}.
+ * <p>
+ * A reaction is counted on its comment when it has one, otherwise on its post. Reactions without type or target are not counted.
+ */
+@Service
+@Transactional
+public class ReactionCountersService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactionCountersService.class);
+
+    private final ReactionCountersRepository reactionCountersRepository;
+
+    public ReactionCountersService(ReactionCountersRepository reactionCountersRepository) {
+        this.reactionCountersRepository = reactionCountersRepository;
+    }
+
+    /**
+     * Get the key of the counter a reaction is counted in.
+     *
+     * @param reactions the reaction.
+     * @return the counter key, or {@code null} if the reaction is not counted.
+     */
+    public ReactionCountersId counterOf(Reactions reactions) {
+        if (reactions == null || reactions.getReactionType() == null) {
+            return null;
+        }
+        if (reactions.getComment() != null && reactions.getComment().getId() != null) {
+            return new ReactionCountersId(ReactionTargetType.COMMENT, reactions.getComment().getId(), reactions.getReactionType());
+        }
+        if (reactions.getPost() != null && reactions.getPost().getId() != null) {
+            return new ReactionCountersId(ReactionTargetType.POST, reactions.getPost().getId(), reactions.getReactionType());
+        }
+        return null;
+    }
+
+    /**
+     * Move a reaction from a counter to another one: the previous counter is decremented and the new one incremented.
+     *
+     * @param previous the counter of the previous state of the reaction, {@code null} for a new reaction.
+     * @param current the counter of the current state of the reaction, {@code null} for a deleted reaction.
+     */
+    public void move(ReactionCountersId previous, ReactionCountersId current) {
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        if (previous != null) {
+            addToCount(previous, -1);
+        }
+        if (current != null) {
+            addToCount(current, 1);
+        }
+    }
+
+    /**
+     * Count several new reactions, with a single upsert per distinct counter.
+     *
+     * @param reactions the new reactions.
+     */
+    public void countAll(Collection<Reactions> reactions) {
+        Map<ReactionCountersId, Long> deltas = new HashMap<>();
+        for (Reactions reaction : reactions) {
+            ReactionCountersId counter = counterOf(reaction);
+            if (counter != null) {
+                deltas.merge(counter, 1L, Long::sum);
+            }
+        }
+        deltas.forEach(this::addToCount);
+    }
+
+    private void addToCount(ReactionCountersId counter, long delta) {
+        LOG.debug("Request to add {} to ReactionCounters : {}", delta, counter);
+        reactionCountersRepository.addToCount(
+            counter.getTargetType().name(),
+            counter.getTargetId(),
+            counter.getReactionType().name(),
+            delta
+        );
+    }
+
+    /**
+     * Get the counts of all the reaction types of several targets, with a single query.
+     *
+     * @param targetType the kind of the targets.
+     * @param targetIds the ids of the targets.
+     * @return the counts of each distinct target, in the order of {@code targetIds}, targets without reactions included.
+     */
+    @Transactional(readOnly = true)
+    public List<ReactionCountsDTO> findCounts(ReactionTargetType targetType, Collection<Long> targetIds) {
+        LOG.debug("Request to get ReactionCounters of {} : {}", targetType, targetIds);
+        Map<Long, ReactionCountsDTO> counts = new LinkedHashMap<>();
+        for (Long targetId : targetIds) {
+            if (targetId != null) {
+                counts.computeIfAbsent(targetId, id -> new ReactionCountsDTO(targetType, id));
+            }
+        }
+        if (counts.isEmpty()) {
+            return new ArrayList<>();
+        }
+        for (TargetCount count : reactionCountersRepository.findAllByTargets(targetType, counts.keySet())) {
+            counts.get(count.getTargetId()).getCounts().put(count.getReactionType(), count.getReactionCount());
+        }
+        return new ArrayList<>(counts.values());
+    }
+}
@@ -7,10 +7,13 @@ import com.mycompany.myapp.service.criteria.ReactionsCriteria;
 import com.mycompany.myapp.service.dto.ReactionsDTO;
 import com.mycompany.myapp.service.mapper.ReactionsMapper;
 import jakarta.persistence.criteria.JoinType;
+import java.util.OptionalLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,6 +29,11 @@ import tech.jhipster.service.QueryService;
 @Transactional(readOnly = true)
 public class ReactionsQueryService extends QueryService<Reactions> {
 
+    /**
+     * Cache of the total counts requested with {@code count=cached}, by criteria; it expires after a short time.
+     */
+    public static final String COUNT_CACHE = "reactionsCount";
+
     private static final Logger LOG = LoggerFactory.getLogger(ReactionsQueryService.class);
 
     private final ReactionsRepository reactionsRepository;
@@ -50,6 +58,20 @@ public class ReactionsQueryService extends QueryService<Reactions> {
         return reactionsRepository.findAll(specification, page).map(reactionsMapper::toDto);
     }
 
+    /**
+     * Return a {@link Slice} of {@link ReactionsDTO} which matches the criteria from the database, without counting them.
+     * One more entity than the page size is read, to know whether there is a next page.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ReactionsDTO> findSliceByCriteria(ReactionsCriteria criteria, Pageable page) {
+        LOG.debug("find slice by criteria : {}, page: {}", criteria, page);
+        final Specification<Reactions> specification = createSpecification(criteria);
+        return reactionsRepository.findSlice(Reactions.class, specification, page).map(reactionsMapper::toDto);
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -62,6 +84,32 @@ public class ReactionsQueryService extends QueryService<Reactions> {
         return reactionsRepository.count(specification);
     }
 
+    /**
+     * Return the number of matching entities in the database, memoized for a short time in the {@value #COUNT_CACHE} cache.
+     * The key is the normalized criteria: the filters which are not set are left out, and the others are always in the same
+     * order. The count can be stale by up to the time to live of the cache.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = COUNT_CACHE, key = "'' + #criteria")
+    public long countByCriteriaCached(ReactionsCriteria criteria) {
+        return countByCriteria(criteria);
+    }
+
+    /**
+     * Estimate the number of matching entities from the statistics of the table, without reading it.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the estimated number of entities, or empty if the criteria have filters, as the statistics cannot account for them.
+     */
+    @Transactional(readOnly = true)
+    public OptionalLong estimateCountByCriteria(ReactionsCriteria criteria) {
+        if (criteria != null && !criteria.equals(new ReactionsCriteria())) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(reactionsRepository.estimateCount(Reactions.class));
+    }
+
     /**
      * Function to convert {@link ReactionsCriteria} to a {@link Specification}
      * @param criteria The object which holds all the filters, which the entities should match.
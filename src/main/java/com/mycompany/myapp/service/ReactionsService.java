@@ -1,10 +1,21 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.ReactionCountersId;
 import com.mycompany.myapp.domain.Reactions;
+import com.mycompany.myapp.domain.enumeration.OutboxEventType;
+import com.mycompany.myapp.repository.CommentsRepository;
 import com.mycompany.myapp.repository.ReactionsRepository;
+import com.mycompany.myapp.service.dto.PostsDTO;
 import com.mycompany.myapp.service.dto.ReactionsDTO;
 import com.mycompany.myapp.service.mapper.ReactionsMapper;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -12,6 +23,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service Implementation for managing {@link com.mycompany.myapp.domain.Reactions}.
+ * <p>
+ * Every write also maintains the {@link com.mycompany.myapp.domain.ReactionCounters}, and is recorded in the outbox to be
+ * published to Kafka, in the same transaction.
  */
 @Service
 @Transactional
@@ -23,9 +37,28 @@ public class ReactionsService {
 
     private final ReactionsMapper reactionsMapper;
 
-    public ReactionsService(ReactionsRepository reactionsRepository, ReactionsMapper reactionsMapper) {
+    private final ReactionCountersService reactionCountersService;
+
+    private final OutboxService outboxService;
+
+    private final CommentsRepository commentsRepository;
+
+    private final ApplicationProperties applicationProperties;
+
+    public ReactionsService(
+        ReactionsRepository reactionsRepository,
+        ReactionsMapper reactionsMapper,
+        ReactionCountersService reactionCountersService,
+        OutboxService outboxService,
+        CommentsRepository commentsRepository,
+        ApplicationProperties applicationProperties
+    ) {
         this.reactionsRepository = reactionsRepository;
         this.reactionsMapper = reactionsMapper;
+        this.reactionCountersService = reactionCountersService;
+        this.outboxService = outboxService;
+        this.commentsRepository = commentsRepository;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -38,9 +71,27 @@ public class ReactionsService {
         LOG.debug("Request to save Reactions : {}", reactionsDTO);
         Reactions reactions = reactionsMapper.toEntity(reactionsDTO);
         reactions = reactionsRepository.save(reactions);
+        reactionCountersService.move(null, reactionCountersService.counterOf(reactions));
+        recordInOutbox(OutboxEventType.CREATED, List.of(reactions));
         return reactionsMapper.toDto(reactions);
     }
 
+    /**
+     * Save several new reactions, with batched inserts.
+     *
+     * @param reactionsDTOs the entities to save.
+     * @return the persisted entities, in the same order.
+     */
+    public List<ReactionsDTO> saveAll(List<ReactionsDTO> reactionsDTOs) {
+        LOG.debug("Request to save {} Reactions", reactionsDTOs.size());
+        return reactionsRepository.withJdbcBatchSize(applicationProperties.getBatch().getBulkJdbcBatchSize(), () -> {
+            List<Reactions> reactions = reactionsRepository.saveAll(reactionsMapper.toEntity(reactionsDTOs));
+            reactionCountersService.countAll(reactions);
+            recordInOutbox(OutboxEventType.CREATED, reactions);
+            return reactionsMapper.toDto(reactions);
+        });
+    }
+
     /**
      * Update a reactions.
      *
@@ -49,8 +100,14 @@ public class ReactionsService {
      */
     public ReactionsDTO update(ReactionsDTO reactionsDTO) {
         LOG.debug("Request to update Reactions : {}", reactionsDTO);
+        ReactionCountersId previousCounter = reactionsRepository
+            .findById(reactionsDTO.getId())
+            .map(reactionCountersService::counterOf)
+            .orElse(null);
         Reactions reactions = reactionsMapper.toEntity(reactionsDTO);
         reactions = reactionsRepository.save(reactions);
+        reactionCountersService.move(previousCounter, reactionCountersService.counterOf(reactions));
+        recordInOutbox(OutboxEventType.UPDATED, List.of(reactions));
         return reactionsMapper.toDto(reactions);
     }
 
@@ -66,11 +123,14 @@ public class ReactionsService {
         return reactionsRepository
             .findById(reactionsDTO.getId())
             .map(existingReactions -> {
+                ReactionCountersId previousCounter = reactionCountersService.counterOf(existingReactions);
                 reactionsMapper.partialUpdate(existingReactions, reactionsDTO);
+                Reactions reactions = reactionsRepository.save(existingReactions);
+                reactionCountersService.move(previousCounter, reactionCountersService.counterOf(reactions));
+                recordInOutbox(OutboxEventType.UPDATED, List.of(reactions));
 
-                return existingReactions;
+                return reactions;
             })
-            .map(reactionsRepository::save)
             .map(reactionsMapper::toDto);
     }
 
@@ -86,6 +146,24 @@ public class ReactionsService {
         return reactionsRepository.findById(id).map(reactionsMapper::toDto);
     }
 
+    /**
+     * Get several reactions by id, with a single query for the ones which are not in the second level cache.
+     *
+     * @param ids the ids of the entities.
+     * @return the entities, in the order of {@code ids}, without the duplicated and the unknown ids.
+     */
+    @Transactional(readOnly = true)
+    public List<ReactionsDTO> findAllByIds(List<Long> ids) {
+        LOG.debug("Request to get Reactions : {}", ids);
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        return reactionsRepository
+            .multiLoad(Reactions.class, distinctIds)
+            .stream()
+            .filter(Objects::nonNull)
+            .map(reactionsMapper::toDto)
+            .toList();
+    }
+
     /**
      * Delete the reactions by id.
      *
@@ -93,6 +171,41 @@ public class ReactionsService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete Reactions : {}", id);
-        reactionsRepository.deleteById(id);
+        reactionsRepository
+            .findById(id)
+            .ifPresent(reactions -> {
+                reactionCountersService.move(reactionCountersService.counterOf(reactions), null);
+                // Recorded with its post and comment, so that the clients of the post get its new counts
+                recordInOutbox(OutboxEventType.DELETED, List.of(reactions));
+                reactionsRepository.delete(reactions);
+            });
+    }
+
+    /**
+     * Record the events of some reactions in the outbox. A reaction on a comment is recorded with the post of the comment, so
+     * that its event reaches the clients of the post.
+     *
+     * @param eventType the type of the events.
+     * @param reactions the reactions.
+     */
+    private void recordInOutbox(OutboxEventType eventType, List<Reactions> reactions) {
+        Set<Long> commentIds = reactions
+            .stream()
+            .filter(reaction -> reaction.getPost() == null && reaction.getComment() != null)
+            .map(reaction -> reaction.getComment().getId())
+            .collect(Collectors.toSet());
+        Map<Long, PostsDTO> postsOfComments = new HashMap<>();
+        if (!commentIds.isEmpty()) {
+            commentsRepository
+                .findAllById(commentIds)
+                .forEach(comment -> postsOfComments.put(comment.getId(), reactionsMapper.toDtoPostsId(comment.getPost())));
+        }
+        for (Reactions reaction : reactions) {
+            ReactionsDTO state = reactionsMapper.toDto(reaction);
+            if (state.getPost() == null && state.getComment() != null) {
+                state.setPost(postsOfComments.get(state.getComment().getId()));
+            }
+            outboxService.record(Reactions.class, state.getId(), eventType, state);
+        }
     }
 }
@@ -0,0 +1,58 @@
+package com.mycompany.myapp.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces the concurrent loads of the same key: the first caller loads the value, and the callers arriving while it does get
+ * its result (or its exception) instead of loading the value again. Nothing is kept once the load is done.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Load a value, or wait for the load of the same key already in progress.
+     *
+     * @param key the key.
+     * @param loader loads the value, in the calling thread.
+     * @return the value.
+     */
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            try {
+                return leader.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @return the number of loads in progress.
+     */
+    public int size() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,138 @@
+package com.mycompany.myapp.service.criteria;
+
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Position in a result set ordered by {@code createdAt} then {@code id}, both descending.
+ * <p>
+ * It is used by the keyset (cursor) pagination mode of the list endpoints: instead of an offset, the client sends back
+ * the opaque value of the last cursor it received, and the next page is read with a seek predicate, so that the cost
+ * of a page does not depend on its depth.
+ */
+public final class KeysetCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The ordering the cursor refers to. On MySQL, {@code null} values of {@code createdAt} are sorted last.
+     */
+    public static final Sort SORT = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private static final String SEPARATOR = ":";
+
+    private static final String NULL_VALUE = "~";
+
+    private final Instant createdAt;
+
+    private final Long id;
+
+    private KeysetCursor(Instant createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = Objects.requireNonNull(id, "id");
+    }
+
+    public static KeysetCursor of(Instant createdAt, Long id) {
+        return new KeysetCursor(createdAt, id);
+    }
+
+    /**
+     * Decode a cursor previously produced by {@link #encode()}.
+     *
+     * @param value the opaque cursor value.
+     * @return the decoded cursor, or {@code null} if the value is blank, which means the first page.
+     * @throws IllegalArgumentException if the value is not a valid cursor.
+     */
+    public static KeysetCursor decode(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+            Instant createdAt = NULL_VALUE.equals(parts[0])
+                ? null
+                : Instant.ofEpochSecond(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+            return new KeysetCursor(createdAt, Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value, e);
+        }
+    }
+
+    /**
+     * @return the opaque, URL safe, representation of this cursor.
+     */
+    public String encode() {
+        String value = createdAt == null
+            ? NULL_VALUE + SEPARATOR + NULL_VALUE + SEPARATOR + id
+            : createdAt.getEpochSecond() + SEPARATOR + createdAt.getNano() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Build the seek predicate selecting the rows located after this cursor in the {@link #SORT} ordering.
+     *
+     * @param createdAtAttribute the {@code createdAt} attribute of the entity.
+     * @param idAttribute the {@code id} attribute of the entity.
+     * @param <E> the entity type.
+     * @return the matching {@link Specification}.
+     */
+    public <E> Specification<E> toSpecification(
+        SingularAttribute<? super E, Instant> createdAtAttribute,
+        SingularAttribute<? super E, Long> idAttribute
+    ) {
+        return (root, query, cb) -> {
+            if (createdAt == null) {
+                return cb.and(cb.isNull(root.get(createdAtAttribute)), cb.lessThan(root.get(idAttribute), id));
+            }
+            return cb.or(
+                cb.lessThan(root.get(createdAtAttribute), createdAt),
+                cb.and(cb.equal(root.get(createdAtAttribute), createdAt), cb.lessThan(root.get(idAttribute), id)),
+                cb.isNull(root.get(createdAtAttribute))
+            );
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof KeysetCursor)) {
+            return false;
+        }
+        KeysetCursor that = (KeysetCursor) o;
+        return Objects.equals(createdAt, that.createdAt) && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(createdAt, id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "KeysetCursor{" +
+            "createdAt=" + createdAt +
+            ", id=" + id +
+            "}";
+    }
+}
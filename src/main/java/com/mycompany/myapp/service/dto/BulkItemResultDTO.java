@@ -0,0 +1,118 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * The result of one item of a bulk request.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class BulkItemResultDTO implements Serializable {
+
+    public enum Status {
+        CREATED,
+        REJECTED,
+    }
+
+    private int index;
+
+    private Status status;
+
+    private Long id;
+
+    private String errorKey;
+
+    private String message;
+
+    public static BulkItemResultDTO created(int index, Long id) {
+        BulkItemResultDTO result = new BulkItemResultDTO();
+        result.setIndex(index);
+        result.setStatus(Status.CREATED);
+        result.setId(id);
+        return result;
+    }
+
+    public static BulkItemResultDTO rejected(int index, String errorKey, String message) {
+        BulkItemResultDTO result = new BulkItemResultDTO();
+        result.setIndex(index);
+        result.setStatus(Status.REJECTED);
+        result.setErrorKey(errorKey);
+        result.setMessage(message);
+        return result;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getErrorKey() {
+        return errorKey;
+    }
+
+    public void setErrorKey(String errorKey) {
+        this.errorKey = errorKey;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BulkItemResultDTO)) {
+            return false;
+        }
+        BulkItemResultDTO that = (BulkItemResultDTO) o;
+        return (
+            index == that.index &&
+            status == that.status &&
+            Objects.equals(id, that.id) &&
+            Objects.equals(errorKey, that.errorKey) &&
+            Objects.equals(message, that.message)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, status, id, errorKey, message);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkItemResultDTO{" +
+            "index=" + getIndex() +
+            ", status='" + getStatus() + "'" +
+            ", id=" + getId() +
+            ", errorKey='" + getErrorKey() + "'" +
+            ", message='" + getMessage() + "'" +
+            "}";
+    }
+}
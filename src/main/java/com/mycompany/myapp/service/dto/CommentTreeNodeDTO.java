@@ -0,0 +1,121 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A DTO for a {@link com.mycompany.myapp.domain.Comments} in a comment thread, with its replies.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class CommentTreeNodeDTO implements Serializable {
+
+    private Long id;
+
+    private Long userId;
+
+    private String content;
+
+    private Instant createdAt;
+
+    private int depth;
+
+    private long replyCount;
+
+    private List<CommentTreeNodeDTO> replies = new ArrayList<>();
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * @return the total number of replies to the comment, which can be greater than the number of {@link #getReplies()}
+     * when the thread is truncated.
+     */
+    public long getReplyCount() {
+        return replyCount;
+    }
+
+    public void setReplyCount(long replyCount) {
+        this.replyCount = replyCount;
+    }
+
+    public List<CommentTreeNodeDTO> getReplies() {
+        return replies;
+    }
+
+    public void setReplies(List<CommentTreeNodeDTO> replies) {
+        this.replies = replies;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CommentTreeNodeDTO)) {
+            return false;
+        }
+
+        CommentTreeNodeDTO commentTreeNodeDTO = (CommentTreeNodeDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, commentTreeNodeDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CommentTreeNodeDTO{" +
+            "id=" + getId() +
+            ", userId=" + getUserId() +
+            ", depth=" + getDepth() +
+            ", replyCount=" + getReplyCount() +
+            ", replies=" + getReplies().size() +
+            "}";
+    }
+}
@@ -0,0 +1,88 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.enumeration.ReactionTargetType;
+import com.mycompany.myapp.domain.enumeration.ReactionType;
+import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A DTO holding the number of reactions of each {@link ReactionType} on a post or on a comment.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class ReactionCountsDTO implements Serializable {
+
+    private ReactionTargetType targetType;
+
+    private Long targetId;
+
+    private Map<ReactionType, Long> counts = new EnumMap<>(ReactionType.class);
+
+    public ReactionCountsDTO() {}
+
+    /**
+     * Create the counts of a target, with all the reaction types set to zero.
+     *
+     * @param targetType the kind of the target.
+     * @param targetId the id of the target.
+     */
+    public ReactionCountsDTO(ReactionTargetType targetType, Long targetId) {
+        this.targetType = targetType;
+        this.targetId = targetId;
+        for (ReactionType reactionType : ReactionType.values()) {
+            counts.put(reactionType, 0L);
+        }
+    }
+
+    public ReactionTargetType getTargetType() {
+        return targetType;
+    }
+
+    public void setTargetType(ReactionTargetType targetType) {
+        this.targetType = targetType;
+    }
+
+    public Long getTargetId() {
+        return targetId;
+    }
+
+    public void setTargetId(Long targetId) {
+        this.targetId = targetId;
+    }
+
+    public Map<ReactionType, Long> getCounts() {
+        return counts;
+    }
+
+    public void setCounts(Map<ReactionType, Long> counts) {
+        this.counts = counts;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReactionCountsDTO)) {
+            return false;
+        }
+        ReactionCountsDTO that = (ReactionCountsDTO) o;
+        return targetType == that.targetType && Objects.equals(targetId, that.targetId) && Objects.equals(counts, that.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(targetType, targetId, counts);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReactionCountsDTO{" +
+            "targetType='" + getTargetType() + "'" +
+            ", targetId=" + getTargetId() +
+            ", counts=" + getCounts() +
+            "}";
+    }
+}
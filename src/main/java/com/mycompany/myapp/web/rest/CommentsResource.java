@@ -1,13 +1,24 @@
 package com.mycompany.myapp.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.repository.CommentsRepository;
 import com.mycompany.myapp.service.CommentsQueryService;
 import com.mycompany.myapp.service.CommentsService;
 import com.mycompany.myapp.service.criteria.CommentsCriteria;
+import com.mycompany.myapp.service.criteria.KeysetCursor;
+import com.mycompany.myapp.service.dto.BulkItemResultDTO;
 import com.mycompany.myapp.service.dto.CommentsDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.BulkRequestUtil;
+import com.mycompany.myapp.web.rest.util.NdjsonExportUtil;
+import com.mycompany.myapp.web.rest.util.PaginationHeaderUtil;
+import com.mycompany.myapp.web.rest.util.PaginationHeaderUtil.CountMode;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -18,7 +29,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -46,14 +59,26 @@ public class CommentsResource {
 
     private final CommentsQueryService commentsQueryService;
 
+    private final ApplicationProperties applicationProperties;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
     public CommentsResource(
         CommentsService commentsService,
         CommentsRepository commentsRepository,
-        CommentsQueryService commentsQueryService
+        CommentsQueryService commentsQueryService,
+        ApplicationProperties applicationProperties,
+        Validator validator,
+        ObjectMapper objectMapper
     ) {
         this.commentsService = commentsService;
         this.commentsRepository = commentsRepository;
         this.commentsQueryService = commentsQueryService;
+        this.applicationProperties = applicationProperties;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -75,6 +100,24 @@ public class CommentsResource {
             .body(commentsDTO);
     }
 
+    /**
+     * {@code POST  /comments/_bulk} : Create several new comments, with batched inserts.
+     * <p>
+     * The invalid items are rejected, without preventing the creation of the valid ones.
+     *
+     * @param commentsDTOs the commentsDTOs to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in the order of the request,
+     * or with status {@code 400 (Bad Request)} if there are too many items.
+     */
+    @PostMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResultDTO>> createCommentsBulk(@RequestBody List<CommentsDTO> commentsDTOs) {
+        LOG.debug("REST request to save a bulk of {} Comments", commentsDTOs.size());
+        if (commentsDTOs.size() > applicationProperties.getBatch().getMaxBulkItems()) {
+            throw new BadRequestAlertException("Too many items", ENTITY_NAME, "toomanyitems");
+        }
+        return ResponseEntity.ok().body(BulkRequestUtil.createAll(commentsDTOs, validator, CommentsDTO::getId, commentsService::saveAll));
+    }
+
     /**
      * {@code PUT  /comments/:id} : Updates an existing comments.
      *
@@ -146,23 +189,86 @@ public class CommentsResource {
 
     /**
      * {@code GET  /comments} : get all the comments.
+     * <p>
+     * When the {@code cursor} parameter is present (empty for the first page), keyset pagination is used instead of
+     * offset pagination: the comments are ordered by creation date then id, both descending, no count query is executed,
+     * and the cursor of the next page is returned in the {@code X-Next-Cursor} header.
+     * <p>
+     * The {@code count} parameter selects how the {@code X-Total-Count} header is obtained: {@code exact} (the default) runs
+     * a count query, {@code none} leaves it out and only tells whether there is a next page, {@code estimate} reads the
+     * statistics of the table when there is no filter, and {@code cached} reuses an exact count for a short time.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param cursor the keyset pagination cursor, optional.
+     * @param count the count mode, optional.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of comments in body.
      */
     @GetMapping("")
     public ResponseEntity<List<CommentsDTO>> getAllComments(
         CommentsCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = PaginationHeaderUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(name = PaginationHeaderUtil.COUNT_PARAMETER, required = false) String count
     ) {
         LOG.debug("REST request to get Comments by criteria: {}", criteria);
 
+        if (cursor != null) {
+            return getAllCommentsByCursor(criteria, pageable, cursor);
+        }
+        CountMode countMode;
+        try {
+            countMode = CountMode.fromParameter(count);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid count mode", ENTITY_NAME, "countinvalid");
+        }
+        if (countMode != CountMode.EXACT) {
+            return getAllCommentsBySlice(criteria, pageable, countMode);
+        }
         Page<CommentsDTO> page = commentsQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    private ResponseEntity<List<CommentsDTO>> getAllCommentsBySlice(CommentsCriteria criteria, Pageable pageable, CountMode countMode) {
+        Slice<CommentsDTO> slice = commentsQueryService.findSliceByCriteria(criteria, pageable);
+        Long totalCount =
+            switch (countMode) {
+                case CACHED -> commentsQueryService.countByCriteriaCached(criteria);
+                case ESTIMATE -> commentsQueryService
+                    .estimateCountByCriteria(criteria)
+                    .orElseGet(() -> commentsQueryService.countByCriteriaCached(criteria));
+                default -> null;
+            };
+        HttpHeaders headers = PaginationHeaderUtil.generateSlicePaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode,
+            totalCount
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    private ResponseEntity<List<CommentsDTO>> getAllCommentsByCursor(CommentsCriteria criteria, Pageable pageable, String cursor) {
+        KeysetCursor keysetCursor;
+        try {
+            keysetCursor = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        Slice<CommentsDTO> slice = commentsQueryService.findByCriteria(criteria, keysetCursor, pageable.getPageSize());
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            CommentsDTO last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = KeysetCursor.of(last.getCreatedAt(), last.getId()).encode();
+        }
+        HttpHeaders headers = PaginationHeaderUtil.generateKeysetPaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            nextCursor
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
     /**
      * {@code GET  /comments/count} : count all the comments.
      *
@@ -175,6 +281,43 @@ public class CommentsResource {
         return ResponseEntity.ok().body(commentsQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /comments/_export} : export all the comments, as newline delimited JSON.
+     * <p>
+     * The comments are ordered by id, and streamed from the database while the response is written, so that the memory use
+     * does not depend on their number.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param response the response the comments are written to, with status {@code 200 (OK)}.
+     * @throws IOException if the response cannot be written.
+     */
+    @GetMapping(value = "/_export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportComments(CommentsCriteria criteria, HttpServletResponse response) throws IOException {
+        LOG.debug("REST request to export Comments by criteria: {}", criteria);
+        long count = NdjsonExportUtil.<CommentsDTO>write(
+            response,
+            objectMapper,
+            action -> commentsQueryService.exportByCriteria(criteria, action)
+        );
+        LOG.debug("Exported {} Comments", count);
+    }
+
+    /**
+     * {@code POST  /comments/_batch} : get several comments by id.
+     *
+     * @param ids the ids of the comments to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the found comments in body, in the order of the ids,
+     * or with status {@code 400 (Bad Request)} if too many ids are requested.
+     */
+    @PostMapping("/_batch")
+    public ResponseEntity<List<CommentsDTO>> getCommentsBatch(@RequestBody List<Long> ids) {
+        LOG.debug("REST request to get a batch of Comments : {}", ids);
+        if (ids.size() > applicationProperties.getBatch().getMaxIds()) {
+            throw new BadRequestAlertException("Too many ids requested", ENTITY_NAME, "toomanyids");
+        }
+        return ResponseEntity.ok().body(commentsService.findAllByIds(ids));
+    }
+
     /**
      * {@code GET  /comments/:id} : get the "id" comments.
      *
@@ -1,10 +1,19 @@
 package com.mycompany.myapp.web.rest;
 
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.mycompany.myapp.broker.EventEnvelope;
+import com.mycompany.myapp.broker.EventEnvelopeCodec;
 import com.mycompany.myapp.broker.KafkaConsumer;
+import com.mycompany.myapp.broker.SseTopics;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
@@ -14,6 +23,8 @@ public class MsMediaKafkaResource {
 
     private static final String PRODUCER_BINDING_NAME = "binding-out-0";
 
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
     private static final Logger LOG = LoggerFactory.getLogger(MsMediaKafkaResource.class);
     private final KafkaConsumer kafkaConsumer;
     private final StreamBridge streamBridge;
@@ -23,15 +34,41 @@ public class MsMediaKafkaResource {
         this.kafkaConsumer = kafkaConsumer;
     }
 
+    /**
+     * Publish a message. A message about a post is keyed by the post id: the messages of a post go to the same partition, and are
+     * consumed in order. The message is sent as the text of an {@link EventEnvelope}.
+     */
     @PostMapping("/publish")
-    public void publish(@RequestParam("message") String message) {
+    public void publish(
+        @RequestParam("message") String message,
+        @RequestParam(name = SseTopics.POST_ID_HEADER, required = false) Long postId,
+        @RequestParam(name = SseTopics.USER_ID_HEADER, required = false) Long userId
+    ) {
         LOG.debug("REST request the message : {} to send to Kafka topic ", message);
-        streamBridge.send(PRODUCER_BINDING_NAME, message);
+        EventEnvelope envelope = new EventEnvelope(EventEnvelope.MESSAGE_EVENT, null, null, Instant.now(), TextNode.valueOf(message));
+        streamBridge.send(
+            PRODUCER_BINDING_NAME,
+            MessageBuilder.withPayload(EventEnvelopeCodec.encode(envelope))
+                .setHeader(KafkaHeaders.KEY, postId != null ? postId.toString().getBytes(StandardCharsets.UTF_8) : null)
+                .setHeader(SseTopics.POST_ID_HEADER, postId)
+                .setHeader(SseTopics.USER_ID_HEADER, userId)
+                .build()
+        );
     }
 
+    /**
+     * Open the SSE stream of the current user. The stream receives the messages for every client and, with {@code postId} or
+     * {@code userId} parameters, the messages scoped to these posts or users. A reconnecting client sends the id of the last
+     * message it received in the {@code Last-Event-ID} header, and first receives the messages it missed.
+     */
     @GetMapping("/register")
-    public ResponseBodyEmitter register(Principal principal) {
-        return kafkaConsumer.register(principal.getName());
+    public ResponseBodyEmitter register(
+        Principal principal,
+        @RequestParam(name = SseTopics.POST_ID_HEADER, required = false) List<Long> postIds,
+        @RequestParam(name = SseTopics.USER_ID_HEADER, required = false) List<Long> userIds,
+        @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) String lastEventId
+    ) {
+        return kafkaConsumer.register(principal.getName(), SseTopics.of(postIds, userIds), lastEventId);
     }
 
     @GetMapping("/unregister")
@@ -1,13 +1,23 @@
 package com.mycompany.myapp.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.repository.PostsRepository;
+import com.mycompany.myapp.service.CommentsService;
 import com.mycompany.myapp.service.PostsQueryService;
 import com.mycompany.myapp.service.PostsService;
+import com.mycompany.myapp.service.criteria.KeysetCursor;
 import com.mycompany.myapp.service.criteria.PostsCriteria;
+import com.mycompany.myapp.service.dto.CommentTreeNodeDTO;
 import com.mycompany.myapp.service.dto.PostsDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.NdjsonExportUtil;
+import com.mycompany.myapp.web.rest.util.PaginationHeaderUtil;
+import com.mycompany.myapp.web.rest.util.PaginationHeaderUtil.CountMode;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -18,7 +28,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -46,10 +58,26 @@ public class PostsResource {
 
     private final PostsQueryService postsQueryService;
 
-    public PostsResource(PostsService postsService, PostsRepository postsRepository, PostsQueryService postsQueryService) {
+    private final CommentsService commentsService;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final ObjectMapper objectMapper;
+
+    public PostsResource(
+        PostsService postsService,
+        PostsRepository postsRepository,
+        PostsQueryService postsQueryService,
+        CommentsService commentsService,
+        ApplicationProperties applicationProperties,
+        ObjectMapper objectMapper
+    ) {
         this.postsService = postsService;
         this.postsRepository = postsRepository;
         this.postsQueryService = postsQueryService;
+        this.commentsService = commentsService;
+        this.applicationProperties = applicationProperties;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -142,23 +170,86 @@ public class PostsResource {
 
     /**
      * {@code GET  /posts} : get all the posts.
+     * <p>
+     * When the {@code cursor} parameter is present (empty for the first page), keyset pagination is used instead of
+     * offset pagination: the posts are ordered by creation date then id, both descending, no count query is executed,
+     * and the cursor of the next page is returned in the {@code X-Next-Cursor} header.
+     * <p>
+     * The {@code count} parameter selects how the {@code X-Total-Count} header is obtained: {@code exact} (the default) runs
+     * a count query, {@code none} leaves it out and only tells whether there is a next page, {@code estimate} reads the
+     * statistics of the table when there is no filter, and {@code cached} reuses an exact count for a short time.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param cursor the keyset pagination cursor, optional.
+     * @param count the count mode, optional.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of posts in body.
      */
     @GetMapping("")
     public ResponseEntity<List<PostsDTO>> getAllPosts(
         PostsCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = PaginationHeaderUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(name = PaginationHeaderUtil.COUNT_PARAMETER, required = false) String count
     ) {
         LOG.debug("REST request to get Posts by criteria: {}", criteria);
 
+        if (cursor != null) {
+            return getAllPostsByCursor(criteria, pageable, cursor);
+        }
+        CountMode countMode;
+        try {
+            countMode = CountMode.fromParameter(count);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid count mode", ENTITY_NAME, "countinvalid");
+        }
+        if (countMode != CountMode.EXACT) {
+            return getAllPostsBySlice(criteria, pageable, countMode);
+        }
         Page<PostsDTO> page = postsQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    private ResponseEntity<List<PostsDTO>> getAllPostsBySlice(PostsCriteria criteria, Pageable pageable, CountMode countMode) {
+        Slice<PostsDTO> slice = postsQueryService.findSliceByCriteria(criteria, pageable);
+        Long totalCount =
+            switch (countMode) {
+                case CACHED -> postsQueryService.countByCriteriaCached(criteria);
+                case ESTIMATE -> postsQueryService
+                    .estimateCountByCriteria(criteria)
+                    .orElseGet(() -> postsQueryService.countByCriteriaCached(criteria));
+                default -> null;
+            };
+        HttpHeaders headers = PaginationHeaderUtil.generateSlicePaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode,
+            totalCount
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    private ResponseEntity<List<PostsDTO>> getAllPostsByCursor(PostsCriteria criteria, Pageable pageable, String cursor) {
+        KeysetCursor keysetCursor;
+        try {
+            keysetCursor = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        Slice<PostsDTO> slice = postsQueryService.findByCriteria(criteria, keysetCursor, pageable.getPageSize());
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            PostsDTO last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = KeysetCursor.of(last.getCreatedAt(), last.getId()).encode();
+        }
+        HttpHeaders headers = PaginationHeaderUtil.generateKeysetPaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            nextCursor
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
     /**
      * {@code GET  /posts/count} : count all the posts.
      *
@@ -171,6 +262,43 @@ public class PostsResource {
         return ResponseEntity.ok().body(postsQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /posts/_export} : export all the posts, as newline delimited JSON.
+     * <p>
+     * The posts are ordered by id, and streamed from the database while the response is written, so that the memory use
+     * does not depend on their number.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param response the response the posts are written to, with status {@code 200 (OK)}.
+     * @throws IOException if the response cannot be written.
+     */
+    @GetMapping(value = "/_export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportPosts(PostsCriteria criteria, HttpServletResponse response) throws IOException {
+        LOG.debug("REST request to export Posts by criteria: {}", criteria);
+        long count = NdjsonExportUtil.<PostsDTO>write(
+            response,
+            objectMapper,
+            action -> postsQueryService.exportByCriteria(criteria, action)
+        );
+        LOG.debug("Exported {} Posts", count);
+    }
+
+    /**
+     * {@code POST  /posts/_batch} : get several posts by id.
+     *
+     * @param ids the ids of the posts to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the found posts in body, in the order of the ids,
+     * or with status {@code 400 (Bad Request)} if too many ids are requested.
+     */
+    @PostMapping("/_batch")
+    public ResponseEntity<List<PostsDTO>> getPostsBatch(@RequestBody List<Long> ids) {
+        LOG.debug("REST request to get a batch of Posts : {}", ids);
+        if (ids.size() > applicationProperties.getBatch().getMaxIds()) {
+            throw new BadRequestAlertException("Too many ids requested", ENTITY_NAME, "toomanyids");
+        }
+        return ResponseEntity.ok().body(postsService.findAllByIds(ids));
+    }
+
     /**
      * {@code GET  /posts/:id} : get the "id" posts.
      *
@@ -184,6 +312,46 @@ public class PostsResource {
         return ResponseUtil.wrapOrNotFound(postsDTO);
     }
 
+    /**
+     * {@code GET  /posts/:id/comment-tree} : get the comment threads of the "id" posts, read with a single query.
+     * <p>
+     * The threads are truncated: at most {@code replies} top level comments and replies to each comment are returned, by
+     * creation date, down to {@code depth} levels of replies. The {@code replyCount} of each comment tells whether some of
+     * its replies were left out, so that they can be read with {@code GET /comments?parentCommentId.equals=}.
+     *
+     * @param id the id of the posts.
+     * @param depth the depth of the deepest replies, {@code 0} for the top level comments only; defaults to the maximum depth.
+     * @param replies the maximum number of replies of each comment; defaults to the maximum number of replies.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the top level comments in body,
+     * or with status {@code 400 (Bad Request)} if the limits are out of range,
+     * or with status {@code 404 (Not Found)} if the posts is not found.
+     */
+    @GetMapping("/{id}/comment-tree")
+    public ResponseEntity<List<CommentTreeNodeDTO>> getCommentTree(
+        @PathVariable("id") Long id,
+        @RequestParam(name = "depth", required = false) Integer depth,
+        @RequestParam(name = "replies", required = false) Integer replies
+    ) {
+        LOG.debug("REST request to get the comment tree of Posts : {}", id);
+        ApplicationProperties.CommentTree limits = applicationProperties.getCommentTree();
+        int maxDepth = depth != null ? depth : limits.getMaxDepth();
+        int maxReplies = replies != null ? replies : limits.getMaxReplies();
+        if (maxDepth < 0 || maxDepth > limits.getMaxDepth()) {
+            throw new BadRequestAlertException("The depth must be between 0 and " + limits.getMaxDepth(), ENTITY_NAME, "depthinvalid");
+        }
+        if (maxReplies < 1 || maxReplies > limits.getMaxReplies()) {
+            throw new BadRequestAlertException(
+                "The number of replies must be between 1 and " + limits.getMaxReplies(),
+                ENTITY_NAME,
+                "repliesinvalid"
+            );
+        }
+        if (!postsRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().body(commentsService.findTreeOfPost(id, maxDepth, maxReplies));
+    }
+
     /**
      * {@code DELETE  /posts/:id} : delete the "id" posts.
      *
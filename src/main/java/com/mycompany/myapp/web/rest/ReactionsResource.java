@@ -1,11 +1,20 @@
 package com.mycompany.myapp.web.rest;
 
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.enumeration.ReactionTargetType;
 import com.mycompany.myapp.repository.ReactionsRepository;
+import com.mycompany.myapp.service.ReactionCountersService;
 import com.mycompany.myapp.service.ReactionsQueryService;
 import com.mycompany.myapp.service.ReactionsService;
 import com.mycompany.myapp.service.criteria.ReactionsCriteria;
+import com.mycompany.myapp.service.dto.BulkItemResultDTO;
+import com.mycompany.myapp.service.dto.ReactionCountsDTO;
 import com.mycompany.myapp.service.dto.ReactionsDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.BulkRequestUtil;
+import com.mycompany.myapp.web.rest.util.PaginationHeaderUtil;
+import com.mycompany.myapp.web.rest.util.PaginationHeaderUtil.CountMode;
+import jakarta.validation.Validator;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -16,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -44,14 +54,26 @@ public class ReactionsResource {
 
     private final ReactionsQueryService reactionsQueryService;
 
+    private final ReactionCountersService reactionCountersService;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final Validator validator;
+
     public ReactionsResource(
         ReactionsService reactionsService,
         ReactionsRepository reactionsRepository,
-        ReactionsQueryService reactionsQueryService
+        ReactionsQueryService reactionsQueryService,
+        ReactionCountersService reactionCountersService,
+        ApplicationProperties applicationProperties,
+        Validator validator
     ) {
         this.reactionsService = reactionsService;
         this.reactionsRepository = reactionsRepository;
         this.reactionsQueryService = reactionsQueryService;
+        this.reactionCountersService = reactionCountersService;
+        this.applicationProperties = applicationProperties;
+        this.validator = validator;
     }
 
     /**
@@ -73,6 +95,24 @@ public class ReactionsResource {
             .body(reactionsDTO);
     }
 
+    /**
+     * {@code POST  /reactions/_bulk} : Create several new reactions, with batched inserts.
+     * <p>
+     * The invalid items are rejected, without preventing the creation of the valid ones.
+     *
+     * @param reactionsDTOs the reactionsDTOs to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in the order of the request,
+     * or with status {@code 400 (Bad Request)} if there are too many items.
+     */
+    @PostMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResultDTO>> createReactionsBulk(@RequestBody List<ReactionsDTO> reactionsDTOs) {
+        LOG.debug("REST request to save a bulk of {} Reactions", reactionsDTOs.size());
+        if (reactionsDTOs.size() > applicationProperties.getBatch().getMaxBulkItems()) {
+            throw new BadRequestAlertException("Too many items", ENTITY_NAME, "toomanyitems");
+        }
+        return ResponseEntity.ok().body(BulkRequestUtil.createAll(reactionsDTOs, validator, ReactionsDTO::getId, reactionsService::saveAll));
+    }
+
     /**
      * {@code PUT  /reactions/:id} : Updates an existing reactions.
      *
@@ -144,23 +184,57 @@ public class ReactionsResource {
 
     /**
      * {@code GET  /reactions} : get all the reactions.
+     * <p>
+     * The {@code count} parameter selects how the {@code X-Total-Count} header is obtained: {@code exact} (the default) runs
+     * a count query, {@code none} leaves it out and only tells whether there is a next page, {@code estimate} reads the
+     * statistics of the table when there is no filter, and {@code cached} reuses an exact count for a short time.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param count the count mode, optional.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of reactions in body.
      */
     @GetMapping("")
     public ResponseEntity<List<ReactionsDTO>> getAllReactions(
         ReactionsCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = PaginationHeaderUtil.COUNT_PARAMETER, required = false) String count
     ) {
         LOG.debug("REST request to get Reactions by criteria: {}", criteria);
 
+        CountMode countMode;
+        try {
+            countMode = CountMode.fromParameter(count);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid count mode", ENTITY_NAME, "countinvalid");
+        }
+        if (countMode != CountMode.EXACT) {
+            return getAllReactionsBySlice(criteria, pageable, countMode);
+        }
         Page<ReactionsDTO> page = reactionsQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    private ResponseEntity<List<ReactionsDTO>> getAllReactionsBySlice(ReactionsCriteria criteria, Pageable pageable, CountMode countMode) {
+        Slice<ReactionsDTO> slice = reactionsQueryService.findSliceByCriteria(criteria, pageable);
+        Long totalCount =
+            switch (countMode) {
+                case CACHED -> reactionsQueryService.countByCriteriaCached(criteria);
+                case ESTIMATE -> reactionsQueryService
+                    .estimateCountByCriteria(criteria)
+                    .orElseGet(() -> reactionsQueryService.countByCriteriaCached(criteria));
+                default -> null;
+            };
+        HttpHeaders headers = PaginationHeaderUtil.generateSlicePaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode,
+            totalCount
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
     /**
      * {@code GET  /reactions/count} : count all the reactions.
      *
@@ -173,6 +247,42 @@ public class ReactionsResource {
         return ResponseEntity.ok().body(reactionsQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /reactions/counters} : get the number of reactions of each type on several posts or comments.
+     *
+     * @param targetType the kind of the targets.
+     * @param targetIds the ids of the targets.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the counts of each target in body,
+     * or with status {@code 400 (Bad Request)} if too many ids are requested.
+     */
+    @GetMapping("/counters")
+    public ResponseEntity<List<ReactionCountsDTO>> getReactionCounts(
+        @RequestParam("targetType") ReactionTargetType targetType,
+        @RequestParam("targetIds") List<Long> targetIds
+    ) {
+        LOG.debug("REST request to get Reaction counts of {} : {}", targetType, targetIds);
+        if (targetIds.size() > applicationProperties.getBatch().getMaxIds()) {
+            throw new BadRequestAlertException("Too many ids requested", ENTITY_NAME, "toomanyids");
+        }
+        return ResponseEntity.ok().body(reactionCountersService.findCounts(targetType, targetIds));
+    }
+
+    /**
+     * {@code POST  /reactions/_batch} : get several reactions by id.
+     *
+     * @param ids the ids of the reactions to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the found reactions in body, in the order of the ids,
+     * or with status {@code 400 (Bad Request)} if too many ids are requested.
+     */
+    @PostMapping("/_batch")
+    public ResponseEntity<List<ReactionsDTO>> getReactionsBatch(@RequestBody List<Long> ids) {
+        LOG.debug("REST request to get a batch of Reactions : {}", ids);
+        if (ids.size() > applicationProperties.getBatch().getMaxIds()) {
+            throw new BadRequestAlertException("Too many ids requested", ENTITY_NAME, "toomanyids");
+        }
+        return ResponseEntity.ok().body(reactionsService.findAllByIds(ids));
+    }
+
     /**
      * {@code GET  /reactions/:id} : get the "id" reactions.
      *
@@ -6,6 +6,8 @@ import com.mycompany.myapp.service.ReportedCommentsService;
 import com.mycompany.myapp.service.criteria.ReportedCommentsCriteria;
 import com.mycompany.myapp.service.dto.ReportedCommentsDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.PaginationHeaderUtil;
+import com.mycompany.myapp.web.rest.util.PaginationHeaderUtil.CountMode;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -16,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -145,23 +148,61 @@ public class ReportedCommentsResource {
 
     /**
      * {@code GET  /reported-comments} : get all the reportedComments.
+     * <p>
+     * The {@code count} parameter selects how the {@code X-Total-Count} header is obtained: {@code exact} (the default) runs
+     * a count query, {@code none} leaves it out and only tells whether there is a next page, {@code estimate} reads the
+     * statistics of the table when there is no filter, and {@code cached} reuses an exact count for a short time.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param count the count mode, optional.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of reportedComments in body.
      */
     @GetMapping("")
     public ResponseEntity<List<ReportedCommentsDTO>> getAllReportedComments(
         ReportedCommentsCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = PaginationHeaderUtil.COUNT_PARAMETER, required = false) String count
     ) {
         LOG.debug("REST request to get ReportedComments by criteria: {}", criteria);
 
+        CountMode countMode;
+        try {
+            countMode = CountMode.fromParameter(count);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid count mode", ENTITY_NAME, "countinvalid");
+        }
+        if (countMode != CountMode.EXACT) {
+            return getAllReportedCommentsBySlice(criteria, pageable, countMode);
+        }
         Page<ReportedCommentsDTO> page = reportedCommentsQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    private ResponseEntity<List<ReportedCommentsDTO>> getAllReportedCommentsBySlice(
+        ReportedCommentsCriteria criteria,
+        Pageable pageable,
+        CountMode countMode
+    ) {
+        Slice<ReportedCommentsDTO> slice = reportedCommentsQueryService.findSliceByCriteria(criteria, pageable);
+        Long totalCount =
+            switch (countMode) {
+                case CACHED -> reportedCommentsQueryService.countByCriteriaCached(criteria);
+                case ESTIMATE -> reportedCommentsQueryService
+                    .estimateCountByCriteria(criteria)
+                    .orElseGet(() -> reportedCommentsQueryService.countByCriteriaCached(criteria));
+                default -> null;
+            };
+        HttpHeaders headers = PaginationHeaderUtil.generateSlicePaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode,
+            totalCount
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
     /**
      * {@code GET  /reported-comments/count} : count all the reportedComments.
      *
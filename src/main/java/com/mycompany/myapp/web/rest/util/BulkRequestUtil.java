@@ -0,0 +1,96 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.service.dto.BulkItemResultDTO;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import org.springframework.dao.NonTransientDataAccessException;
+
+/**
+ * Utility class for the bulk creation endpoints: the items are validated one by one, the valid ones are saved together, and
+ * a result is reported for each item.
+ * <p>
+ * An item can also be rejected by the database, for example for a reference to a missing entity, which fails the save of all
+ * the items: the items are then saved one by one, so that only the failing ones are rejected.
+ */
+public final class BulkRequestUtil {
+
+    private static final String CONSTRAINT_MESSAGE =
+        "The item is rejected by the database, for example for a reference to a missing entity";
+
+    private BulkRequestUtil() {}
+
+    /**
+     * Validate and save the items of a bulk creation request.
+     *
+     * @param items the items of the request.
+     * @param validator the bean validator.
+     * @param idGetter the getter of the id of an item; an item which already has an id is rejected.
+     * @param saveAll the function saving the valid items in one transaction, and returning them, with their ids, in the same
+     * order.
+     * @param <D> the DTO type.
+     * @return the result of each item, in the order of the request.
+     */
+    public static <D> List<BulkItemResultDTO> createAll(
+        List<D> items,
+        Validator validator,
+        Function<D, Long> idGetter,
+        UnaryOperator<List<D>> saveAll
+    ) {
+        List<BulkItemResultDTO> results = new ArrayList<>(items.size());
+        List<D> validItems = new ArrayList<>(items.size());
+        List<Integer> validIndexes = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            D item = items.get(i);
+            if (item == null) {
+                results.add(BulkItemResultDTO.rejected(i, "itemnull", "The item is null"));
+                continue;
+            }
+            if (idGetter.apply(item) != null) {
+                results.add(BulkItemResultDTO.rejected(i, "idexists", "A new entity cannot already have an ID"));
+                continue;
+            }
+            Set<ConstraintViolation<D>> violations = validator.validate(item);
+            if (!violations.isEmpty()) {
+                String message = violations
+                    .stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+                results.add(BulkItemResultDTO.rejected(i, "validation", message));
+                continue;
+            }
+            results.add(null);
+            validItems.add(item);
+            validIndexes.add(i);
+        }
+        if (validItems.isEmpty()) {
+            return results;
+        }
+        try {
+            Iterator<D> saved = saveAll.apply(validItems).iterator();
+            for (Integer index : validIndexes) {
+                results.set(index, BulkItemResultDTO.created(index, idGetter.apply(saved.next())));
+            }
+        } catch (NonTransientDataAccessException e) {
+            // The transaction of the batch was rolled back: nothing was saved
+            for (int i = 0; i < validItems.size(); i++) {
+                int index = validIndexes.get(i);
+                try {
+                    D saved = saveAll.apply(List.of(validItems.get(i))).get(0);
+                    results.set(index, BulkItemResultDTO.created(index, idGetter.apply(saved)));
+                } catch (NonTransientDataAccessException itemError) {
+                    // The message of the error is not reported, as it can hold the SQL statement
+                    results.set(index, BulkItemResultDTO.rejected(index, "constraint", CONSTRAINT_MESSAGE));
+                }
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,55 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import org.springframework.http.MediaType;
+
+/**
+ * Utility class for the export endpoints, writing a stream of items as newline delimited JSON.
+ * <p>
+ * Each item is serialized as soon as it is read, into the buffered response, so that the response is sent in chunks and
+ * the items are never held in memory all together.
+ */
+public final class NdjsonExportUtil {
+
+    private NdjsonExportUtil() {}
+
+    /**
+     * Write the items of an export to the response, one JSON document per line.
+     *
+     * @param response the HTTP response.
+     * @param objectMapper the object mapper serializing the items.
+     * @param export the export, running its action for each item and returning the number of items.
+     * @param <D> the DTO type.
+     * @return the number of written items.
+     * @throws IOException if the response cannot be written.
+     */
+    public static <D> long write(HttpServletResponse response, ObjectMapper objectMapper, ToLongFunction<Consumer<D>> export)
+        throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        // Flushing after each item would send one chunk per line
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            try {
+                return export.applyAsLong(item -> {
+                    try {
+                        writer.writeValue(generator, item);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
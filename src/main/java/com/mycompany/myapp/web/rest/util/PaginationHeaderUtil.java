@@ -0,0 +1,149 @@
+package com.mycompany.myapp.web.rest.util;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * Utility class for the pagination headers of the list endpoints which do not use offset pagination.
+ * <p>
+ * It complements {@link PaginationUtil}, which requires a {@link Page} and so a count query.
+ */
+public final class PaginationHeaderUtil {
+
+    public static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+
+    public static final String CURSOR_PARAMETER = "cursor";
+
+    public static final String COUNT_PARAMETER = "count";
+
+    public static final String HEADER_TOTAL_COUNT_MODE = "X-Total-Count-Mode";
+
+    public static final String HEADER_HAS_NEXT_PAGE = "X-Has-Next-Page";
+
+    private static final String HEADER_LINK_FORMAT = "<{0}>; rel=\"{1}\"";
+
+    private PaginationHeaderUtil() {}
+
+    /**
+     * Generate the headers of a keyset paginated response: the cursor of the next page, and the matching {@code Link} header.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param nextCursor the encoded cursor of the next page, or {@code null} if this is the last page.
+     * @return the http headers.
+     */
+    public static HttpHeaders generateKeysetPaginationHttpHeaders(UriComponentsBuilder uriBuilder, String nextCursor) {
+        HttpHeaders headers = new HttpHeaders();
+        if (nextCursor != null) {
+            headers.add(HEADER_NEXT_CURSOR, nextCursor);
+            String link = uriBuilder.replaceQueryParam(CURSOR_PARAMETER, nextCursor).replaceQueryParam("page").toUriString();
+            headers.add(HttpHeaders.LINK, MessageFormat.format(HEADER_LINK_FORMAT, link, "next"));
+        }
+        return headers;
+    }
+
+    /**
+     * Generate the headers of an offset paginated response which was read without a count query.
+     * <p>
+     * With a total count, the headers are the ones of {@link PaginationUtil}. Without, the {@code X-Total-Count} header and the
+     * {@code last} link are left out. In both cases, the {@code X-Has-Next-Page} header tells whether there is a next page,
+     * and the {@code X-Total-Count-Mode} header how the total count was obtained.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param slice the page of entities.
+     * @param countMode the way the total count was obtained.
+     * @param totalCount the total count, or {@code null} for {@link CountMode#NONE}.
+     * @param <T> the type of the entities.
+     * @return the http headers.
+     */
+    public static <T> HttpHeaders generateSlicePaginationHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        Slice<T> slice,
+        CountMode countMode,
+        Long totalCount
+    ) {
+        HttpHeaders headers;
+        if (totalCount != null) {
+            // An estimate or a stale count must not hide the pages which were actually read
+            long minimumCount = slice.getPageable().getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+            Page<T> page = new PageImpl<>(slice.getContent(), slice.getPageable(), Math.max(totalCount, minimumCount));
+            headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
+        } else {
+            headers = new HttpHeaders();
+            List<String> links = new ArrayList<>();
+            if (slice.hasNext()) {
+                links.add(pageLink(uriBuilder, slice.getNumber() + 1, slice.getSize(), "next"));
+            }
+            if (slice.hasPrevious()) {
+                links.add(pageLink(uriBuilder, slice.getNumber() - 1, slice.getSize(), "prev"));
+            }
+            links.add(pageLink(uriBuilder, 0, slice.getSize(), "first"));
+            headers.add(HttpHeaders.LINK, String.join(",", links));
+        }
+        headers.add(HEADER_HAS_NEXT_PAGE, Boolean.toString(slice.hasNext()));
+        headers.add(HEADER_TOTAL_COUNT_MODE, countMode.getValue());
+        return headers;
+    }
+
+    private static String pageLink(UriComponentsBuilder uriBuilder, int page, int size, String relType) {
+        String link = uriBuilder.replaceQueryParam("page", page).replaceQueryParam("size", size).toUriString();
+        return MessageFormat.format(HEADER_LINK_FORMAT, link, relType);
+    }
+
+    /**
+     * How the total count of an offset paginated response is obtained, selected by the {@value #COUNT_PARAMETER} parameter.
+     */
+    public enum CountMode {
+        /**
+         * Exact count, with a count query on each request; the default.
+         */
+        EXACT("exact"),
+        /**
+         * No count: only whether there is a next page.
+         */
+        NONE("none"),
+        /**
+         * Estimate from the statistics of the table when there is no filter, else the same as {@link #CACHED}.
+         */
+        ESTIMATE("estimate"),
+        /**
+         * Exact count, reused for a short time for the same criteria.
+         */
+        CACHED("cached");
+
+        private final String value;
+
+        CountMode(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * Read the count mode of a request.
+         *
+         * @param value the value of the {@value #COUNT_PARAMETER} parameter, may be {@code null}.
+         * @return the count mode, {@link #EXACT} if the parameter is missing.
+         * @throws IllegalArgumentException if the value is not a count mode.
+         */
+        public static CountMode fromParameter(String value) {
+            if (value == null) {
+                return EXACT;
+            }
+            for (CountMode countMode : values()) {
+                if (countMode.value.equalsIgnoreCase(value)) {
+                    return countMode;
+                }
+            }
+            throw new IllegalArgumentException("Unknown count mode: " + value);
+        }
+    }
+}
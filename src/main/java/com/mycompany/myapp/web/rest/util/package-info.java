@@ -0,0 +1,4 @@
+/**
+ * Rest layer utilities.
+ */
+package com.mycompany.myapp.web.rest.util;
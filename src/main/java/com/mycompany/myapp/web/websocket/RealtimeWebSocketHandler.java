@@ -0,0 +1,109 @@
+package com.mycompany.myapp.web.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.broker.KafkaConsumer;
+import com.mycompany.myapp.broker.SseTopics;
+import java.io.IOException;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * WebSocket endpoint receiving the same messages as the SSE stream of {@code /api/ms-media-kafka/register}, on a connection
+ * whose topics can change.
+ * <p>
+ * The connection URL takes the same {@code postId} and {@code userId} parameters as the SSE stream, a {@code lastEventId}
+ * parameter to resume after the last frame received, and an {@code encoding} parameter, {@code json} (the default) or
+ * {@code binary}, described by {@link WebSocketConnection.Encoding}. The client then sends text frames like
+ * {@code {"action":"subscribe","postIds":[1,2],"userIds":[7]}} or {@code {"action":"unsubscribe","postIds":[1]}}.
+ */
+@Component
+public class RealtimeWebSocketHandler extends TextWebSocketHandler {
+
+    public static final String PATH = "/api/ms-media-kafka/websocket";
+
+    private static final String KEY_ATTRIBUTE = "realtimeKey";
+
+    private static final Logger LOG = LoggerFactory.getLogger(RealtimeWebSocketHandler.class);
+
+    private final KafkaConsumer kafkaConsumer;
+
+    private final ObjectMapper objectMapper;
+
+    public RealtimeWebSocketHandler(KafkaConsumer kafkaConsumer, ObjectMapper objectMapper) {
+        this.kafkaConsumer = kafkaConsumer;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        MultiValueMap<String, String> parameters = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams();
+        Set<String> topics;
+        try {
+            topics = SseTopics.of(ids(parameters.get(SseTopics.POST_ID_HEADER)), ids(parameters.get(SseTopics.USER_ID_HEADER)));
+        } catch (NumberFormatException e) {
+            LOG.debug("Closing websocket session {}: invalid id, {}", session.getId(), e.getMessage());
+            session.close(CloseStatus.BAD_DATA);
+            return;
+        }
+        WebSocketConnection.Encoding encoding = "binary".equalsIgnoreCase(parameters.getFirst("encoding"))
+            ? WebSocketConnection.Encoding.BINARY
+            : WebSocketConnection.Encoding.JSON;
+        // A user can open several connections, for example one in each tab
+        Principal principal = session.getPrincipal();
+        String key = (principal != null ? principal.getName() : "anonymous") + "/" + session.getId();
+        session.getAttributes().put(KEY_ATTRIBUTE, key);
+        kafkaConsumer.register(key, topics, parameters.getFirst("lastEventId"), new WebSocketConnection(session, encoding));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        Command command;
+        try {
+            command = objectMapper.readValue(message.getPayload(), Command.class);
+        } catch (JsonProcessingException e) {
+            LOG.debug("Closing websocket session {}: invalid command, {}", session.getId(), e.getMessage());
+            session.close(CloseStatus.BAD_DATA);
+            return;
+        }
+        String key = (String) session.getAttributes().get(KEY_ATTRIBUTE);
+        Set<String> topics = SseTopics.of(command.postIds(), command.userIds());
+        switch (command.action() == null ? "" : command.action().toLowerCase(Locale.ROOT)) {
+            case "subscribe" -> kafkaConsumer.subscribe(key, topics);
+            case "unsubscribe" -> kafkaConsumer.unsubscribe(key, topics);
+            default -> {
+                LOG.debug("Closing websocket session {}: unknown action {}", session.getId(), command.action());
+                session.close(CloseStatus.BAD_DATA);
+            }
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        String key = (String) session.getAttributes().get(KEY_ATTRIBUTE);
+        if (key != null) {
+            kafkaConsumer.unregister(key);
+        }
+    }
+
+    private static List<Long> ids(List<String> values) {
+        return values == null ? null : values.stream().flatMap(value -> Arrays.stream(value.split(","))).map(Long::valueOf).toList();
+    }
+
+    /**
+     * A change of the topics of a connection.
+     */
+    record Command(String action, List<Long> postIds, List<Long> userIds) {}
+}
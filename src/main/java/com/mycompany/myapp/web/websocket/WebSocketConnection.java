@@ -0,0 +1,114 @@
+package com.mycompany.myapp.web.websocket;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.mycompany.myapp.broker.RealtimeConnection;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+/**
+ * Connection of a WebSocket client, in one of the two {@link Encoding}s. The heartbeats are ping frames.
+ */
+class WebSocketConnection implements RealtimeConnection {
+
+    /**
+     * Encoding of the frames sent to a client.
+     * <ul>
+     * <li>{@code JSON}: text frames like {@code {"id":"…","data":"…"}}, with an {@code "event":"batch"} field and an object as
+     * data for a batch.</li>
+     * <li>{@code BINARY}: binary frames made of the kind of the frame on one byte (0 for a message, 1 for a batch), the length of
+     * the id on one byte, the id in ASCII, then the data in UTF-8 up to the end of the frame.</li>
+     * </ul>
+     */
+    enum Encoding {
+        JSON,
+        BINARY,
+    }
+
+    static final byte MESSAGE_FRAME = 0;
+
+    static final byte BATCH_FRAME = 1;
+
+    /**
+     * Maximum time spent sending a frame, and maximum size of the frames waiting while another is being sent.
+     */
+    private static final int SEND_TIME_LIMIT = 10_000;
+
+    private static final int BUFFER_SIZE_LIMIT = 512 * 1024;
+
+    private static final Logger LOG = LoggerFactory.getLogger(WebSocketConnection.class);
+
+    private final WebSocketSession session;
+
+    private final Encoding encoding;
+
+    WebSocketConnection(WebSocketSession session, Encoding encoding) {
+        this.session = new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT, BUFFER_SIZE_LIMIT);
+        this.encoding = encoding;
+    }
+
+    @Override
+    public void send(String id, String name, String data) throws IOException {
+        try {
+            if (encoding == Encoding.BINARY) {
+                session.sendMessage(new BinaryMessage(encodeBinary(id, name, data)));
+            } else {
+                session.sendMessage(new TextMessage(encodeJson(id, name, data)));
+            }
+        } catch (SessionLimitExceededException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+        try {
+            session.sendMessage(new PingMessage());
+        } catch (SessionLimitExceededException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            // The client reconnects, with the id of the last frame it received
+            session.close(CloseStatus.GOING_AWAY);
+        } catch (IOException e) {
+            LOG.debug("Error closing websocket session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public String transport() {
+        return "websocket";
+    }
+
+    static String encodeJson(String id, String name, String data) {
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        StringBuilder json = new StringBuilder(data.length() + id.length() + 32).append("{\"id\":\"").append(encoder.quoteAsString(id));
+        if (name == null) {
+            return json.append("\",\"data\":\"").append(encoder.quoteAsString(data)).append("\"}").toString();
+        }
+        // The data of a batch is a JSON object
+        json.append("\",\"event\":\"").append(encoder.quoteAsString(name));
+        return json.append("\",\"data\":").append(data).append('}').toString();
+    }
+
+    static ByteBuffer encodeBinary(String id, String name, String data) {
+        byte[] idBytes = id.getBytes(StandardCharsets.US_ASCII);
+        byte[] dataBytes = data.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(2 + idBytes.length + dataBytes.length);
+        frame.put(name == null ? MESSAGE_FRAME : BATCH_FRAME).put((byte) idBytes.length).put(idBytes).put(dataBytes);
+        return frame.flip();
+    }
+}
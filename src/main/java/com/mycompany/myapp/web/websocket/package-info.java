@@ -0,0 +1,4 @@
+/**
+ * WebSocket layer.
+ */
+package com.mycompany.myapp.web.websocket;
@@ -0,0 +1,99 @@
+package com.mycompany.myapp.broker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark comparing the {@link EventEnvelopeCodec} with JSON text on the event of an updated comment: the envelope is
+ * written as a JSON object with the same fields. It is not run by the build; run its {@link #main} method from the test
+ * classpath, which first prints the size of the payloads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventEnvelopeCodecBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private EventEnvelope envelope;
+
+    private JsonNode json;
+
+    private byte[] encodedEnvelope;
+
+    private byte[] encodedJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        envelope = commentEvent();
+        json = asJson(envelope);
+        encodedEnvelope = EventEnvelopeCodec.encode(envelope);
+        encodedJson = MAPPER.writeValueAsBytes(json);
+    }
+
+    @Benchmark
+    public byte[] encodeEnvelope() {
+        return EventEnvelopeCodec.encode(envelope);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return MAPPER.writeValueAsBytes(json);
+    }
+
+    @Benchmark
+    public EventEnvelope decodeEnvelope() {
+        return EventEnvelopeCodec.decode(encodedEnvelope);
+    }
+
+    @Benchmark
+    public JsonNode decodeJson() throws IOException {
+        return MAPPER.readTree(encodedJson);
+    }
+
+    private static EventEnvelope commentEvent() throws IOException {
+        JsonNode delta = MAPPER.readTree(
+            "{\"id\":987654,\"content\":\"Nice picture!\",\"createdAt\":\"2025-01-01T10:15:30.123Z\",\"updatedAt\":null," +
+            "\"userId\":42,\"parentId\":null,\"depth\":0,\"post\":{\"id\":123456,\"content\":\"AAAAAAA\"," +
+            "\"createdAt\":\"2025-01-01T10:00:00Z\",\"isPrivate\":false,\"mediaUrl\":\"https://media.example.com/p/123456.jpg\"," +
+            "\"updatedAt\":null,\"userId\":7}}"
+        );
+        return new EventEnvelope("UPDATED", "Comments", 987654L, Instant.parse("2025-01-01T10:15:30.200Z"), delta);
+    }
+
+    private static JsonNode asJson(EventEnvelope envelope) {
+        return MAPPER.createObjectNode()
+            .put("eventType", envelope.eventType())
+            .put("entity", envelope.entity())
+            .put("entityId", envelope.entityId())
+            .put("occurredAt", envelope.occurredAt().toString())
+            .set("delta", envelope.delta());
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        EventEnvelope envelope = commentEvent();
+        System.out.printf("%-9s %4d bytes%n", "envelope", EventEnvelopeCodec.encode(envelope).length);
+        System.out.printf("%-9s %4d bytes%n", "json", MAPPER.writeValueAsBytes(asJson(envelope)).length);
+        new Runner(new OptionsBuilder().include(EventEnvelopeCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
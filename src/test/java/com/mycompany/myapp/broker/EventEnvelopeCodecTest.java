@@ -0,0 +1,90 @@
+package com.mycompany.myapp.broker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class EventEnvelopeCodecTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void envelopeRoundTripTest() throws Exception {
+        JsonNode delta = MAPPER.readTree(
+            "{\"id\":12,\"content\":\"é\",\"score\":-1.5,\"isPrivate\":false,\"tags\":[\"a\",null]," +
+            "\"post\":{\"id\":3,\"content\":\"post\",\"isPrivate\":true}}"
+        );
+        EventEnvelope envelope = new EventEnvelope("UPDATED", "Comments", 12L, Instant.ofEpochMilli(1735726530123L), delta);
+
+        byte[] payload = EventEnvelopeCodec.encode(envelope);
+
+        assertThat(EventEnvelopeCodec.isEnvelope(payload)).isTrue();
+        assertThat(EventEnvelopeCodec.decode(payload)).isEqualTo(envelope);
+        assertThat(payload.length).isLessThan(MAPPER.writeValueAsBytes(MAPPER.convertValue(envelope, JsonNode.class)).length);
+    }
+
+    @Test
+    void nullFieldsOfTheDeltaAreOmittedTest() throws Exception {
+        JsonNode delta = MAPPER.readTree("{\"id\":12,\"content\":null}");
+        EventEnvelope envelope = new EventEnvelope("UPDATED", "Posts", 12L, null, delta);
+
+        EventEnvelope decoded = EventEnvelopeCodec.decode(EventEnvelopeCodec.encode(envelope));
+
+        assertThat(decoded.data()).isEqualTo("{\"id\":12}");
+    }
+
+    @Test
+    void messageIsSentAsItsTextTest() {
+        EventEnvelope envelope = new EventEnvelope(EventEnvelope.MESSAGE_EVENT, null, null, null, TextNode.valueOf("hello"));
+
+        EventEnvelope decoded = EventEnvelopeCodec.decode(EventEnvelopeCodec.encode(envelope));
+
+        assertThat(decoded.entity()).isNull();
+        assertThat(decoded.entityId()).isNull();
+        assertThat(decoded.data()).isEqualTo("hello");
+    }
+
+    @Test
+    void unknownFieldsAreSkippedTest() {
+        byte[] payload = EventEnvelopeCodec.encode(new EventEnvelope("DELETED", "Posts", 7L, null, null));
+        // A varint field 9 and a length delimited field 10, written by a newer producer
+        byte[] unknownFields = { (byte) (9 << 2), 84, (byte) ((10 << 2) | 2), 4, 'a', 'b' };
+        byte[] newer = Arrays.copyOf(payload, payload.length + unknownFields.length);
+        System.arraycopy(unknownFields, 0, newer, payload.length, unknownFields.length);
+
+        EventEnvelope decoded = EventEnvelopeCodec.decode(newer);
+
+        assertThat(decoded).isEqualTo(new EventEnvelope("DELETED", "Posts", 7L, null, null));
+    }
+
+    @Test
+    void textRecordIsNotAnEnvelopeTest() {
+        assertThat(EventEnvelopeCodec.isEnvelope("{\"id\":1}".getBytes(StandardCharsets.UTF_8))).isFalse();
+        assertThat(EventEnvelopeCodec.isEnvelope(new byte[0])).isFalse();
+    }
+
+    @Test
+    void unknownVersionIsRejectedTest() {
+        byte[] payload = EventEnvelopeCodec.encode(new EventEnvelope("DELETED", "Posts", 7L, null, null));
+        payload[0] = EventEnvelopeCodec.FORMAT_VERSION + 1;
+
+        assertThat(EventEnvelopeCodec.isEnvelope(payload)).isTrue();
+        assertThatThrownBy(() -> EventEnvelopeCodec.decode(payload)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void truncatedPayloadIsRejectedTest() {
+        byte[] payload = EventEnvelopeCodec.encode(new EventEnvelope("DELETED", "Posts", 7L, null, TextNode.valueOf("deleted")));
+
+        assertThatThrownBy(() -> EventEnvelopeCodec.decode(Arrays.copyOf(payload, payload.length - 3))).isInstanceOf(
+            IllegalArgumentException.class
+        );
+    }
+}
@@ -0,0 +1,97 @@
+package com.mycompany.myapp.broker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+class KafkaConsumerMetricsTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition(KafkaRetryPublisher.MAIN_TOPIC, 3);
+
+    private MeterRegistry meterRegistry;
+
+    private KafkaConsumerMetrics metrics;
+
+    private Consumer<?, ?> consumer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new KafkaConsumerMetrics(meterRegistry);
+        consumer = mock(Consumer.class);
+    }
+
+    @Test
+    void lagCountsTheRecordsNotFetchedAndNotProcessedYetTest() {
+        // The poll returned the records 10 and 11, and 4 more are in the partition
+        when(consumer.position(PARTITION)).thenReturn(12L);
+        when(consumer.currentLag(PARTITION)).thenReturn(OptionalLong.of(4));
+
+        metrics.received(record(10));
+        metrics.received(record(11));
+        assertThat(lag()).isEqualTo(6);
+
+        metrics.processed(record(10), TimeUnit.MILLISECONDS.toNanos(3));
+        assertThat(lag()).isEqualTo(5);
+
+        // The next poll returned the record 12, and 3 more are in the partition
+        metrics.processed(record(11), TimeUnit.MILLISECONDS.toNanos(5));
+        when(consumer.position(PARTITION)).thenReturn(13L);
+        when(consumer.currentLag(PARTITION)).thenReturn(OptionalLong.of(3));
+        metrics.received(record(12));
+        assertThat(lag()).isEqualTo(4);
+
+        assertThat(meterRegistry.get("kafka.consumer.processing").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("kafka.consumer.processing").timer().max(TimeUnit.MILLISECONDS)).isEqualTo(5);
+    }
+
+    @Test
+    void lagIsTheRecordsWaitingForTheWorkersWithoutTheLagOfTheConsumerTest() {
+        when(consumer.currentLag(PARTITION)).thenReturn(OptionalLong.empty());
+
+        metrics.received(record(10));
+        metrics.received(record(11));
+
+        assertThat(lag()).isEqualTo(2);
+    }
+
+    @Test
+    void recordsOfTheRetryTopicsHaveNoLagTest() {
+        Message<byte[]> retry = MessageBuilder.withPayload(new byte[0])
+            .setHeader(KafkaHeaders.RECEIVED_TOPIC, KafkaRetryPublisher.retryTopic(0))
+            .setHeader(KafkaHeaders.RECEIVED_PARTITION, 3)
+            .setHeader(KafkaHeaders.OFFSET, 10L)
+            .build();
+
+        metrics.received(retry);
+        metrics.processed(retry, 1);
+
+        assertThat(meterRegistry.find("kafka.consumer.lag").gauge()).isNull();
+        assertThat(meterRegistry.get("kafka.consumer.processing").timer().count()).isEqualTo(1);
+    }
+
+    private double lag() {
+        return meterRegistry.get("kafka.consumer.lag").tag("topic", PARTITION.topic()).tag("partition", "3").gauge().value();
+    }
+
+    private Message<byte[]> record(long offset) {
+        return MessageBuilder.withPayload(new byte[0])
+            .setHeader(KafkaHeaders.RECEIVED_TOPIC, PARTITION.topic())
+            .setHeader(KafkaHeaders.RECEIVED_PARTITION, PARTITION.partition())
+            .setHeader(KafkaHeaders.OFFSET, offset)
+            .setHeader(KafkaHeaders.CONSUMER, consumer)
+            .build();
+    }
+}
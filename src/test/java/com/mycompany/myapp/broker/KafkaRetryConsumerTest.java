@@ -0,0 +1,105 @@
+package com.mycompany.myapp.broker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.mock.env.MockEnvironment;
+
+class KafkaRetryConsumerTest {
+
+    private static final String DESTINATION_PROPERTY = "spring.cloud.stream.bindings." + KafkaRetryConsumer.BINDING_NAME + ".destination";
+
+    private ApplicationProperties applicationProperties;
+
+    private KafkaRetryPublisher publisher;
+
+    private KafkaConsumer kafkaConsumer;
+
+    private KafkaRetryConsumer retryConsumer;
+
+    private Acknowledgment acknowledgment;
+
+    @BeforeEach
+    void setUp() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getKafka().setInstanceId("ms-media-0");
+        applicationProperties.getKafka().setRetryAttempts(2);
+        applicationProperties.getKafka().setRetryInitialDelay(Duration.ofSeconds(10));
+        publisher = new KafkaRetryPublisher(mock(StreamBridge.class), applicationProperties, new SimpleMeterRegistry());
+        kafkaConsumer = mock(KafkaConsumer.class);
+        retryConsumer = new KafkaRetryConsumer(
+            kafkaConsumer,
+            publisher,
+            new MockEnvironment().withProperty(DESTINATION_PROPERTY, "sse-topic-retry-0, sse-topic-retry-1")
+        );
+        acknowledgment = mock(Acknowledgment.class);
+    }
+
+    @Test
+    void recordNotDueYetIsFetchedAgainAtItsDueTimeTest() {
+        long timestamp = System.currentTimeMillis();
+
+        retryConsumer.accept(retry("ms-media-0", timestamp));
+
+        ArgumentCaptor<Duration> sleep = ArgumentCaptor.forClass(Duration.class);
+        verify(acknowledgment).nack(sleep.capture());
+        assertThat(sleep.getValue()).isBetween(Duration.ofSeconds(9), Duration.ofSeconds(10));
+        verify(acknowledgment, never()).acknowledge();
+        verify(kafkaConsumer, never()).process(any());
+    }
+
+    @Test
+    void dueRecordIsProcessedThenAcknowledgedTest() {
+        Message<byte[]> retry = retry("ms-media-0", System.currentTimeMillis() - 10_000);
+
+        retryConsumer.accept(retry);
+
+        verify(kafkaConsumer).process(retry);
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void recordOfAnotherInstanceIsOnlyAcknowledgedTest() {
+        retryConsumer.accept(retry("ms-media-1", System.currentTimeMillis()));
+
+        verify(kafkaConsumer, never()).process(any());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void destinationsNotMatchingTheRetryAttemptsAreRejectedTest() {
+        MockEnvironment environment = new MockEnvironment().withProperty(
+            DESTINATION_PROPERTY,
+            "sse-topic-retry-0,sse-topic-retry-1,sse-topic-retry-2"
+        );
+
+        assertThatThrownBy(() -> new KafkaRetryConsumer(kafkaConsumer, publisher, environment))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("sse-topic-retry-0,sse-topic-retry-1,");
+    }
+
+    private Message<byte[]> retry(String origin, long timestamp) {
+        return MessageBuilder.withPayload("message".getBytes(StandardCharsets.UTF_8))
+            .setHeader(KafkaRetryPublisher.ORIGIN_HEADER, origin.getBytes(StandardCharsets.UTF_8))
+            .setHeader(KafkaHeaders.RECEIVED_TOPIC, KafkaRetryPublisher.retryTopic(0))
+            .setHeader(KafkaHeaders.RECEIVED_TIMESTAMP, timestamp)
+            .setHeader(KafkaHeaders.ACKNOWLEDGMENT, acknowledgment)
+            .build();
+    }
+}
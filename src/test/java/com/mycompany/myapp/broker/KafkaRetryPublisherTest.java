@@ -0,0 +1,140 @@
+package com.mycompany.myapp.broker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+class KafkaRetryPublisherTest {
+
+    private StreamBridge streamBridge;
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties applicationProperties;
+
+    private KafkaRetryPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        streamBridge = mock(StreamBridge.class);
+        when(streamBridge.send(anyString(), any())).thenReturn(true);
+        meterRegistry = new SimpleMeterRegistry();
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getKafka().setInstanceId("ms-media-1");
+        applicationProperties.getKafka().setRetryAttempts(2);
+        applicationProperties.getKafka().setRetryInitialDelay(Duration.ofSeconds(1));
+        applicationProperties.getKafka().setRetryMultiplier(10);
+        publisher = new KafkaRetryPublisher(streamBridge, applicationProperties, meterRegistry);
+    }
+
+    @Test
+    void failedRecordGoesThroughTheRetryTopicsThenToTheDeadLetterTopicTest() {
+        Message<byte[]> received = MessageBuilder.withPayload("message".getBytes(StandardCharsets.UTF_8))
+            .setHeader(KafkaHeaders.RECEIVED_KEY, "12".getBytes(StandardCharsets.UTF_8))
+            .setHeader(KafkaHeaders.RECEIVED_TOPIC, KafkaRetryPublisher.MAIN_TOPIC)
+            .setHeader(KafkaHeaders.RECEIVED_PARTITION, 3)
+            .setHeader(KafkaHeaders.OFFSET, 42L)
+            .setHeader(SseTopics.POST_ID_HEADER, 12L)
+            .build();
+
+        publisher.retry(received, new IllegalStateException("first"));
+        Message<byte[]> firstRetry = sent(KafkaRetryPublisher.retryTopic(0));
+
+        assertThat(firstRetry.getPayload()).isEqualTo(received.getPayload());
+        assertThat(firstRetry.getHeaders())
+            .containsEntry(KafkaHeaders.KEY, received.getHeaders().get(KafkaHeaders.RECEIVED_KEY))
+            .containsEntry(SseTopics.POST_ID_HEADER, 12L)
+            .containsEntry(KafkaRetryPublisher.ORIGINAL_TOPIC_HEADER, KafkaRetryPublisher.MAIN_TOPIC)
+            .containsEntry(KafkaRetryPublisher.ORIGINAL_OFFSET_HEADER, 42L)
+            .containsEntry(KafkaRetryPublisher.ATTEMPT_HEADER, 1)
+            .doesNotContainKey(KafkaHeaders.RECEIVED_TOPIC);
+        assertThat(publisher.isLocal(firstRetry)).isTrue();
+        assertThat(publisher.dueAt(asReceived(firstRetry, KafkaRetryPublisher.retryTopic(0), 5_000))).isEqualTo(6_000);
+
+        publisher.retry(asReceived(firstRetry, KafkaRetryPublisher.retryTopic(0), 5_000), new IllegalStateException("second"));
+        Message<byte[]> secondRetry = sent(KafkaRetryPublisher.retryTopic(1));
+        assertThat(publisher.dueAt(asReceived(secondRetry, KafkaRetryPublisher.retryTopic(1), 5_000))).isEqualTo(15_000);
+
+        publisher.retry(asReceived(secondRetry, KafkaRetryPublisher.retryTopic(1), 5_000), new IllegalStateException("third"));
+        Message<byte[]> deadLetter = sent(KafkaRetryPublisher.DEAD_LETTER_TOPIC);
+        assertThat(deadLetter.getHeaders())
+            .containsEntry(KafkaRetryPublisher.ATTEMPT_HEADER, 2)
+            .containsEntry(KafkaRetryPublisher.ORIGINAL_OFFSET_HEADER, 42L)
+            .containsEntry(KafkaRetryPublisher.ERROR_HEADER, "java.lang.IllegalStateException: third");
+
+        assertThat(meterRegistry.counter("kafka.consumer.retries", "topic", KafkaRetryPublisher.retryTopic(0)).count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("kafka.consumer.retries", "topic", KafkaRetryPublisher.retryTopic(1)).count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("kafka.consumer.dead.letters").count()).isEqualTo(1);
+    }
+
+    @Test
+    void instanceIdIsTheConfiguredOneTest() {
+        applicationProperties.getKafka().setInstanceId("ms-media-0");
+        publisher = new KafkaRetryPublisher(streamBridge, applicationProperties, meterRegistry);
+        Message<byte[]> retry = MessageBuilder.withPayload(new byte[0])
+            .setHeader(KafkaRetryPublisher.ORIGIN_HEADER, "ms-media-0".getBytes(StandardCharsets.UTF_8))
+            .build();
+
+        assertThat(publisher.isLocal(retry)).isTrue();
+    }
+
+    @Test
+    void recordOfAnotherInstanceIsNotLocalTest() {
+        Message<byte[]> retry = MessageBuilder.withPayload(new byte[0])
+            .setHeader(KafkaRetryPublisher.ORIGIN_HEADER, "another-instance".getBytes(StandardCharsets.UTF_8))
+            .build();
+
+        assertThat(publisher.isLocal(retry)).isFalse();
+    }
+
+    @Test
+    void unreadableRecordGoesToTheDeadLetterTopicTest() throws Exception {
+        SseEmitterRegistry registry = new SseEmitterRegistry(applicationProperties, meterRegistry);
+        KafkaConsumer kafkaConsumer = new KafkaConsumer(registry, publisher, applicationProperties, meterRegistry);
+        try {
+            kafkaConsumer.accept(MessageBuilder.withPayload(new byte[] { EventEnvelopeCodec.FORMAT_VERSION, 2, 1 }).build());
+
+            verify(streamBridge, timeout(5000)).send(eq(KafkaRetryPublisher.DEAD_LETTER_TOPIC), any(Message.class));
+        } finally {
+            kafkaConsumer.destroy();
+            registry.destroy();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Message<byte[]> sent(String topic) {
+        ArgumentCaptor<Message<byte[]>> message = ArgumentCaptor.forClass(Message.class);
+        verify(streamBridge).send(eq(topic), message.capture());
+        return message.getValue();
+    }
+
+    /**
+     * The record as consumed from its retry topic.
+     */
+    private static Message<byte[]> asReceived(Message<byte[]> sent, String topic, long timestamp) {
+        return MessageBuilder.fromMessage(sent)
+            .setHeader(KafkaHeaders.RECEIVED_KEY, sent.getHeaders().get(KafkaHeaders.KEY))
+            .setHeader(KafkaHeaders.RECEIVED_TOPIC, topic)
+            .setHeader(KafkaHeaders.RECEIVED_TIMESTAMP, timestamp)
+            .setHeader(KafkaHeaders.OFFSET, 0L)
+            .build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.mycompany.myapp.broker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class KeyOrderedExecutorTest {
+
+    private final KeyOrderedExecutor executor = new KeyOrderedExecutor("test-lane-", 4, 2);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdown(1000);
+    }
+
+    @Test
+    void tasksWithTheSameKeyRunInOrderTest() throws InterruptedException {
+        Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(400);
+        for (int i = 0; i < 100; i++) {
+            int sequence = i;
+            for (String key : List.of("1", "2", "3", "4")) {
+                executor.execute(key, () -> {
+                    processed.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(sequence);
+                    done.countDown();
+                });
+            }
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(i);
+        }
+        assertThat(processed).hasSize(4).allSatisfy((key, sequences) -> assertThat(sequences).isEqualTo(expected));
+    }
+
+    @Test
+    void tasksWithDifferentKeysRunInParallelTest() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch other = new CountDownLatch(1);
+        // Keys 0 and 1 are on different lanes
+        executor.execute(0, () -> {
+            try {
+                blocked.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.execute(1, other::countDown);
+
+        assertThat(other.await(5, TimeUnit.SECONDS)).isTrue();
+        blocked.countDown();
+    }
+
+    @Test
+    void fullLaneBlocksTheCallerTest() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(0, () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.execute(0, () -> {});
+        executor.execute(0, () -> {});
+        assertThat(executor.pending()).isEqualTo(2);
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread caller = new Thread(() -> {
+            executor.execute(0, () -> {});
+            submitted.countDown();
+        });
+        caller.start();
+
+        assertThat(submitted.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        release.countDown();
+        assertThat(submitted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shutdownExecutorRejectsTasksTest() throws InterruptedException {
+        executor.shutdown(1000);
+
+        assertThatThrownBy(() -> executor.execute("1", () -> {})).isInstanceOf(RejectedExecutionException.class);
+    }
+}
@@ -0,0 +1,520 @@
+package com.mycompany.myapp.broker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class SseEmitterRegistryTest {
+
+    private MeterRegistry meterRegistry;
+
+    private SseEmitterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSse().setQueueCapacity(2);
+        applicationProperties.getSse().setDispatchThreads(2);
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new SseEmitterRegistry(applicationProperties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.destroy();
+    }
+
+    @Test
+    void broadcastReachesAllClientsInOrderTest() throws Exception {
+        RecordingEmitter first = new RecordingEmitter(2);
+        RecordingEmitter second = new RecordingEmitter(2);
+        registry.register("first", first);
+        registry.register("second", second);
+
+        registry.broadcast("one");
+        registry.broadcast("two");
+
+        assertThat(first.await()).containsExactly("one", "two");
+        assertThat(second.await()).containsExactly("one", "two");
+        waitUntil(() -> meterRegistry.counter("sse.messages.sent").count() == 4);
+    }
+
+    @Test
+    void scopedMessageReachesOnlyTheClientsWatchingItsTopicsTest() throws Exception {
+        RecordingEmitter watcher = new RecordingEmitter(2);
+        RecordingEmitter other = new RecordingEmitter(1);
+        registry.register("watcher", SseTopics.of(List.of(1L), List.of(7L)), watcher);
+        registry.register("other", SseTopics.of(List.of(2L), null), other);
+
+        registry.publish(Set.of(SseTopics.post(1L), SseTopics.user(7L)), "comment");
+        registry.publish(Set.of(), "everyone");
+
+        assertThat(watcher.await()).containsExactly("comment", "everyone");
+        assertThat(other.await()).containsExactly("everyone");
+    }
+
+    @Test
+    void closedClientIsRemovedFromItsTopicsTest() {
+        registry.register("watcher", Set.of(SseTopics.post(1L)), new RecordingEmitter(0));
+        assertThat(registry.size(SseTopics.post(1L))).isEqualTo(1);
+
+        registry.unregister("watcher");
+
+        assertThat(registry.size(SseTopics.post(1L))).isZero();
+    }
+
+    @Test
+    void subscriptionTopicsCanChangeTest() throws Exception {
+        RecordingEmitter watcher = new RecordingEmitter(2);
+        registry.register("watcher", Set.of(SseTopics.post(1L)), watcher);
+
+        registry.subscribe("watcher", Set.of(SseTopics.post(2L)));
+        registry.unsubscribe("watcher", Set.of(SseTopics.post(1L)));
+        registry.publish(Set.of(SseTopics.post(1L)), "unwatched");
+        registry.publish(Set.of(SseTopics.post(2L)), "watched");
+        registry.broadcast("everyone");
+
+        assertThat(watcher.await()).containsExactly("watched", "everyone");
+        assertThat(registry.size(SseTopics.post(1L))).isZero();
+        assertThat(registry.size(SseTopics.post(2L))).isEqualTo(1);
+    }
+
+    @Test
+    void failingClientIsEvictedTest() throws Exception {
+        RecordingEmitter failing = new RecordingEmitter(1) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                super.send(builder);
+                throw new IOException("Broken pipe");
+            }
+        };
+        registry.register("failing", failing);
+
+        registry.broadcast("one");
+        failing.await();
+        waitUntil(() -> registry.size() == 0);
+
+        assertThat(meterRegistry.counter("sse.subscriptions.evicted").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("sse.messages.dropped").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("sse.messages.send.failures", "transport", "sse").count()).isEqualTo(1);
+    }
+
+    @Test
+    void fanoutAndLatencyOfTheMessagesAreMeasuredTest() throws Exception {
+        RecordingEmitter first = new RecordingEmitter(1);
+        RecordingEmitter second = new RecordingEmitter(1);
+        registry.register("first", Set.of(SseTopics.post(1L)), first);
+        registry.register("second", Set.of(SseTopics.post(1L)), second);
+        registry.register("other", Set.of(SseTopics.post(2L)), new RecordingEmitter(0));
+
+        registry.publish(Set.of(SseTopics.post(1L)), null, "comment", System.currentTimeMillis() - 1000);
+        first.await();
+        second.await();
+
+        assertThat(meterRegistry.get("sse.messages.fanout").summary().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("sse.messages.fanout").summary().max()).isEqualTo(2);
+        waitUntil(() -> meterRegistry.get("sse.messages.latency").timer().count() == 2);
+        assertThat(meterRegistry.get("sse.messages.latency").timer().max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(1000);
+    }
+
+    @Test
+    void slowClientIsEvictedWhenItsQueueIsFullTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(1) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                super.send(builder);
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        registry.register("slow", slow);
+
+        // The first message is being sent, the two next ones fill the queue and the last one overflows it
+        registry.broadcast("one");
+        slow.await();
+        registry.broadcast("two");
+        registry.broadcast("three");
+        registry.broadcast("four");
+        release.countDown();
+
+        assertThat(registry.size()).isZero();
+        assertThat(meterRegistry.counter("sse.subscriptions.evicted").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("sse.messages.dropped").count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void clientNotReadingItsFramesIsEvictedWithoutBlockingItsShardTest() throws Exception {
+        registry.destroy();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSse().setDispatchThreads(1);
+        applicationProperties.getSse().setWriteTimeout(Duration.ofMillis(200));
+        registry = new SseEmitterRegistry(applicationProperties, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter stuck = new RecordingEmitter(1) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                super.send(builder);
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        RecordingEmitter other = new RecordingEmitter(2);
+        registry.register("stuck", stuck);
+        registry.register("other", other);
+
+        try {
+            long start = System.nanoTime();
+            registry.broadcast("one");
+            registry.broadcast("two");
+
+            assertThat(other.await()).containsExactly("one", "two");
+            assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(2));
+            Thread.sleep(300);
+            // The next heartbeat finds the write in progress for longer than the write timeout
+            registry.heartbeat();
+            waitUntil(() -> registry.size() == 1);
+            assertThat(meterRegistry.counter("sse.subscriptions.evicted").count()).isEqualTo(1);
+            assertThat(meterRegistry.counter("sse.messages.send.failures", "transport", "sse").count()).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void clientsNotReadingTheirFramesDoNotDelayTheOtherClientsOfTheirShardTest() throws Exception {
+        registry.destroy();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSse().setDispatchThreads(1);
+        applicationProperties.getSse().setWriteTimeout(Duration.ofSeconds(10));
+        registry = new SseEmitterRegistry(applicationProperties, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 3; i++) {
+            registry.register(
+                "stuck-" + i,
+                new RecordingEmitter(1) {
+                    @Override
+                    public void send(SseEventBuilder builder) throws IOException {
+                        super.send(builder);
+                        try {
+                            release.await(15, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+            );
+        }
+        RecordingEmitter other = new RecordingEmitter(2);
+        registry.register("other", other);
+
+        try {
+            long start = System.nanoTime();
+            registry.broadcast("one");
+            registry.broadcast("two");
+
+            assertThat(other.await()).containsExactly("one", "two");
+            assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(2));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void registerReplacesThePreviousClientWithTheSameKeyTest() {
+        registry.register("user", new RecordingEmitter(0));
+        registry.register("user", new RecordingEmitter(0));
+
+        assertThat(registry.size()).isEqualTo(1);
+
+        registry.unregister("user");
+
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void reconnectingClientGetsTheMessagesOfItsTopicsItMissedTest() throws Exception {
+        // Half of the queue can be filled by the replay
+        registry.destroy();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSse().setQueueCapacity(4);
+        registry = new SseEmitterRegistry(applicationProperties, meterRegistry);
+        RecordingEmitter first = new RecordingEmitter(1);
+        registry.register("watcher", Set.of(SseTopics.post(1L)), first);
+        registry.broadcast("one");
+        first.await();
+        registry.unregister("watcher");
+
+        registry.broadcast("two");
+        registry.publish(Set.of(SseTopics.post(2L)), "other post");
+        registry.publish(Set.of(SseTopics.post(1L)), "three");
+        RecordingEmitter reconnected = new RecordingEmitter(3);
+        registry.register("watcher", Set.of(SseTopics.post(1L)), first.lastEventId, reconnected);
+        registry.broadcast("four");
+
+        assertThat(reconnected.await()).containsExactly("two", "three", "four");
+        assertThat(meterRegistry.counter("sse.messages.replayed").count()).isEqualTo(2);
+    }
+
+    @Test
+    void busyTopicDoesNotPushTheMissedMessagesOfTheOtherTopicsOutTest() throws Exception {
+        registry.destroy();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSse().setQueueCapacity(8);
+        applicationProperties.getSse().setReplayCapacity(2);
+        registry = new SseEmitterRegistry(applicationProperties, meterRegistry);
+        RecordingEmitter first = new RecordingEmitter(1);
+        registry.register("watcher", Set.of(SseTopics.post(1L), SseTopics.post(2L)), first);
+        registry.broadcast("one");
+        first.await();
+        registry.unregister("watcher");
+
+        registry.publish(Set.of(SseTopics.post(1L)), "quiet");
+        registry.broadcast("everyone");
+        for (int i = 0; i < 5; i++) {
+            registry.publish(Set.of(SseTopics.post(3L)), "busy " + i);
+        }
+        registry.publish(Set.of(SseTopics.post(1L), SseTopics.post(2L)), "both");
+        RecordingEmitter reconnected = new RecordingEmitter(3);
+        registry.register("watcher", Set.of(SseTopics.post(1L), SseTopics.post(2L)), first.lastEventId, reconnected);
+
+        assertThat(reconnected.await()).containsExactly("quiet", "everyone", "both");
+        assertThat(meterRegistry.counter("sse.messages.replayed").count()).isEqualTo(3);
+    }
+
+    @Test
+    void messagesPublishedConcurrentlyFromSeveralLanesReachEachClientOnceInOrderTest() throws Exception {
+        registry.destroy();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSse().setQueueCapacity(10_000);
+        applicationProperties.getSse().setReplayCapacity(10_000);
+        registry = new SseEmitterRegistry(applicationProperties, meterRegistry);
+        int posts = 4;
+        int messagesPerPost = 500;
+        RecordingEmitter everything = new RecordingEmitter(posts * messagesPerPost);
+        registry.register("everything", SseTopics.of(List.of(0L, 1L, 2L, 3L), null), everything);
+        RecordingEmitter[] watchers = new RecordingEmitter[posts];
+        for (int post = 0; post < posts; post++) {
+            watchers[post] = new RecordingEmitter(messagesPerPost);
+            registry.register("watcher " + post, Set.of(SseTopics.post((long) post)), watchers[post]);
+        }
+        RecordingEmitter beforeReconnection = new RecordingEmitter(messagesPerPost / 2);
+        registry.register("reconnecting", Set.of(SseTopics.post(0L)), beforeReconnection);
+
+        KeyOrderedExecutor lanes = new KeyOrderedExecutor("test-lane-", posts, posts * messagesPerPost);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch reconnected = new CountDownLatch(1);
+        try {
+            for (int post = 0; post < posts; post++) {
+                long postId = post;
+                lanes.execute(postId, () -> awaitQuietly(start));
+                for (int i = 0; i < messagesPerPost; i++) {
+                    String message = postId + ":" + i;
+                    if (postId == 0 && i == messagesPerPost / 2) {
+                        lanes.execute(postId, () -> awaitQuietly(reconnected));
+                    }
+                    lanes.execute(postId, () -> registry.publish(Set.of(SseTopics.post(postId)), message));
+                }
+            }
+            start.countDown();
+            // The client reconnects while the other lanes publish
+            beforeReconnection.await();
+            registry.unregister("reconnecting");
+            RecordingEmitter afterReconnection = new RecordingEmitter(0);
+            registry.register("reconnecting", Set.of(SseTopics.post(0L)), beforeReconnection.lastEventId, afterReconnection);
+            reconnected.countDown();
+
+            List<String> received = everything.await();
+            assertThat(received).hasSize(posts * messagesPerPost);
+            for (int post = 0; post < posts; post++) {
+                String prefix = post + ":";
+                List<String> expected = new ArrayList<>();
+                for (int i = 0; i < messagesPerPost; i++) {
+                    expected.add(prefix + i);
+                }
+                assertThat(watchers[post].await()).containsExactlyElementsOf(expected);
+                assertThat(received.stream().filter(message -> message.startsWith(prefix))).containsExactlyElementsOf(expected);
+            }
+            // Nothing is missed across the reconnection, a message being sent again at most
+            waitUntil(() -> afterReconnection.messages.contains("0:" + (messagesPerPost - 1)));
+            Set<String> reconnecting = new HashSet<>(beforeReconnection.messages);
+            reconnecting.addAll(afterReconnection.messages);
+            assertThat(reconnecting).hasSize(messagesPerPost);
+        } finally {
+            lanes.shutdown(1000);
+        }
+    }
+
+    @Test
+    void eventIdsIncreaseTest() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(2);
+        registry.register("user", emitter);
+
+        registry.broadcast("one");
+        registry.broadcast("two");
+
+        emitter.await();
+        assertThat(emitter.eventIds).hasSize(2);
+        String firstId = emitter.eventIds.get(0);
+        String secondId = emitter.eventIds.get(1);
+        assertThat(firstId.substring(0, firstId.lastIndexOf('-'))).isEqualTo(secondId.substring(0, secondId.lastIndexOf('-')));
+        assertThat(Long.parseLong(secondId.substring(secondId.lastIndexOf('-') + 1))).isGreaterThan(
+            Long.parseLong(firstId.substring(firstId.lastIndexOf('-') + 1))
+        );
+    }
+
+    @Test
+    void lastEventIdOfAnotherInstanceIsIgnoredTest() throws Exception {
+        registry.broadcast("before");
+        RecordingEmitter emitter = new RecordingEmitter(1);
+        registry.register("user", Set.of(), "unknown-1", emitter);
+
+        registry.broadcast("after");
+
+        assertThat(emitter.await()).containsExactly("after");
+        assertThat(meterRegistry.counter("sse.messages.replayed").count()).isZero();
+    }
+
+    @Test
+    void idleClientReceivesHeartbeatsTest() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(0);
+        registry.register("user", emitter);
+
+        registry.heartbeat();
+
+        waitUntil(() -> emitter.heartbeats.get() == 1);
+        assertThat(emitter.messages).isEmpty();
+    }
+
+    @Test
+    void messagesOfAWindowAreCoalescedIntoOneFrameTest() throws Exception {
+        registry.destroy();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSse().setCoalescingWindow(Duration.ofMillis(200));
+        registry = new SseEmitterRegistry(applicationProperties, meterRegistry);
+        RecordingEmitter emitter = new RecordingEmitter(1);
+        registry.register("user", emitter);
+
+        registry.broadcast(reaction("CREATED", 7, Map.of("LIKE", 1L)), "{\"id\":7}");
+        registry.broadcast(reaction("CREATED", 8, Map.of("LIKE", 2L)), "{\"id\":8}");
+        registry.broadcast(new EntityChange("CREATED", "Comments", 3L, null, null), "{\"id\":3}");
+        registry.broadcast(reaction("UPDATED", 7, Map.of("LOVE", 1L)), "{\"id\":7}");
+        registry.broadcast("free text");
+
+        assertThat(emitter.await()).containsExactly(
+            "{\"count\":5,\"counts\":{\"POST:1\":{\"LOVE\":1}}," +
+            "\"changes\":{\"CREATED\":{\"Reactions\":[7,8],\"Comments\":[3]},\"UPDATED\":{\"Reactions\":[7]}}," +
+            "\"messages\":[\"free text\"]}"
+        );
+        assertThat(emitter.eventNames).containsExactly(SseEmitterRegistry.BATCH_EVENT);
+        assertThat(emitter.eventIds).containsExactly(emitter.lastEventId);
+        assertThat(emitter.lastEventId).endsWith("-5");
+        waitUntil(() -> meterRegistry.counter("sse.messages.coalesced").count() == 4);
+    }
+
+    @Test
+    void singleMessageOfAWindowIsSentAsItIsTest() throws Exception {
+        registry.destroy();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSse().setCoalescingWindow(Duration.ofMillis(50));
+        registry = new SseEmitterRegistry(applicationProperties, meterRegistry);
+        RecordingEmitter emitter = new RecordingEmitter(1);
+        registry.register("user", emitter);
+
+        registry.broadcast(reaction("CREATED", 7, Map.of("LIKE", 1L)), "reaction");
+
+        assertThat(emitter.await()).containsExactly("reaction");
+        assertThat(emitter.eventNames).isEmpty();
+    }
+
+    private static EntityChange reaction(String eventType, long id, Map<String, Long> counts) {
+        return new EntityChange(eventType, "Reactions", id, "POST:1", counts);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition reached before timeout").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Emitter recording the events sent to it, as the unit tests do not run in a servlet container.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        private final List<String> eventIds = new CopyOnWriteArrayList<>();
+
+        private final List<String> eventNames = new CopyOnWriteArrayList<>();
+
+        private final AtomicInteger heartbeats = new AtomicInteger();
+
+        private volatile String lastEventId;
+
+        private final CountDownLatch expected;
+
+        RecordingEmitter(int expectedMessages) {
+            this.expected = new CountDownLatch(expectedMessages);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            String event = builder.build().stream().map(DataWithMediaType::getData).map(Object::toString).collect(Collectors.joining());
+            for (String line : event.split("\n")) {
+                if (line.startsWith("id:")) {
+                    lastEventId = line.substring("id:".length());
+                    eventIds.add(lastEventId);
+                } else if (line.startsWith("event:")) {
+                    eventNames.add(line.substring("event:".length()));
+                } else if (line.startsWith("data:")) {
+                    messages.add(line.substring("data:".length()).trim());
+                    expected.countDown();
+                } else if (line.startsWith(":")) {
+                    heartbeats.incrementAndGet();
+                }
+            }
+        }
+
+        List<String> await() throws InterruptedException {
+            assertThat(expected.await(5, TimeUnit.SECONDS)).isTrue();
+            return messages;
+        }
+    }
+}
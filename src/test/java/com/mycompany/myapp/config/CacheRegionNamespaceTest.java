@@ -0,0 +1,87 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.config.ApplicationProperties.CacheNamespace.Strategy;
+import com.mycompany.myapp.domain.Comments;
+import com.mycompany.myapp.domain.Posts;
+import java.util.List;
+import java.util.Properties;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.info.GitProperties;
+
+class CacheRegionNamespaceTest {
+
+    @Test
+    void sameEntitiesGiveTheSameNamespaceTest() {
+        CacheRegionNamespace namespace = CacheRegionNamespace.of(Strategy.SCHEMA, List.of(Posts.class, Comments.class), null, null);
+
+        assertThat(namespace.getName()).startsWith(CacheRegionNamespace.PREFIX);
+        assertThat(namespace.getName()).isEqualTo(
+            CacheRegionNamespace.of(Strategy.SCHEMA, List.of(Posts.class, Comments.class), gitProperties("abc1234"), null).getName()
+        );
+        assertThat(namespace.qualify(Posts.class.getName())).isEqualTo(namespace.getName() + "." + Posts.class.getName());
+    }
+
+    @Test
+    void changedFieldTypeChangesTheShapeTest() {
+        assertThat(CacheRegionNamespace.persistentFields(Cached.class)).isNotEqualTo(
+            CacheRegionNamespace.persistentFields(ChangedCached.class)
+        );
+    }
+
+    @Test
+    void ignoredFieldsDoNotChangeTheShapeTest() {
+        assertThat(CacheRegionNamespace.persistentFields(Cached.class))
+            .isEqualTo(CacheRegionNamespace.persistentFields(CachedWithTransientField.class))
+            .isEqualTo("content:java.lang.String\nid:java.lang.Long\n");
+    }
+
+    @Test
+    void persistentFieldsOfEntityTest() {
+        assertThat(CacheRegionNamespace.persistentFields(Posts.class)).contains("content:java.lang.String\n", "userId:java.lang.Long\n");
+    }
+
+    @Test
+    void buildStrategyGivesANamespacePerCommitTest() {
+        List<Class<?>> entities = List.of(Posts.class);
+
+        assertThat(CacheRegionNamespace.of(Strategy.BUILD, entities, gitProperties("abc1234"), null).getName())
+            .isEqualTo(CacheRegionNamespace.of(Strategy.BUILD, entities, gitProperties("abc1234"), null).getName())
+            .isNotEqualTo(CacheRegionNamespace.of(Strategy.BUILD, entities, gitProperties("def5678"), null).getName());
+    }
+
+    private static GitProperties gitProperties(String commitId) {
+        Properties properties = new Properties();
+        properties.setProperty("commit.id", commitId);
+        return new GitProperties(properties);
+    }
+
+    static class Cached {
+
+        private Long id;
+
+        private String content;
+    }
+
+    static class ChangedCached {
+
+        private Long id;
+
+        private Long content;
+    }
+
+    static class CachedWithTransientField {
+
+        private static final long serialVersionUID = 1L;
+
+        private Long id;
+
+        private String content;
+
+        @jakarta.persistence.Transient
+        private String preview;
+
+        private transient String cachedPreview;
+    }
+}
@@ -0,0 +1,46 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import tech.jhipster.config.JHipsterProperties;
+
+class CacheRegionPolicyTest {
+
+    private static final String REGION = "com.mycompany.myapp.domain.ReportedComments";
+
+    @Test
+    void propertyKeyIsTheKebabCaseSimpleClassNameTest() {
+        assertThat(CacheRegionPolicy.propertyKey(REGION)).isEqualTo("reported-comments");
+        assertThat(CacheRegionPolicy.propertyKey("l2-0123456789ab.com.mycompany.myapp.domain.Posts")).isEqualTo("posts");
+    }
+
+    @Test
+    void regionWithoutPropertiesUsesTheDefaultsTest() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getCache().getRedis().setExpiration(600);
+
+        CacheRegionPolicy policy = CacheRegionPolicy.of(REGION, new ApplicationProperties(), jHipsterProperties);
+
+        assertThat(policy.timeToLive()).isEqualTo(Duration.ofMinutes(10));
+        assertThat(policy.maxEntries()).isNull();
+        assertThat(policy.nearCache()).isTrue();
+    }
+
+    @Test
+    void regionPropertiesOverrideTheDefaultsTest() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.CacheRegions.Region region = new ApplicationProperties.CacheRegions.Region();
+        region.setTimeToLive(Duration.ofMinutes(1));
+        region.setMaxEntries(500L);
+        region.setNearCache(false);
+        applicationProperties.getCacheRegions().getRegions().put("reported-comments", region);
+
+        CacheRegionPolicy policy = CacheRegionPolicy.of(REGION, applicationProperties, new JHipsterProperties());
+
+        assertThat(policy.timeToLive()).isEqualTo(Duration.ofMinutes(1));
+        assertThat(policy.maxEntries()).isEqualTo(500L);
+        assertThat(policy.nearCache()).isFalse();
+    }
+}
@@ -0,0 +1,35 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class EarlyRefreshPolicyTest {
+
+    @Test
+    void refreshGetsLikelierCloserToExpirationTest() {
+        EarlyRefreshPolicy policy = new EarlyRefreshPolicy(60_000, 100, 1);
+
+        assertThat(refreshRate(policy, 0)).isZero();
+        assertThat(refreshRate(policy, 59_800)).isBetween(0.05, 0.25);
+        assertThat(refreshRate(policy, 59_950)).isBetween(0.5, 0.7);
+        assertThat(refreshRate(policy, 60_000)).isEqualTo(1);
+    }
+
+    @Test
+    void zeroBetaDisablesTheRefreshTest() {
+        EarlyRefreshPolicy policy = new EarlyRefreshPolicy(60_000, 100, 0);
+
+        assertThat(refreshRate(policy, 120_000)).isZero();
+    }
+
+    private static double refreshRate(EarlyRefreshPolicy policy, long ageMillis) {
+        int refreshes = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (policy.shouldRefresh(ageMillis)) {
+                refreshes++;
+            }
+        }
+        return refreshes / 10_000.0;
+    }
+}
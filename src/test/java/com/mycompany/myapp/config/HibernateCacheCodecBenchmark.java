@@ -0,0 +1,132 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.domain.Posts;
+import io.netty.buffer.ByteBuf;
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.cache.internal.BasicCacheKeyImplementation;
+import org.hibernate.cache.spi.support.AbstractReadWriteAccess;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.redisson.client.codec.Codec;
+import org.redisson.codec.SerializationCodec;
+
+/**
+ * JMH benchmark comparing the {@link HibernateCacheCodec} with the {@link SerializationCodec} on a cached {@link Posts}: its key,
+ * and its read-write item. It is not run by the build; run its {@link #main} method from the test classpath, which first prints
+ * the encoded size of the entries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HibernateCacheCodecBenchmark {
+
+    @Param({ "serialization", "hibernate" })
+    private String codecName;
+
+    private Codec codec;
+
+    private Object key;
+
+    private Object item;
+
+    private ByteBuf encodedKey;
+
+    private ByteBuf encodedItem;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        codec = codec(codecName);
+        key = postKey();
+        item = postItem();
+        encodedKey = codec.getValueEncoder().encode(key);
+        encodedItem = codec.getValueEncoder().encode(item);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        encodedKey.release();
+        encodedItem.release();
+    }
+
+    @Benchmark
+    public int encodeKey() throws IOException {
+        ByteBuf encoded = codec.getValueEncoder().encode(key);
+        int size = encoded.readableBytes();
+        encoded.release();
+        return size;
+    }
+
+    @Benchmark
+    public int encodeItem() throws IOException {
+        ByteBuf encoded = codec.getValueEncoder().encode(item);
+        int size = encoded.readableBytes();
+        encoded.release();
+        return size;
+    }
+
+    @Benchmark
+    public Object decodeKey() throws IOException {
+        return codec.getValueDecoder().decode(encodedKey.duplicate(), null);
+    }
+
+    @Benchmark
+    public Object decodeItem() throws IOException {
+        return codec.getValueDecoder().decode(encodedItem.duplicate(), null);
+    }
+
+    private static Codec codec(String name) {
+        return "hibernate".equals(name) ? new HibernateCacheCodec() : new SerializationCodec();
+    }
+
+    private static Object postKey() {
+        return new BasicCacheKeyImplementation(123456L, Posts.class.getName(), 123456);
+    }
+
+    private static Object postItem() throws IOException {
+        Serializable[] state = {
+            "AAAAAAA", // content
+            Instant.parse("2025-01-01T10:15:30.123Z"), // createdAt
+            Boolean.FALSE, // isPrivate
+            "https://media.example.com/p/123456.jpg", // mediaUrl
+            Instant.parse("2025-01-02T08:00:00Z"), // updatedAt
+            42L, // userId
+        };
+        return HibernateCacheCodec.HIBERNATE_MEMBERS.newItem(
+            HibernateCacheCodec.HIBERNATE_MEMBERS.newEntityEntry(Posts.class.getName(), null, state),
+            null,
+            System.currentTimeMillis()
+        );
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        for (String name : new String[] { "serialization", "hibernate" }) {
+            Codec codec = codec(name);
+            ByteBuf key = codec.getValueEncoder().encode(postKey());
+            ByteBuf item = codec.getValueEncoder().encode(postItem());
+            System.out.printf("%-14s key: %4d bytes, item: %4d bytes%n", name, key.readableBytes(), item.readableBytes());
+            key.release();
+            item.release();
+        }
+        new Runner(new OptionsBuilder().include(HibernateCacheCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,100 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.domain.Reactions;
+import com.mycompany.myapp.domain.enumeration.ReactionType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.cache.internal.BasicCacheKeyImplementation;
+import org.hibernate.cache.spi.entry.StandardCacheEntryImpl;
+import org.hibernate.cache.spi.support.AbstractReadWriteAccess;
+import org.junit.jupiter.api.Test;
+import org.redisson.codec.SerializationCodec;
+
+class HibernateCacheCodecTest {
+
+    private final HibernateCacheCodec codec = new HibernateCacheCodec();
+
+    private final SerializationCodec serializationCodec = new SerializationCodec();
+
+    @Test
+    void cacheKeyRoundTripTest() throws IOException {
+        BasicCacheKeyImplementation key = new BasicCacheKeyImplementation(42L, Reactions.class.getName(), 42);
+
+        Object decoded = roundTrip(key);
+
+        assertThat(decoded).isEqualTo(key).hasSameHashCodeAs(key);
+        assertThat(encodedSize(codec, key)).isLessThan(encodedSize(serializationCodec, key) / 4);
+    }
+
+    @Test
+    void cacheKeyEncodingIsStableTest() throws IOException {
+        BasicCacheKeyImplementation key = new BasicCacheKeyImplementation(42L, Reactions.class.getName(), 42);
+
+        assertThat(encode(codec, key)).isEqualTo(encode(codec, new BasicCacheKeyImplementation(42L, Reactions.class.getName(), 42)));
+    }
+
+    @Test
+    void readWriteItemRoundTripTest() throws IOException {
+        Serializable[] state = { 7L, ReactionType.LIKE, "content", null, Instant.parse("2025-01-01T10:15:30.123Z"), Boolean.TRUE };
+        StandardCacheEntryImpl entry = HibernateCacheCodec.HIBERNATE_MEMBERS.newEntityEntry(Reactions.class.getName(), null, state);
+        AbstractReadWriteAccess.Item item = HibernateCacheCodec.HIBERNATE_MEMBERS.newItem(entry, null, 123456789L);
+
+        AbstractReadWriteAccess.Item decoded = (AbstractReadWriteAccess.Item) roundTrip(item);
+
+        assertThat(HibernateCacheCodec.HIBERNATE_MEMBERS.itemTimestamp(decoded)).isEqualTo(123456789L);
+        assertThat(HibernateCacheCodec.HIBERNATE_MEMBERS.itemVersion(decoded)).isNull();
+        StandardCacheEntryImpl decodedEntry = (StandardCacheEntryImpl) decoded.getValue();
+        assertThat(decodedEntry.getSubclass()).isEqualTo(Reactions.class.getName());
+        assertThat(decodedEntry.getDisassembledState()).containsExactly(state);
+        assertThat(encodedSize(codec, item)).isLessThan(encodedSize(serializationCodec, item) / 4);
+    }
+
+    @Test
+    void unknownObjectIsWrittenWithJavaSerializationTest() throws IOException {
+        Serializable[] state = { 1L, new ArrayList<>(List.of("a", "b")) };
+
+        Object decoded = roundTrip(state);
+
+        assertThat((Object[]) decoded).containsExactly(1L, List.of("a", "b"));
+    }
+
+    @Test
+    void valueWrittenBySerializationCodecIsReadTest() throws IOException {
+        BasicCacheKeyImplementation key = new BasicCacheKeyImplementation(42L, Reactions.class.getName(), 42);
+        ByteBuf encoded = serializationCodec.getValueEncoder().encode(key);
+        try {
+            assertThat(codec.getValueDecoder().decode(encoded, null)).isEqualTo(key);
+        } finally {
+            encoded.release();
+        }
+    }
+
+    private Object roundTrip(Object value) throws IOException {
+        ByteBuf encoded = codec.getValueEncoder().encode(value);
+        try {
+            return codec.getValueDecoder().decode(encoded, null);
+        } finally {
+            encoded.release();
+        }
+    }
+
+    private static byte[] encode(org.redisson.client.codec.Codec codec, Object value) throws IOException {
+        ByteBuf encoded = codec.getValueEncoder().encode(value);
+        try {
+            return ByteBufUtil.getBytes(encoded);
+        } finally {
+            encoded.release();
+        }
+    }
+
+    private static int encodedSize(org.redisson.client.codec.Codec codec, Object value) throws IOException {
+        return encode(codec, value).length;
+    }
+}
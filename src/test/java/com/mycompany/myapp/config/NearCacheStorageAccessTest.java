@@ -0,0 +1,259 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.cache.spi.support.AbstractReadWriteAccess;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.SimpleTimestamper;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NearCacheStorageAccessTest {
+
+    private static final String REGION = "com.mycompany.myapp.domain.Posts";
+
+    private InMemoryStorageAccess l2;
+
+    private List<Object> publishedKeys;
+
+    private MeterRegistry meterRegistry;
+
+    private NearCacheStorageAccess storageAccess;
+
+    @BeforeEach
+    void setUp() {
+        l2 = new InMemoryStorageAccess();
+        publishedKeys = new ArrayList<>();
+        meterRegistry = new SimpleMeterRegistry();
+        // Entries are refreshed once they are about 1 second old
+        EarlyRefreshPolicy earlyRefreshPolicy = new EarlyRefreshPolicy(1000, 100, 1, () -> 0.5);
+        storageAccess = new NearCacheStorageAccess(l2, policy(true), publishedKeys::add, earlyRefreshPolicy, meterRegistry);
+    }
+
+    @Test
+    void readFromL2IsKeptInL1Test() {
+        l2.entries.put(1L, "post");
+
+        assertThat(storageAccess.getFromCache(1L, null)).isEqualTo("post");
+        assertThat(storageAccess.getFromCache(1L, null)).isEqualTo("post");
+
+        assertThat(l2.reads).isEqualTo(1);
+        assertThat(gets("l1", "hit")).isEqualTo(1);
+        assertThat(gets("l1", "miss")).isEqualTo(1);
+        assertThat(gets("l2", "hit")).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.near.size").tag("region", REGION).gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void missIsNotKeptInL1Test() {
+        assertThat(storageAccess.getFromCache(1L, null)).isNull();
+        assertThat(storageAccess.getFromCache(1L, null)).isNull();
+
+        assertThat(l2.reads).isEqualTo(2);
+        assertThat(gets("l2", "miss")).isEqualTo(2);
+    }
+
+    @Test
+    void writesGoToBothTiersAndRemovalsArePublishedTest() {
+        storageAccess.putIntoCache(1L, "post", null);
+
+        assertThat(l2.entries).containsEntry(1L, "post");
+        assertThat(storageAccess.getFromCache(1L, null)).isEqualTo("post");
+        assertThat(l2.reads).isZero();
+        assertThat(publishedKeys).isEmpty();
+
+        storageAccess.removeFromCache(1L, null);
+        storageAccess.clearCache(null);
+
+        assertThat(l2.entries).isEmpty();
+        assertThat(publishedKeys).containsExactly(1L, null);
+    }
+
+    @Test
+    void lockIsReadFromL2AndPublishedTest() {
+        SoftLock lock = new SoftLock() {};
+        storageAccess.putIntoCache(1L, "post", null);
+
+        storageAccess.putIntoCache(1L, lock, null);
+
+        assertThat(l2.entries).containsEntry(1L, lock);
+        assertThat(storageAccess.getFromCache(1L, null)).isSameAs(lock);
+        assertThat(storageAccess.getFromCache(1L, null)).isSameAs(lock);
+        assertThat(l2.reads).isEqualTo(2);
+        assertThat(publishedKeys).containsExactly(1L);
+    }
+
+    @Test
+    void entryCheckedAgainstAStaleL1CopyIsNotWrittenOverTheLockOfAnotherInstanceTest() {
+        SoftLock lock = new SoftLock() {};
+        storageAccess.putIntoCache(1L, "post", null);
+        // Locked by another instance, whose invalidation is not received yet
+        l2.entries.put(1L, lock);
+
+        storageAccess.putIntoCache(1L, "post loaded before the commit", null);
+
+        assertThat(l2.entries).containsEntry(1L, lock);
+        assertThat(storageAccess.getFromCache(1L, null)).isSameAs(lock);
+    }
+
+    @Test
+    void entryCheckedAgainstTheLockIsWrittenOverItTest() {
+        SoftLock lock = new SoftLock() {};
+        l2.entries.put(1L, lock);
+        assertThat(storageAccess.getFromCache(1L, null)).isSameAs(lock);
+
+        storageAccess.putIntoCache(1L, "updated post", null);
+
+        assertThat(l2.entries).containsEntry(1L, "updated post");
+        assertThat(storageAccess.getFromCache(1L, null)).isEqualTo("updated post");
+    }
+
+    @Test
+    void remoteInvalidationDropsTheL1EntryTest() {
+        storageAccess.putIntoCache(1L, "post", null);
+        l2.entries.put(1L, "updated post");
+
+        storageAccess.invalidateLocally(1L);
+
+        assertThat(storageAccess.getFromCache(1L, null)).isEqualTo("updated post");
+        assertThat(meterRegistry.get("cache.near.invalidations").tag("region", REGION).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void remoteRegionInvalidationDropsAllTheL1EntriesTest() {
+        storageAccess.putIntoCache(1L, "post", null);
+        storageAccess.putIntoCache(2L, "other post", null);
+
+        storageAccess.invalidateLocally(null);
+
+        assertThat(storageAccess.getFromCache(1L, null)).isEqualTo("post");
+        assertThat(storageAccess.getFromCache(2L, null)).isEqualTo("other post");
+        assertThat(l2.reads).isEqualTo(2);
+    }
+
+    @Test
+    void oldEntryIsRefreshedByOneThreadTest() throws Exception {
+        long writtenAt = (System.currentTimeMillis() - 2000) * SimpleTimestamper.ONE_MS;
+        AbstractReadWriteAccess.Item item = HibernateCacheCodec.HIBERNATE_MEMBERS.newItem("post", null, writtenAt);
+        l2.entries.put(1L, item);
+
+        assertThat(storageAccess.getFromCache(1L, null)).as("read turned into a miss").isNull();
+        assertThat(storageAccess.getFromCache(1L, null)).as("write back check of the refreshing thread").isNull();
+        CompletableFuture<Object> otherReader = CompletableFuture.supplyAsync(() -> storageAccess.getFromCache(1L, null));
+        assertThat(otherReader.get(5, TimeUnit.SECONDS)).as("read of another thread").isSameAs(item);
+
+        AbstractReadWriteAccess.Item refreshed = HibernateCacheCodec.HIBERNATE_MEMBERS.newItem("post", null, SimpleTimestamper.next());
+        storageAccess.putIntoCache(1L, refreshed, null);
+
+        assertThat(storageAccess.getFromCache(1L, null)).isSameAs(refreshed);
+        assertThat(meterRegistry.get("cache.near.early.refreshes").tag("region", REGION).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void oldL1CopyRefreshedByAnotherInstanceIsReadAgainFromL2Test() throws Exception {
+        long writtenAt = (System.currentTimeMillis() - 2000) * SimpleTimestamper.ONE_MS;
+        storageAccess.putIntoCache(1L, HibernateCacheCodec.HIBERNATE_MEMBERS.newItem("post", null, writtenAt), null);
+        AbstractReadWriteAccess.Item refreshed = HibernateCacheCodec.HIBERNATE_MEMBERS.newItem("post", null, SimpleTimestamper.next());
+        l2.entries.put(1L, refreshed);
+
+        assertThat(storageAccess.getFromCache(1L, null)).isSameAs(refreshed);
+        assertThat(storageAccess.getFromCache(1L, null)).isSameAs(refreshed);
+
+        assertThat(l2.reads).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.near.early.refreshes").tag("region", REGION).counter().count()).isZero();
+    }
+
+    @Test
+    void disabledNearCacheReadsFromL2Test() {
+        NearCacheStorageAccess redisOnly = new NearCacheStorageAccess(
+            l2,
+            policy(false),
+            publishedKeys::add,
+            new EarlyRefreshPolicy(1000, 100, 1, () -> 0.5),
+            new SimpleMeterRegistry()
+        );
+        redisOnly.putIntoCache(1L, "post", null);
+
+        assertThat(redisOnly.getFromCache(1L, null)).isEqualTo("post");
+        assertThat(redisOnly.getFromCache(1L, null)).isEqualTo("post");
+
+        assertThat(l2.reads).isEqualTo(2);
+        assertThat(publishedKeys).isEmpty();
+    }
+
+    @Test
+    void hottestKeysAreTheMostReadTest() {
+        for (long id = 1; id <= 3; id++) {
+            l2.entries.put(id, "post " + id);
+        }
+        for (int i = 0; i < 5; i++) {
+            storageAccess.getFromCache(2L, null);
+        }
+        for (int i = 0; i < 3; i++) {
+            storageAccess.getFromCache(3L, null);
+        }
+        storageAccess.getFromCache(1L, null);
+
+        assertThat(storageAccess.hottestKeys(2)).containsExactly(2L, 3L);
+    }
+
+    private static CacheRegionPolicy policy(boolean nearCache) {
+        return new CacheRegionPolicy(REGION, Duration.ofHours(1), null, nearCache, 10_000, Duration.ofMinutes(1), 100);
+    }
+
+    private double gets(String tier, String result) {
+        return meterRegistry.get("cache.near.gets").tag("region", REGION).tag("tier", tier).tag("result", result).counter().count();
+    }
+
+    /**
+     * L2 storage in a map, counting its reads.
+     */
+    private static class InMemoryStorageAccess implements DomainDataStorageAccess {
+
+        private final Map<Object, Object> entries = new HashMap<>();
+
+        private int reads;
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            reads++;
+            return entries.get(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            entries.put(key, value);
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return entries.containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            entries.clear();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            entries.remove(key);
+        }
+
+        @Override
+        public void release() {
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests checking, with {@code EXPLAIN}, that the hot queries emitted by the query services
+ * can use the secondary indexes added for them, instead of scanning the whole table.
+ */
+@IntegrationTest
+@Transactional
+class QueryIndexesIT {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void postsOfUserUseUserIdCreatedAtIndex() {
+        assertQueryCanUseIndex(
+            "SELECT p.id FROM posts p WHERE p.user_id = 1 ORDER BY p.created_at DESC, p.id DESC LIMIT 20",
+            "idx_posts__user_id_created_at"
+        );
+    }
+
+    @Test
+    void postsFeedPageUsesCreatedAtIndex() {
+        assertQueryCanUseIndex(
+            "SELECT p.id FROM posts p WHERE p.created_at < '2025-01-01 00:00:00' ORDER BY p.created_at DESC, p.id DESC LIMIT 20",
+            "idx_posts__created_at"
+        );
+    }
+
+    @Test
+    void commentsOfPostUsePostIdCreatedAtIndex() {
+        assertQueryCanUseIndex(
+            "SELECT c.id FROM comments c WHERE c.post_id = 1 ORDER BY c.created_at DESC, c.id DESC LIMIT 20",
+            "idx_comments__post_id_created_at"
+        );
+    }
+
+    @Test
+    void repliesOfCommentUseParentCommentIdCreatedAtIndex() {
+        assertQueryCanUseIndex(
+            "SELECT c.id FROM comments c WHERE c.parent_comment_id = 1 ORDER BY c.created_at DESC, c.id DESC LIMIT 20",
+            "idx_comments__parent_comment_id_created_at"
+        );
+    }
+
+    @Test
+    void reactionsCountOfPostByTypeUsesPostIdReactionTypeIndex() {
+        assertQueryCanUseIndex(
+            "SELECT COUNT(r.id) FROM reactions r WHERE r.post_id = 1 AND r.reaction_type = 'LIKE'",
+            "idx_reactions__post_id_reaction_type"
+        );
+    }
+
+    @Test
+    void reactionOfUserOnCommentUsesCommentIdUserIdIndex() {
+        assertQueryCanUseIndex(
+            "SELECT r.id FROM reactions r WHERE r.comment_id = 1 AND r.user_id = 1",
+            "idx_reactions__comment_id_user_id"
+        );
+    }
+
+    private void assertQueryCanUseIndex(String query, String indexName) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + query);
+
+        assertThat(plan).hasSize(1);
+        Map<String, Object> row = plan.get(0);
+        assertThat((String) row.get("possible_keys")).as("possible keys of %s", query).contains(indexName);
+        assertThat(row.get("key")).as("chosen key of %s", query).isNotNull();
+        assertThat(row.get("type")).as("access type of %s", query).isNotEqualTo("ALL");
+    }
+}
@@ -0,0 +1,212 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.broker.EventEnvelope;
+import com.mycompany.myapp.broker.EventEnvelopeCodec;
+import com.mycompany.myapp.domain.IngestedEvent;
+import com.mycompany.myapp.domain.enumeration.ReactionType;
+import com.mycompany.myapp.repository.IngestedEventRepository;
+import com.mycompany.myapp.service.dto.CommentsDTO;
+import com.mycompany.myapp.service.dto.ReactionsDTO;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.messaging.Message;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+class IngestConsumerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    private ValidatorFactory validatorFactory;
+
+    private ReactionsService reactionsService;
+
+    private CommentsService commentsService;
+
+    private IngestedEventRepository ingestedEventRepository;
+
+    private StreamBridge streamBridge;
+
+    private PlatformTransactionManager transactionManager;
+
+    private IngestConsumer ingestConsumer;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        reactionsService = mock(ReactionsService.class);
+        commentsService = mock(CommentsService.class);
+        ingestedEventRepository = mock(IngestedEventRepository.class);
+        streamBridge = mock(StreamBridge.class);
+        when(streamBridge.send(any(), any())).thenReturn(true);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        ingestConsumer = new IngestConsumer(
+            reactionsService,
+            commentsService,
+            ingestedEventRepository,
+            streamBridge,
+            MAPPER,
+            validatorFactory.getValidator(),
+            transactionManager
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordsOfAPollAreSavedInOneTransactionTest() {
+        ReactionsDTO reaction = new ReactionsDTO();
+        reaction.setId(7L);
+        reaction.setUserId(1L);
+        reaction.setReactionType(ReactionType.values()[0]);
+        CommentsDTO comment = new CommentsDTO();
+        comment.setUserId(2L);
+        comment.setContent("comment");
+
+        ingestConsumer.accept(
+            List.of(
+                created("Reactions", 7L, reaction),
+                created("Comments", 8L, comment),
+                created("Reactions", 9L, reaction),
+                created("Comments", 10L, comment)
+            )
+        );
+
+        ArgumentCaptor<List<ReactionsDTO>> reactions = ArgumentCaptor.forClass(List.class);
+        verify(reactionsService).saveAll(reactions.capture());
+        assertThat(reactions.getValue()).hasSize(2).allSatisfy(saved -> {
+            assertThat(saved.getId()).as("the id of the producing service is not kept").isNull();
+            assertThat(saved.getUserId()).isEqualTo(1L);
+        });
+        ArgumentCaptor<List<CommentsDTO>> comments = ArgumentCaptor.forClass(List.class);
+        verify(commentsService).saveAll(comments.capture());
+        assertThat(comments.getValue()).extracting(CommentsDTO::getContent).containsExactly("comment", "comment");
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unreadableOrInvalidRecordsAreSkippedTest() {
+        CommentsDTO tooLong = new CommentsDTO();
+        tooLong.setContent("a".repeat(5001));
+        CommentsDTO comment = new CommentsDTO();
+        comment.setContent("comment");
+
+        ingestConsumer.accept(
+            List.of(
+                "text".getBytes(StandardCharsets.UTF_8),
+                new byte[] { 1, 2, 1 },
+                EventEnvelopeCodec.encode(new EventEnvelope("DELETED", "Comments", 1L, Instant.now(), MAPPER.valueToTree(comment))),
+                created("Posts", 2L, comment),
+                created("Comments", 3L, tooLong),
+                created("Comments", 4L, comment)
+            )
+        );
+
+        ArgumentCaptor<List<CommentsDTO>> comments = ArgumentCaptor.forClass(List.class);
+        verify(commentsService).saveAll(comments.capture());
+        assertThat(comments.getValue()).extracting(CommentsDTO::getContent).containsExactly("comment");
+        verify(reactionsService, never()).saveAll(anyList());
+    }
+
+    @Test
+    void pollWithoutEntityToSaveDoesNotOpenATransactionTest() {
+        ingestConsumer.accept(List.of("text".getBytes(StandardCharsets.UTF_8)));
+
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    void failedSaveRollsBackAndIsThrownBackToTheContainerTest() {
+        CommentsDTO comment = new CommentsDTO();
+        comment.setContent("comment");
+        when(commentsService.saveAll(anyList())).thenThrow(new IllegalStateException("database down"));
+
+        assertThatThrownBy(() -> ingestConsumer.accept(List.of(created("Comments", 1L, comment)))).hasMessage("database down");
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordsAlreadyIngestedAreSkippedTest() {
+        CommentsDTO comment = new CommentsDTO();
+        comment.setContent("comment");
+        when(ingestedEventRepository.findIngestedSourceIds(eq("Comments"), anyCollection())).thenReturn(Set.of(1L));
+
+        ingestConsumer.accept(
+            List.of(created("Comments", 1L, comment), created("Comments", 2L, comment), created("Comments", 2L, comment))
+        );
+
+        ArgumentCaptor<List<CommentsDTO>> comments = ArgumentCaptor.forClass(List.class);
+        verify(commentsService).saveAll(comments.capture());
+        assertThat(comments.getValue()).hasSize(1);
+        ArgumentCaptor<List<IngestedEvent>> ingested = ArgumentCaptor.forClass(List.class);
+        verify(ingestedEventRepository).saveAll(ingested.capture());
+        assertThat(ingested.getValue()).extracting(event -> event.getId().getSourceId()).containsExactly(2L);
+    }
+
+    @Test
+    void recordRejectedByTheDatabaseIsSentToTheDeadLetterTopicAloneTest() {
+        CommentsDTO comment = new CommentsDTO();
+        comment.setContent("comment");
+        CommentsDTO missingParent = new CommentsDTO();
+        missingParent.setContent("missing parent");
+        when(commentsService.saveAll(anyList())).thenAnswer(invocation -> {
+            List<CommentsDTO> comments = invocation.getArgument(0);
+            if (comments.stream().anyMatch(saved -> saved.getContent().startsWith("missing"))) {
+                throw new DataIntegrityViolationException("foreign key");
+            }
+            return comments;
+        });
+        byte[] rejected = created("Comments", 2L, missingParent);
+
+        ingestConsumer.accept(List.of(created("Comments", 1L, comment), rejected, created("Comments", 3L, comment)));
+
+        // The poll, then each record of it
+        verify(commentsService, times(4)).saveAll(anyList());
+        verify(transactionManager, times(2)).commit(any());
+        verify(transactionManager, times(2)).rollback(any());
+        verify(streamBridge).send(
+            eq(IngestConsumer.DEAD_LETTER_TOPIC),
+            argThat((Message<?> message) ->
+                message.getPayload() == rejected && message.getHeaders().get(IngestConsumer.ERROR_HEADER).toString().contains("foreign key")
+            )
+        );
+    }
+
+    private static byte[] created(String entity, Long id, Object dto) {
+        return EventEnvelopeCodec.encode(new EventEnvelope("CREATED", entity, id, Instant.now(), MAPPER.valueToTree(dto)));
+    }
+}
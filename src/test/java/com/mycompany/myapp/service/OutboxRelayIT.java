@@ -0,0 +1,176 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.broker.EventEnvelope;
+import com.mycompany.myapp.broker.EventEnvelopeCodec;
+import com.mycompany.myapp.broker.SseTopics;
+import com.mycompany.myapp.domain.OutboxEvent;
+import com.mycompany.myapp.domain.enumeration.OutboxEventType;
+import com.mycompany.myapp.domain.enumeration.ReactionType;
+import com.mycompany.myapp.repository.OutboxEventRepository;
+import com.mycompany.myapp.service.dto.CommentsDTO;
+import com.mycompany.myapp.service.dto.PostsDTO;
+import com.mycompany.myapp.service.dto.ReactionsDTO;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the transactional outbox: {@link OutboxService} and {@link OutboxRelay}.
+ */
+@IntegrationTest
+@ImportAutoConfiguration(TestChannelBinderConfiguration.class)
+@Transactional
+class OutboxRelayIT {
+
+    @Autowired
+    private PostsService postsService;
+
+    @Autowired
+    private ReactionsService reactionsService;
+
+    @Autowired
+    private CommentsService commentsService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    @Qualifier(OutboxRelay.PUBLISHED_CHANNEL)
+    private SubscribableChannel publishedChannel;
+
+    @Autowired
+    private OutputDestination output;
+
+    @Test
+    void changesAreRecordedInTheOutbox() {
+        PostsDTO post = new PostsDTO();
+        post.setUserId(1L);
+        post.setContent("outbox");
+        post = postsService.save(post);
+        postsService.delete(post.getId());
+
+        Long id = post.getId();
+        assertThat(outboxEventRepository.findAll())
+            .filteredOn(event -> "Posts".equals(event.getAggregateType()) && id.equals(event.getAggregateId()))
+            .extracting(OutboxEvent::getEventType)
+            .containsExactly(OutboxEventType.CREATED, OutboxEventType.DELETED);
+    }
+
+    @Test
+    void relayPublishesThenDeletesAcknowledgedEvents() {
+        PostsDTO post = new PostsDTO();
+        post.setUserId(1L);
+        post.setContent("outbox");
+        post = postsService.save(post);
+
+        while (outboxRelay.dispatchNextBatch() > 0) {
+            // drain the events left by other tests
+        }
+
+        Message<byte[]> message;
+        Message<byte[]> published = null;
+        while ((message = output.receive(1000, OutboxRelay.BINDING_NAME)) != null) {
+            if (post.getId().equals(message.getHeaders().get(OutboxRelay.AGGREGATE_ID_HEADER))) {
+                published = message;
+            }
+        }
+        assertThat(published).isNotNull();
+        assertThat(published.getHeaders()).containsEntry(OutboxRelay.EVENT_TYPE_HEADER, OutboxEventType.CREATED.name());
+        EventEnvelope envelope = EventEnvelopeCodec.decode(published.getPayload());
+        assertThat(envelope.eventType()).isEqualTo(OutboxEventType.CREATED.name());
+        assertThat(envelope.entityId()).isEqualTo(post.getId());
+        assertThat(envelope.delta().get("content").asText()).isEqualTo("outbox");
+
+        Long eventId = (Long) published.getHeaders().get(OutboxRelay.EVENT_ID_HEADER);
+        assertThat(outboxEventRepository.findById(eventId)).get().extracting(OutboxEvent::getDispatchedAt).isNotNull();
+
+        publishedChannel.send(MessageBuilder.withPayload(new byte[0]).copyHeaders(published.getHeaders()).build());
+        outboxRelay.deletePublished();
+
+        assertThat(outboxEventRepository.existsById(eventId)).isFalse();
+    }
+
+    @Test
+    void reactionIsSentToTheClientsOfItsPostWithTheCountsOfThePost() {
+        PostsDTO post = new PostsDTO();
+        post.setUserId(1L);
+        post.setContent("outbox");
+        post = postsService.save(post);
+        ReactionsDTO reaction = new ReactionsDTO();
+        reaction.setUserId(2L);
+        reaction.setReactionType(ReactionType.LIKE);
+        reaction.setCreatedAt(Instant.now());
+        reaction.setPost(post);
+        reaction = reactionsService.save(reaction);
+
+        while (outboxRelay.dispatchNextBatch() > 0) {
+            // drain the events left by other tests
+        }
+
+        Message<byte[]> message;
+        Message<byte[]> published = null;
+        while ((message = output.receive(1000, "sse-topic")) != null) {
+            if (reaction.getId().equals(EventEnvelopeCodec.decode(message.getPayload()).entityId())) {
+                published = message;
+            }
+        }
+        assertThat(published).isNotNull();
+        assertThat(published.getHeaders())
+            .containsEntry(SseTopics.POST_ID_HEADER, post.getId())
+            .containsEntry(SseTopics.COUNTS_TARGET_HEADER, "POST:" + post.getId());
+        assertThat((String) published.getHeaders().get(SseTopics.COUNTS_HEADER)).contains("\"LIKE\":1");
+    }
+
+    @Test
+    void deletedReactionOnACommentIsSentToTheClientsOfThePostWithTheNewCountsOfTheComment() {
+        PostsDTO post = new PostsDTO();
+        post.setUserId(1L);
+        post.setContent("outbox");
+        post = postsService.save(post);
+        CommentsDTO comment = new CommentsDTO();
+        comment.setUserId(2L);
+        comment.setContent("comment");
+        comment.setCreatedAt(Instant.now());
+        comment.setPost(post);
+        comment = commentsService.save(comment);
+        ReactionsDTO reaction = new ReactionsDTO();
+        reaction.setUserId(3L);
+        reaction.setReactionType(ReactionType.LIKE);
+        reaction.setCreatedAt(Instant.now());
+        reaction.setComment(comment);
+        reaction = reactionsService.save(reaction);
+        reactionsService.delete(reaction.getId());
+
+        while (outboxRelay.dispatchNextBatch() > 0) {
+            // drain the events left by other tests
+        }
+
+        Message<byte[]> message;
+        Message<byte[]> published = null;
+        while ((message = output.receive(1000, "sse-topic")) != null) {
+            EventEnvelope envelope = EventEnvelopeCodec.decode(message.getPayload());
+            if (reaction.getId().equals(envelope.entityId()) && OutboxEventType.DELETED.name().equals(envelope.eventType())) {
+                published = message;
+            }
+        }
+        assertThat(published).isNotNull();
+        assertThat(published.getHeaders())
+            .containsEntry(SseTopics.POST_ID_HEADER, post.getId())
+            .containsEntry(SseTopics.COUNTS_TARGET_HEADER, "COMMENT:" + comment.getId());
+        assertThat((String) published.getHeaders().get(SseTopics.COUNTS_HEADER)).contains("\"LIKE\":0");
+    }
+}
@@ -0,0 +1,79 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void concurrentLoadsOfTheSameKeyAreCoalescedTest() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> leader = executor.submit(() ->
+                singleFlight.load(1L, () -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    await(release);
+                    return "post";
+                })
+            );
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(executor.submit(() -> singleFlight.load(1L, () -> "loaded " + loads.incrementAndGet())));
+            }
+            // The followers are waiting for the leader, or are not started yet
+            Thread.sleep(50);
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("post");
+            for (Future<String> follower : followers) {
+                assertThat(follower.get(5, TimeUnit.SECONDS)).isIn("post", "loaded 2", "loaded 3", "loaded 4");
+            }
+            assertThat(singleFlight.size()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedLoadIsNotKeptTest() {
+        assertThatThrownBy(() ->
+            singleFlight.load(1L, () -> {
+                throw new IllegalStateException("Database unavailable");
+            })
+        ).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.load(1L, () -> "post")).isEqualTo("post");
+        assertThat(singleFlight.size()).isZero();
+    }
+
+    @Test
+    void differentKeysAreLoadedSeparatelyTest() {
+        assertThat(singleFlight.load(1L, () -> "first")).isEqualTo("first");
+        assertThat(singleFlight.load(2L, () -> "second")).isEqualTo("second");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.mycompany.myapp.service.criteria;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodeDecodeRoundTripTest() {
+        var cursor = KeysetCursor.of(Instant.ofEpochSecond(1713263273L, 123456000), 42L);
+
+        var decoded = KeysetCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor).hasSameHashCodeAs(cursor);
+        assertThat(decoded.getCreatedAt()).isEqualTo(cursor.getCreatedAt());
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void encodeDecodeRoundTripWithoutCreatedAtTest() {
+        var cursor = KeysetCursor.of(null, 7L);
+
+        var decoded = KeysetCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.getCreatedAt()).isNull();
+    }
+
+    @Test
+    void encodedCursorIsUrlSafeTest() {
+        var encoded = KeysetCursor.of(Instant.now(), Long.MAX_VALUE).encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void blankCursorMeansFirstPageTest() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode("")).isNull();
+    }
+
+    @Test
+    void invalidCursorIsRejectedTest() {
+        assertThatIllegalArgumentException().isThrownBy(() -> KeysetCursor.decode("not a cursor"));
+        assertThatIllegalArgumentException().isThrownBy(() -> KeysetCursor.decode("MTox"));
+    }
+}
@@ -19,8 +19,11 @@ import com.mycompany.myapp.service.mapper.CommentsMapper;
 import jakarta.persistence.EntityManager;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -151,6 +154,37 @@ class CommentsResourceIT {
         assertSameRepositoryCount(databaseSizeBeforeCreate);
     }
 
+    @Test
+    @Transactional
+    void createCommentsBulk() throws Exception {
+        long databaseSizeBeforeCreate = getRepositoryCount();
+        CommentsDTO valid = commentsMapper.toDto(comments);
+        CommentsDTO withId = commentsMapper.toDto(createEntity());
+        withId.setId(1L);
+        CommentsDTO tooLong = commentsMapper.toDto(createEntity());
+        tooLong.setContent("A".repeat(5001));
+
+        restCommentsMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_bulk")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(List.of(withId, valid, tooLong)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(3))
+            .andExpect(jsonPath("$.[0].status").value("REJECTED"))
+            .andExpect(jsonPath("$.[0].errorKey").value("idexists"))
+            .andExpect(jsonPath("$.[1].index").value(1))
+            .andExpect(jsonPath("$.[1].status").value("CREATED"))
+            .andExpect(jsonPath("$.[1].id").isNumber())
+            .andExpect(jsonPath("$.[2].status").value("REJECTED"))
+            .andExpect(jsonPath("$.[2].errorKey").value("validation"));
+
+        // Only the valid item is created
+        assertIncrementedRepositoryCount(databaseSizeBeforeCreate);
+    }
+
     @Test
     @Transactional
     void getAllComments() throws Exception {
@@ -168,6 +202,40 @@ class CommentsResourceIT {
             .andExpect(jsonPath("$.[*].createdAt").value(hasItem(DEFAULT_CREATED_AT.toString())));
     }
 
+    @Test
+    @Transactional
+    void getAllCommentsWithCursor() throws Exception {
+        // Initialize the database with two comments more recent than any other one
+        Comments olderComments = commentsRepository.saveAndFlush(createEntity().createdAt(Instant.parse("2999-01-01T00:00:00Z")));
+        Comments newerComments = commentsRepository.saveAndFlush(createEntity().createdAt(Instant.parse("2999-01-01T00:00:01Z")));
+
+        // Get the first page, which contains only the newest comments
+        String nextCursor = restCommentsMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(newerComments.getId().intValue()))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+
+        // Get the next page, using the returned cursor
+        restCommentsMockMvc
+            .perform(get(ENTITY_API_URL + "?size=1&cursor=" + nextCursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(olderComments.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllCommentsWithInvalidCursor() throws Exception {
+        restCommentsMockMvc.perform(get(ENTITY_API_URL + "?cursor=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getComments() throws Exception {
@@ -439,6 +507,68 @@ class CommentsResourceIT {
             .andExpect(content().string("0"));
     }
 
+    @Test
+    @Transactional
+    void exportComments() throws Exception {
+        // Initialize the database
+        insertedComments = commentsRepository.saveAndFlush(comments);
+        Comments other = commentsRepository.saveAndFlush(createEntity());
+        // Not exported, as it does not match the criteria
+        commentsRepository.saveAndFlush(createEntity());
+
+        String content = restCommentsMockMvc
+            .perform(get(ENTITY_API_URL + "/_export?id.in=" + other.getId() + "," + comments.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        // One document per line, ordered by id
+        List<CommentsDTO> exported = new ArrayList<>();
+        for (String line : content.split("\n")) {
+            exported.add(om.readValue(line, CommentsDTO.class));
+        }
+        assertThat(exported).extracting(CommentsDTO::getId).containsExactly(comments.getId(), other.getId());
+        assertThat(exported.get(0).getContent()).isEqualTo(DEFAULT_CONTENT);
+        assertThat(content).endsWith("\n");
+    }
+
+    @Test
+    @Transactional
+    void getCommentsBatch() throws Exception {
+        // Initialize the database
+        insertedComments = commentsRepository.saveAndFlush(comments);
+        Comments other = commentsRepository.saveAndFlush(createEntity());
+
+        // Get both, in reverse order of creation, with an unknown and a duplicated id
+        restCommentsMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_batch")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(List.of(other.getId(), Long.MAX_VALUE, comments.getId(), other.getId())))
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(other.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(comments.getId().intValue()))
+            .andExpect(jsonPath("$.[1].userId").value(DEFAULT_USER_ID.intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getCommentsBatchWithTooManyIds() throws Exception {
+        List<Long> ids = LongStream.rangeClosed(1, 101).boxed().toList();
+
+        restCommentsMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_batch").with(csrf()).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(ids))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getNonExistingComments() throws Exception {
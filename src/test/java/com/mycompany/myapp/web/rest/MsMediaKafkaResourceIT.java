@@ -8,6 +8,9 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.broker.EventEnvelope;
+import com.mycompany.myapp.broker.EventEnvelopeCodec;
+import com.mycompany.myapp.broker.SseTopics;
 import com.mycompany.myapp.config.EmbeddedKafka;
 import java.util.HashMap;
 import java.util.Map;
@@ -45,7 +48,9 @@ class MsMediaKafkaResourceIT {
     @Test
     void producesMessages() throws Exception {
         restMockMvc.perform(post("/api/ms-media-kafka/publish?message=value-produce").with(csrf())).andExpect(status().isOk());
-        assertThat(output.receive(1000, "binding-out-0").getPayload()).isEqualTo("value-produce".getBytes());
+        EventEnvelope envelope = EventEnvelopeCodec.decode(output.receive(1000, "binding-out-0").getPayload());
+        assertThat(envelope.eventType()).isEqualTo(EventEnvelope.MESSAGE_EVENT);
+        assertThat(envelope.data()).isEqualTo("value-produce");
     }
 
     @Test
@@ -58,7 +63,8 @@ class MsMediaKafkaResourceIT {
         Map<String, Object> map = new HashMap<>();
         map.put(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.TEXT_PLAIN_VALUE);
         MessageHeaders headers = new MessageHeaders(map);
-        Message<String> testMessage = new GenericMessage<>("value-consume", headers);
+        // A text record, from a producer which does not write event envelopes
+        Message<byte[]> testMessage = new GenericMessage<>("value-consume".getBytes(), headers);
         MvcResult mvcResult = restMockMvc
             .perform(get("/api/ms-media-kafka/register"))
             .andExpect(status().isOk())
@@ -75,4 +81,31 @@ class MsMediaKafkaResourceIT {
         }
         fail("Expected content data:value-consume not received");
     }
+
+    @Test
+    void consumesScopedMessages() throws Exception {
+        Map<String, Object> map = new HashMap<>();
+        map.put(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.TEXT_PLAIN_VALUE);
+        map.put(SseTopics.POST_ID_HEADER, 42L);
+        Message<byte[]> watchedMessage = new GenericMessage<>("value-watched".getBytes(), new MessageHeaders(map));
+        map.put(SseTopics.POST_ID_HEADER, 43L);
+        Message<byte[]> otherMessage = new GenericMessage<>("value-other".getBytes(), new MessageHeaders(map));
+        MvcResult mvcResult = restMockMvc
+            .perform(get("/api/ms-media-kafka/register?postId=42"))
+            .andExpect(status().isOk())
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        for (int i = 0; i < 100; i++) {
+            input.send(otherMessage);
+            input.send(watchedMessage);
+            Thread.sleep(100);
+            String content = mvcResult.getResponse().getContentAsString();
+            if (content.contains("data:value-watched")) {
+                assertThat(content).doesNotContain("data:value-other");
+                restMockMvc.perform(get("/api/ms-media-kafka/unregister"));
+                return;
+            }
+        }
+        fail("Expected content data:value-watched not received");
+    }
 }
@@ -10,15 +10,20 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Comments;
 import com.mycompany.myapp.domain.Posts;
 import com.mycompany.myapp.repository.PostsRepository;
 import com.mycompany.myapp.service.dto.PostsDTO;
 import com.mycompany.myapp.service.mapper.PostsMapper;
+import com.mycompany.myapp.web.rest.util.PaginationHeaderUtil;
 import jakarta.persistence.EntityManager;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -188,6 +193,99 @@ class PostsResourceIT {
             .andExpect(jsonPath("$.[*].updatedAt").value(hasItem(DEFAULT_UPDATED_AT.toString())));
     }
 
+    @Test
+    @Transactional
+    void getAllPostsWithCursor() throws Exception {
+        // Initialize the database with two posts more recent than any other one
+        Posts olderPosts = postsRepository.saveAndFlush(createEntity().createdAt(Instant.parse("2999-01-01T00:00:00Z")));
+        Posts newerPosts = postsRepository.saveAndFlush(createEntity().createdAt(Instant.parse("2999-01-01T00:00:01Z")));
+
+        // Get the first page, which contains only the newest posts
+        String nextCursor = restPostsMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(newerPosts.getId().intValue()))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+
+        // Get the next page, using the returned cursor
+        restPostsMockMvc
+            .perform(get(ENTITY_API_URL + "?size=1&cursor=" + nextCursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(olderPosts.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllPostsWithInvalidCursor() throws Exception {
+        restPostsMockMvc.perform(get(ENTITY_API_URL + "?cursor=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllPostsWithoutCount() throws Exception {
+        // Initialize the database
+        insertedPosts = postsRepository.saveAndFlush(posts);
+        postsRepository.saveAndFlush(createEntity());
+
+        restPostsMockMvc
+            .perform(get(ENTITY_API_URL + "?id.greaterThanOrEqual=" + posts.getId() + "&sort=id,asc&size=1&count=none"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(PaginationHeaderUtil.HEADER_HAS_NEXT_PAGE, "true"))
+            .andExpect(header().string(PaginationHeaderUtil.HEADER_TOTAL_COUNT_MODE, "none"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(posts.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllPostsWithCachedCount() throws Exception {
+        // Initialize the database
+        insertedPosts = postsRepository.saveAndFlush(posts);
+        String filter = "?id.greaterThanOrEqual=" + posts.getId() + "&count=cached&size=1";
+
+        restPostsMockMvc
+            .perform(get(ENTITY_API_URL + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(header().string(PaginationHeaderUtil.HEADER_TOTAL_COUNT_MODE, "cached"));
+
+        // The count is reused for the same criteria: it is only raised to cover the page which was read and the next one
+        postsRepository.saveAndFlush(createEntity());
+        postsRepository.saveAndFlush(createEntity());
+        restPostsMockMvc
+            .perform(get(ENTITY_API_URL + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(header().string(PaginationHeaderUtil.HEADER_HAS_NEXT_PAGE, "true"));
+    }
+
+    @Test
+    @Transactional
+    void getAllPostsWithEstimatedCount() throws Exception {
+        // Initialize the database
+        insertedPosts = postsRepository.saveAndFlush(posts);
+
+        restPostsMockMvc
+            .perform(get(ENTITY_API_URL + "?count=estimate"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(header().string(PaginationHeaderUtil.HEADER_TOTAL_COUNT_MODE, "estimate"));
+    }
+
+    @Test
+    @Transactional
+    void getAllPostsWithInvalidCountMode() throws Exception {
+        restPostsMockMvc.perform(get(ENTITY_API_URL + "?count=approximate")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getPosts() throws Exception {
@@ -531,6 +629,126 @@ class PostsResourceIT {
             .andExpect(content().string("0"));
     }
 
+    @Test
+    @Transactional
+    void exportPosts() throws Exception {
+        // Initialize the database
+        insertedPosts = postsRepository.saveAndFlush(posts);
+        Posts other = postsRepository.saveAndFlush(createEntity());
+        // Not exported, as it does not match the criteria
+        postsRepository.saveAndFlush(createEntity());
+
+        String content = restPostsMockMvc
+            .perform(get(ENTITY_API_URL + "/_export?id.in=" + other.getId() + "," + posts.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        // One document per line, ordered by id
+        List<PostsDTO> exported = new ArrayList<>();
+        for (String line : content.split("\n")) {
+            exported.add(om.readValue(line, PostsDTO.class));
+        }
+        assertThat(exported).extracting(PostsDTO::getId).containsExactly(posts.getId(), other.getId());
+        assertThat(exported.get(0).getUserId()).isEqualTo(DEFAULT_USER_ID);
+        assertThat(content).endsWith("\n");
+    }
+
+    @Test
+    @Transactional
+    void getPostsBatch() throws Exception {
+        // Initialize the database
+        insertedPosts = postsRepository.saveAndFlush(posts);
+        Posts other = postsRepository.saveAndFlush(createEntity());
+
+        // Get both, in reverse order of creation, with an unknown and a duplicated id
+        restPostsMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_batch")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(List.of(other.getId(), Long.MAX_VALUE, posts.getId(), other.getId())))
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(other.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(posts.getId().intValue()))
+            .andExpect(jsonPath("$.[1].userId").value(DEFAULT_USER_ID.intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getPostsBatchWithTooManyIds() throws Exception {
+        List<Long> ids = LongStream.rangeClosed(1, 101).boxed().toList();
+
+        restPostsMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_batch").with(csrf()).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(ids))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getCommentTree() throws Exception {
+        // Initialize the database
+        insertedPosts = postsRepository.saveAndFlush(posts);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Comments first = persistComment(null, now);
+        persistComment(null, now.plusSeconds(1));
+        Comments reply = persistComment(first, now.plusSeconds(2));
+        persistComment(first, now.plusSeconds(3));
+        persistComment(reply, now.plusSeconds(4));
+
+        // One reply per comment, one level of replies
+        restPostsMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/comment-tree?depth=1&replies=1", posts.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(first.getId().intValue()))
+            .andExpect(jsonPath("$.[0].depth").value(0))
+            .andExpect(jsonPath("$.[0].replyCount").value(2))
+            .andExpect(jsonPath("$.[0].replies.length()").value(1))
+            .andExpect(jsonPath("$.[0].replies.[0].id").value(reply.getId().intValue()))
+            .andExpect(jsonPath("$.[0].replies.[0].depth").value(1))
+            .andExpect(jsonPath("$.[0].replies.[0].replyCount").value(1))
+            .andExpect(jsonPath("$.[0].replies.[0].replies.length()").value(0));
+
+        // The whole thread
+        restPostsMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/comment-tree", posts.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].replies.length()").value(2))
+            .andExpect(jsonPath("$.[0].replies.[0].replies.length()").value(1));
+    }
+
+    @Test
+    @Transactional
+    void getCommentTreeWithInvalidLimits() throws Exception {
+        insertedPosts = postsRepository.saveAndFlush(posts);
+
+        restPostsMockMvc.perform(get(ENTITY_API_URL_ID + "/comment-tree?depth=-1", posts.getId())).andExpect(status().isBadRequest());
+        restPostsMockMvc.perform(get(ENTITY_API_URL_ID + "/comment-tree?replies=0", posts.getId())).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getCommentTreeOfNonExistingPosts() throws Exception {
+        restPostsMockMvc.perform(get(ENTITY_API_URL_ID + "/comment-tree", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    private Comments persistComment(Comments parentComment, Instant createdAt) {
+        Comments comment = CommentsResourceIT.createEntity().post(posts).parentComment(parentComment).createdAt(createdAt);
+        em.persist(comment);
+        em.flush();
+        return comment;
+    }
+
     @Test
     @Transactional
     void getNonExistingPosts() throws Exception {
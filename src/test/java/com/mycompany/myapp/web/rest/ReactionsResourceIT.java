@@ -20,8 +20,11 @@ import com.mycompany.myapp.service.mapper.ReactionsMapper;
 import jakarta.persistence.EntityManager;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -152,6 +155,37 @@ class ReactionsResourceIT {
         assertSameRepositoryCount(databaseSizeBeforeCreate);
     }
 
+    @Test
+    @Transactional
+    void createReactionsBulk() throws Exception {
+        Posts post = PostsResourceIT.createEntity();
+        em.persist(post);
+        em.flush();
+        reactions.setPost(post);
+        long databaseSizeBeforeCreate = getRepositoryCount();
+        ReactionsDTO withId = reactionsMapper.toDto(createEntity());
+        withId.setId(1L);
+
+        restReactionsMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_bulk")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(List.of(reactionsMapper.toDto(reactions), withId, reactionsMapper.toDto(reactions))))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(3))
+            .andExpect(jsonPath("$.[0].status").value("CREATED"))
+            .andExpect(jsonPath("$.[1].status").value("REJECTED"))
+            .andExpect(jsonPath("$.[1].errorKey").value("idexists"))
+            .andExpect(jsonPath("$.[2].index").value(2))
+            .andExpect(jsonPath("$.[2].status").value("CREATED"));
+
+        // The valid items are created, and counted once per item
+        assertThat(getRepositoryCount()).isEqualTo(databaseSizeBeforeCreate + 2);
+        expectPostReactionCounts(post.getId(), 2, 0);
+    }
+
     @Test
     @Transactional
     void getAllReactions() throws Exception {
@@ -423,6 +457,41 @@ class ReactionsResourceIT {
             .andExpect(content().string("0"));
     }
 
+    @Test
+    @Transactional
+    void getReactionsBatch() throws Exception {
+        // Initialize the database
+        insertedReactions = reactionsRepository.saveAndFlush(reactions);
+        Reactions other = reactionsRepository.saveAndFlush(createEntity());
+
+        // Get both, in reverse order of creation, with an unknown and a duplicated id
+        restReactionsMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_batch")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(List.of(other.getId(), Long.MAX_VALUE, reactions.getId(), other.getId())))
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(other.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(reactions.getId().intValue()))
+            .andExpect(jsonPath("$.[1].userId").value(DEFAULT_USER_ID.intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getReactionsBatchWithTooManyIds() throws Exception {
+        List<Long> ids = LongStream.rangeClosed(1, 101).boxed().toList();
+
+        restReactionsMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_batch").with(csrf()).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(ids))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getNonExistingReactions() throws Exception {
@@ -665,6 +734,86 @@ class ReactionsResourceIT {
         assertDecrementedRepositoryCount(databaseSizeBeforeDelete);
     }
 
+    @Test
+    @Transactional
+    void reactionCountersFollowReactionsWrites() throws Exception {
+        Posts post = PostsResourceIT.createEntity();
+        em.persist(post);
+        em.flush();
+        reactions.setPost(post);
+
+        // Create a reaction on the post
+        ReactionsDTO reactionsDTO = om.readValue(
+            restReactionsMockMvc
+                .perform(
+                    post(ENTITY_API_URL)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsBytes(reactionsMapper.toDto(reactions)))
+                )
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            ReactionsDTO.class
+        );
+        expectPostReactionCounts(post.getId(), 1, 0);
+
+        // Change its type
+        reactionsDTO.setReactionType(UPDATED_REACTION_TYPE);
+        restReactionsMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, reactionsDTO.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(reactionsDTO))
+            )
+            .andExpect(status().isOk());
+        expectPostReactionCounts(post.getId(), 0, 1);
+
+        // Delete it
+        restReactionsMockMvc
+            .perform(delete(ENTITY_API_URL_ID, reactionsDTO.getId()).with(csrf()).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNoContent());
+        expectPostReactionCounts(post.getId(), 0, 0);
+    }
+
+    @Test
+    @Transactional
+    void getReactionCountersOfTargetsWithoutReactions() throws Exception {
+        restReactionsMockMvc
+            .perform(get(ENTITY_API_URL + "/counters?targetType=COMMENT&targetIds=" + Long.MAX_VALUE + "," + (Long.MAX_VALUE - 1)))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].targetType").value("COMMENT"))
+            .andExpect(jsonPath("$.[0].targetId").value(Long.MAX_VALUE))
+            .andExpect(jsonPath("$.[1].targetId").value(Long.MAX_VALUE - 1))
+            .andExpect(jsonPath("$.[1].counts.LIKE").value(0))
+            .andExpect(jsonPath("$.[1].counts.ANGRY").value(0));
+    }
+
+    @Test
+    @Transactional
+    void getReactionCountersWithTooManyIds() throws Exception {
+        String targetIds = LongStream.rangeClosed(1, 101)
+            .mapToObj(String::valueOf)
+            .collect(Collectors.joining(","));
+
+        restReactionsMockMvc
+            .perform(get(ENTITY_API_URL + "/counters?targetType=POST&targetIds=" + targetIds))
+            .andExpect(status().isBadRequest());
+    }
+
+    private void expectPostReactionCounts(Long postId, int defaultTypeCount, int updatedTypeCount) throws Exception {
+        restReactionsMockMvc
+            .perform(get(ENTITY_API_URL + "/counters?targetType=POST&targetIds=" + postId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].targetId").value(postId.intValue()))
+            .andExpect(jsonPath("$.[0].counts." + DEFAULT_REACTION_TYPE).value(defaultTypeCount))
+            .andExpect(jsonPath("$.[0].counts." + UPDATED_REACTION_TYPE).value(updatedTypeCount));
+    }
+
     protected long getRepositoryCount() {
         return reactionsRepository.count();
     }
@@ -0,0 +1,105 @@
+package com.mycompany.myapp.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.service.dto.BulkItemResultDTO;
+import com.mycompany.myapp.service.dto.BulkItemResultDTO.Status;
+import com.mycompany.myapp.service.dto.CommentsDTO;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+class BulkRequestUtilTest {
+
+    private ValidatorFactory validatorFactory;
+
+    private Validator validator;
+
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void validItemsAreSavedTogetherTest() {
+        List<BulkItemResultDTO> results = BulkRequestUtil.createAll(
+            List.of(comment("first"), comment("second")),
+            validator,
+            CommentsDTO::getId,
+            this::saveAll
+        );
+
+        assertThat(results).extracting(BulkItemResultDTO::getStatus).containsExactly(Status.CREATED, Status.CREATED);
+        assertThat(results).extracting(BulkItemResultDTO::getId).containsExactly(1L, 2L);
+        assertThat(batchSizes).containsExactly(2);
+    }
+
+    @Test
+    void itemRejectedByTheDatabaseIsReportedAloneTest() {
+        CommentsDTO tooLong = comment("a".repeat(5001));
+
+        List<BulkItemResultDTO> results = BulkRequestUtil.createAll(
+            List.of(comment("first"), comment("missing parent"), tooLong, comment("third")),
+            validator,
+            CommentsDTO::getId,
+            this::saveAll
+        );
+
+        assertThat(results)
+            .extracting(BulkItemResultDTO::getStatus)
+            .containsExactly(Status.CREATED, Status.REJECTED, Status.REJECTED, Status.CREATED);
+        assertThat(results).extracting(BulkItemResultDTO::getErrorKey).containsExactly(null, "constraint", "validation", null);
+        assertThat(results.get(1).getMessage()).doesNotContain("insert");
+        // The batch, then each item of it
+        assertThat(batchSizes).containsExactly(3, 1, 1, 1);
+    }
+
+    @Test
+    void transientFailureIsNotReportedPerItemTest() {
+        UnaryOperator<List<CommentsDTO>> failing = items -> {
+            throw new QueryTimeoutException("timeout");
+        };
+
+        assertThatThrownBy(() -> BulkRequestUtil.createAll(List.of(comment("first")), validator, CommentsDTO::getId, failing)).isInstanceOf(
+            QueryTimeoutException.class
+        );
+    }
+
+    /**
+     * Save the comments, failing as a database would for the ones whose content starts with "missing".
+     */
+    private List<CommentsDTO> saveAll(List<CommentsDTO> comments) {
+        batchSizes.add(comments.size());
+        if (comments.stream().anyMatch(comment -> comment.getContent().startsWith("missing"))) {
+            throw new DataIntegrityViolationException("could not execute statement [insert into comments ...]");
+        }
+        comments.forEach(comment -> comment.setId(nextId.getAndIncrement()));
+        return comments;
+    }
+
+    private static CommentsDTO comment(String content) {
+        CommentsDTO comment = new CommentsDTO();
+        comment.setContent(content);
+        return comment;
+    }
+}
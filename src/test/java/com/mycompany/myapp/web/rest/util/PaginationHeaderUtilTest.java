@@ -0,0 +1,60 @@
+package com.mycompany.myapp.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import com.mycompany.myapp.web.rest.util.PaginationHeaderUtil.CountMode;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+class PaginationHeaderUtilTest {
+
+    @Test
+    void countModeFromParameterTest() {
+        assertThat(CountMode.fromParameter(null)).isEqualTo(CountMode.EXACT);
+        assertThat(CountMode.fromParameter("none")).isEqualTo(CountMode.NONE);
+        assertThat(CountMode.fromParameter("Estimate")).isEqualTo(CountMode.ESTIMATE);
+        assertThatIllegalArgumentException().isThrownBy(() -> CountMode.fromParameter("approximate"));
+    }
+
+    @Test
+    void slicePaginationHeadersWithoutCountTest() {
+        var slice = new SliceImpl<>(List.of("c", "d"), PageRequest.of(1, 2), true);
+
+        HttpHeaders headers = PaginationHeaderUtil.generateSlicePaginationHttpHeaders(
+            UriComponentsBuilder.fromUriString("http://localhost/api/posts?count=none"),
+            slice,
+            CountMode.NONE,
+            null
+        );
+
+        assertThat(headers.getFirst(PaginationHeaderUtil.HEADER_HAS_NEXT_PAGE)).isEqualTo("true");
+        assertThat(headers.getFirst(PaginationHeaderUtil.HEADER_TOTAL_COUNT_MODE)).isEqualTo("none");
+        assertThat(headers.containsKey("X-Total-Count")).isFalse();
+        assertThat(headers.getFirst(HttpHeaders.LINK))
+            .contains("<http://localhost/api/posts?count=none&page=2&size=2>; rel=\"next\"")
+            .contains("<http://localhost/api/posts?count=none&page=0&size=2>; rel=\"prev\"")
+            .doesNotContain("rel=\"last\"");
+    }
+
+    @Test
+    void slicePaginationHeadersWithEstimateBelowTheReadEntitiesTest() {
+        var slice = new SliceImpl<>(List.of("c", "d"), PageRequest.of(1, 2), true);
+
+        HttpHeaders headers = PaginationHeaderUtil.generateSlicePaginationHttpHeaders(
+            UriComponentsBuilder.fromUriString("http://localhost/api/posts"),
+            slice,
+            CountMode.ESTIMATE,
+            3L
+        );
+
+        // The next page exists, so there are at least 5 entities
+        assertThat(headers.getFirst("X-Total-Count")).isEqualTo("5");
+        assertThat(headers.getFirst(PaginationHeaderUtil.HEADER_TOTAL_COUNT_MODE)).isEqualTo("estimate");
+        assertThat(headers.getFirst(HttpHeaders.LINK)).contains("rel=\"last\"");
+    }
+}
@@ -0,0 +1,69 @@
+package com.mycompany.myapp.web.websocket;
+
+import static org.springframework.web.servlet.mvc.method.annotation.SseEmitter.event;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+/**
+ * JMH benchmark comparing the encoding of a message in an SSE event with its encoding in a {@link WebSocketConnection} frame,
+ * in JSON and in binary. It is not run by the build; run its {@link #main} method from the test classpath, which first prints
+ * the size of each frame.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RealtimeTransportBenchmark {
+
+    private static final String ID = "k3j8f2a1-123456";
+
+    private static final String MESSAGE = "{\"id\":987654,\"postId\":123456,\"userId\":42,\"content\":\"Nice picture!\"," +
+    "\"createdAt\":\"2025-01-01T10:15:30.123Z\"}";
+
+    @Benchmark
+    public int sseEvent() {
+        int size = 0;
+        for (DataWithMediaType data : event().id(ID).data(MESSAGE, MediaType.TEXT_PLAIN).build()) {
+            size += data.getData().toString().getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    @Benchmark
+    public int webSocketJsonFrame() {
+        return WebSocketConnection.encodeJson(ID, null, MESSAGE).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    @Benchmark
+    public int webSocketBinaryFrame() {
+        ByteBuffer frame = WebSocketConnection.encodeBinary(ID, null, MESSAGE);
+        return frame.remaining();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        RealtimeTransportBenchmark benchmark = new RealtimeTransportBenchmark();
+        // Payload sizes, without the framing of the transport: the WebSocket header takes 2 to 4 bytes for these sizes
+        System.out.printf("%-22s %4d bytes%n", "sse event", benchmark.sseEvent());
+        System.out.printf("%-22s %4d bytes%n", "websocket json frame", benchmark.webSocketJsonFrame());
+        System.out.printf("%-22s %4d bytes%n", "websocket binary frame", benchmark.webSocketBinaryFrame());
+        new Runner(new OptionsBuilder().include(RealtimeTransportBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,142 @@
+package com.mycompany.myapp.web.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.broker.KafkaConsumer;
+import com.mycompany.myapp.broker.KafkaRetryPublisher;
+import com.mycompany.myapp.broker.SseEmitterRegistry;
+import com.mycompany.myapp.broker.SseTopics;
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+class RealtimeWebSocketHandlerTest {
+
+    private SseEmitterRegistry registry;
+
+    private RealtimeWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        registry = new SseEmitterRegistry(applicationProperties, meterRegistry);
+        applicationProperties.getKafka().setInstanceId("ms-media-0");
+        KafkaRetryPublisher kafkaRetryPublisher = new KafkaRetryPublisher(mock(StreamBridge.class), applicationProperties, meterRegistry);
+        KafkaConsumer kafkaConsumer = new KafkaConsumer(registry, kafkaRetryPublisher, applicationProperties, meterRegistry);
+        handler = new RealtimeWebSocketHandler(kafkaConsumer, new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.destroy();
+    }
+
+    @Test
+    void messagesOfTheTopicsOfTheConnectionAreSentAsJsonFramesTest() throws Exception {
+        List<WebSocketMessage<?>> frames = new CopyOnWriteArrayList<>();
+        WebSocketSession session = session("postId=1,2", frames);
+
+        handler.afterConnectionEstablished(session);
+        registry.publish(Set.of(SseTopics.post(2L)), "{\"content\":\"comment\"}");
+        registry.publish(Set.of(SseTopics.post(3L)), "other post");
+
+        waitUntil(() -> frames.size() == 1);
+        String payload = ((TextMessage) frames.get(0)).getPayload();
+        assertThat(payload).startsWith("{\"id\":\"").endsWith("\",\"data\":\"{\\\"content\\\":\\\"comment\\\"}\"}");
+        assertThat(registry.size(SseTopics.post(1L))).isEqualTo(1);
+
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void messagesAreSentAsBinaryFramesTest() throws Exception {
+        List<WebSocketMessage<?>> frames = new CopyOnWriteArrayList<>();
+        handler.afterConnectionEstablished(session("encoding=binary", frames));
+
+        registry.broadcast("é");
+
+        waitUntil(() -> frames.size() == 1);
+        ByteBuffer frame = ((BinaryMessage) frames.get(0)).getPayload();
+        assertThat(frame.get()).isEqualTo(WebSocketConnection.MESSAGE_FRAME);
+        byte[] id = new byte[frame.get()];
+        frame.get(id);
+        assertThat(new String(id, StandardCharsets.US_ASCII)).endsWith("-1");
+        byte[] data = new byte[frame.remaining()];
+        frame.get(data);
+        assertThat(new String(data, StandardCharsets.UTF_8)).isEqualTo("é");
+    }
+
+    @Test
+    void subscribeAndUnsubscribeCommandsChangeTheTopicsTest() throws Exception {
+        WebSocketSession session = session("postId=1", new CopyOnWriteArrayList<>());
+        handler.afterConnectionEstablished(session);
+
+        handler.handleMessage(session, new TextMessage("{\"action\":\"subscribe\",\"postIds\":[2],\"userIds\":[7]}"));
+        handler.handleMessage(session, new TextMessage("{\"action\":\"unsubscribe\",\"postIds\":[1]}"));
+
+        assertThat(registry.size(SseTopics.post(1L))).isZero();
+        assertThat(registry.size(SseTopics.post(2L))).isEqualTo(1);
+        assertThat(registry.size(SseTopics.user(7L))).isEqualTo(1);
+    }
+
+    @Test
+    void invalidCommandClosesTheConnectionTest() throws Exception {
+        WebSocketSession session = session("", new CopyOnWriteArrayList<>());
+        handler.afterConnectionEstablished(session);
+
+        handler.handleMessage(session, new TextMessage("{\"action\":\"delete\"}"));
+
+        verify(session).close(CloseStatus.BAD_DATA);
+    }
+
+    @Test
+    void jsonFrameOfABatchHasAnObjectAsDataTest() {
+        assertThat(WebSocketConnection.encodeJson("a-1", SseEmitterRegistry.BATCH_EVENT, "{\"count\":2}")).isEqualTo(
+            "{\"id\":\"a-1\",\"event\":\"batch\",\"data\":{\"count\":2}}"
+        );
+    }
+
+    private static WebSocketSession session(String query, List<WebSocketMessage<?>> frames) throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("session");
+        when(session.getUri()).thenReturn(URI.create("ws://localhost" + RealtimeWebSocketHandler.PATH + "?" + query));
+        when(session.getAttributes()).thenReturn(new ConcurrentHashMap<>());
+        when(session.isOpen()).thenReturn(true);
+        doAnswer(invocation -> frames.add(invocation.getArgument(0))).when(session).sendMessage(any());
+        return session;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition reached before timeout").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}